@@ -5,7 +5,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.enums.BookingState;
@@ -28,26 +30,41 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                              String fields, boolean compact) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields,
+                "compact", compact
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&fields={fields}&compact={compact}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingById(long userId, long bookingId) {
-        return get("/" + bookingId, userId);
+    public ResponseEntity<Object> getSummary(long userId) {
+        return get("/summary", userId);
     }
 
-    public ResponseEntity<Object> getBookingsAllItem(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<StreamingResponseBody> stream(long userId, String lastEventId) {
+        return stream("/stream", userId, lastEventId);
+    }
+
+    public ResponseEntity<Object> getBookingById(long userId, long bookingId, @Nullable String ifNoneMatch) {
+        return get("/" + bookingId, userId, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getBookingsAllItem(long userId, BookingState state, Integer from, Integer size,
+                                                     String fields, boolean compact) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields,
+                "compact", compact
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}&fields={fields}&compact={compact}", userId,
+                parameters);
     }
 
     public ResponseEntity<Object> addBooking(long userId, BookingCreateDto bookingCreateDto) {
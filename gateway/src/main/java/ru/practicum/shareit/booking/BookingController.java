@@ -2,9 +2,11 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.exception.ValidationException;
@@ -16,6 +18,7 @@ import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 @Validated
 @RestController
@@ -25,20 +28,36 @@ public class BookingController {
 
 	private final BookingClient bookingClient;
 
+	@GetMapping(value = "/summary", produces = APPLICATION_JSON_VALUE)
+	public ResponseEntity<Object> getSummary(@RequestHeader("X-Sharer-User-Id") @Positive long userId) {
+		return bookingClient.getSummary(userId);
+	}
+
+	@GetMapping(value = "/stream", produces = TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> stream(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+														@RequestHeader(value = "Last-Event-ID", required = false)
+														String lastEventId) {
+		return bookingClient.stream(userId, lastEventId);
+	}
+
 	@GetMapping(value = "{bookingId}", produces = APPLICATION_JSON_VALUE)
 	public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
-									 @PathVariable("bookingId") @Positive long bookingId) {
-		return bookingClient.getBookingById(userId, bookingId);
+									 @PathVariable("bookingId") @Positive long bookingId,
+									 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+									 String ifNoneMatch) {
+		return bookingClient.getBookingById(userId, bookingId, ifNoneMatch);
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
 	public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 											  @RequestParam(name = "state", defaultValue = "all") String stateParam,
 											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+											  @RequestParam(name = "fields", defaultValue = "") String fields,
+											  @RequestParam(name = "compact", defaultValue = "false") boolean compact) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		return bookingClient.getBookings(userId, state, from, size);
+		return bookingClient.getBookings(userId, state, from, size, fields, compact);
 	}
 
 	@GetMapping(value = "/owner", produces = APPLICATION_JSON_VALUE)
@@ -47,10 +66,12 @@ public class BookingController {
 													@RequestParam(name = "from", required = false, defaultValue = "0")
 													@PositiveOrZero Integer from,
 													@RequestParam(name = "size", required = false, defaultValue = "500")
-													@Positive Integer size) {
+													@Positive Integer size,
+													@RequestParam(name = "fields", defaultValue = "") String fields,
+													@RequestParam(name = "compact", defaultValue = "false") boolean compact) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		return bookingClient.getBookingsAllItem(userId, state, from, size);
+		return bookingClient.getBookingsAllItem(userId, state, from, size, fields, compact);
 	}
 
 	@PostMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
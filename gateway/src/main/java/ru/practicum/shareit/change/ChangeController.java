@@ -0,0 +1,29 @@
+package ru.practicum.shareit.change;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@Validated
+@RestController
+@RequestMapping(path = "/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final ChangeClient changeClient;
+
+    /**
+     * Clients sync by passing the {@code next} token of the previous response as {@code since}, starting from 0.
+     */
+    @GetMapping
+    public ResponseEntity<Object> getChanges(@RequestHeader("X-Sharer-User-Id") long userId,
+                                             @RequestParam(defaultValue = "0") @PositiveOrZero long since,
+                                             @RequestParam(defaultValue = "500") @Positive int size) {
+        return changeClient.getChanges(userId, since, size);
+    }
+
+}
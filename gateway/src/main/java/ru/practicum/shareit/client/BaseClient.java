@@ -1,19 +1,31 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
 
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final int STREAM_BUFFER_SIZE = 4096;
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -32,6 +44,17 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    /**
+     * Sends a conditional GET, the server answers 304 without a body when the given entity tag is still current.
+     */
+    protected ResponseEntity<Object> get(String path, long userId, @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return sendRequest(HttpMethod.GET, path, headers, null, null);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -80,8 +103,93 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Relays a server-sent event stream from the server, every chunk is flushed to the client as soon as it is read.
+     * The {@code Last-Event-ID} of a reconnecting client is passed on, so the server can tell it to resync.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId, @Nullable String lastEventId) {
+        return stream(path, userId, MediaType.TEXT_EVENT_STREAM, lastEventId);
+    }
+
+    /**
+     * Relays a streamed response of the given type without buffering it, every chunk is flushed to the client as
+     * soon as it is read. The server is called before the response is committed, so an error status is passed
+     * through with its body instead of a 200 with a broken stream.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, @Nullable Long userId, MediaType accept) {
+        return stream(path, userId, accept, null);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String path, @Nullable Long userId, MediaType accept,
+                                                         @Nullable String lastEventId) {
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory()
+                    .createRequest(rest.getUriTemplateHandler().expand(path), HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(accept));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            if (lastEventId != null) {
+                request.getHeaders().set(LAST_EVENT_ID, lastEventId);
+            }
+            response = request.execute();
+            if (!HttpStatus.Series.SUCCESSFUL.equals(HttpStatus.Series.resolve(response.getRawStatusCode()))) {
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                MediaType contentType = response.getHeaders().getContentType();
+                response.close();
+                return ResponseEntity.status(response.getRawStatusCode())
+                        .contentType(contentType != null ? contentType : MediaType.APPLICATION_JSON)
+                        .body(outputStream -> outputStream.write(body));
+            }
+            ClientHttpResponse upstream = response;
+            return ResponseEntity.ok()
+                    .contentType(accept)
+                    .body(outputStream -> {
+                        try (upstream) {
+                            InputStream inputStream = upstream.getBody();
+                            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                            int read;
+                            while ((read = inputStream.read(buffer)) != -1) {
+                                outputStream.write(buffer, 0, read);
+                                outputStream.flush();
+                            }
+                        }
+                    });
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
+            }
+            throw new ResourceAccessException(String.format("I/O error on GET request for \"%s\": %s", path,
+                    e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Posts a body of the given type to the server while it is being read, the client must not buffer request
+     * bodies for it to stay unbuffered. The JSON response is returned as is.
+     */
+    protected ResponseEntity<Object> upload(String path, MediaType contentType, InputStream body) {
+        try {
+            return rest.execute(path, HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(contentType);
+                request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                StreamUtils.copy(body, request.getBody());
+            }, response -> ResponseEntity.status(response.getRawStatusCode())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(StreamUtils.copyToByteArray(response.getBody())));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return sendRequest(method, path, defaultHeaders(userId), parameters, body);
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, HttpHeaders headers,
+                                                   @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -106,10 +214,26 @@ public class BaseClient {
         return headers;
     }
 
+    /**
+     * Joins ids into the comma separated form a multi-value request parameter is bound from on the server.
+     */
+    protected static String joinIds(List<Long> ids) {
+        return ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Passes successful responses through with their headers. Other responses keep only their status and body,
+     * except a 304 which keeps the entity tag it confirms.
+     */
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
         }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(response.getHeaders().getETag()).build();
+        }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
 
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.graphql;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.graphql.dto.GraphQlRequestDto;
+
+@Service
+public class GraphQlClient extends BaseClient {
+
+    private static final String API_PREFIX = "/graphql";
+
+    @Autowired
+    public GraphQlClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .build()
+        );
+    }
+
+    public ResponseEntity<Object> query(long userId, GraphQlRequestDto graphQlRequestDto) {
+        return post("", userId, graphQlRequestDto);
+    }
+
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.graphql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.graphql.dto.GraphQlRequestDto;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@Validated
+@RestController
+@RequestMapping(path = "/graphql")
+@RequiredArgsConstructor
+public class GraphQlController {
+
+    private final GraphQlClient graphQlClient;
+
+    /**
+     * Passes a read query to the server, which answers errors of the query inside a 200 response as GraphQL does.
+     */
+    @PostMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> query(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @Validated @RequestBody GraphQlRequestDto graphQlRequestDto) {
+        return graphQlClient.query(userId, graphQlRequestDto);
+    }
+
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.graphql.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotBlank;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GraphQlRequestDto {
+
+    @NotBlank
+    String query;
+
+    String operationName;
+
+    Map<String, Object> variables;
+
+}
@@ -5,12 +5,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -27,16 +30,40 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size, String fields) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}&fields={fields}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getByIds(long userId, List<Long> itemIds) {
+        return get("?ids={ids}", userId, Map.of("ids", joinIds(itemIds)));
     }
 
-    public ResponseEntity<Object> getById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> getById(long userId, long itemId, @Nullable String ifNoneMatch) {
+        return get("/" + itemId, userId, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, Long after, Integer size) {
+        if (after == null) {
+            return get("/" + itemId + "/comments?size={size}", userId, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?after={after}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> getSearchItem(long userId, String text, Integer from, Integer size) {
@@ -1,15 +1,22 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.validation.GroupValidation.Create;
 
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -19,19 +26,52 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequestMapping("/items")
 public class ItemController {
 
+    private static final int MAX_IDS = 500;
+
     private final ItemClient itemClient;
 
     @GetMapping(produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> getAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
                                                       @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                                      @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return itemClient.getAllItems(userId, from, size);
+                                                      @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                                      @RequestParam(name = "fields", defaultValue = "") String fields) {
+        return itemClient.getAllItems(userId, from, size, fields);
+    }
+
+    @GetMapping(params = "ids", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getItemsByIds(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                                @RequestParam(name = "ids") @Size(min = 1, max = MAX_IDS)
+                                                List<@NotNull @Positive Long> itemIds) {
+        return itemClient.getByIds(userId, itemIds);
     }
 
     @GetMapping(value = "{id}", produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
-                                    @PathVariable("id") @Positive long itemId) {
-        return itemClient.getById(userId, itemId);
+                                    @PathVariable("id") @Positive long itemId,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                    String ifNoneMatch) {
+        return itemClient.getById(userId, itemId, ifNoneMatch);
+    }
+
+    @GetMapping(value = "{id}/availability", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                                  @PathVariable("id") @Positive long itemId,
+                                                  @RequestParam(name = "from")
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(name = "to")
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Date is not correct");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
+    @GetMapping(value = "{id}/comments", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                              @PathVariable("id") @Positive long itemId,
+                                              @RequestParam(name = "after", required = false) @Positive Long after,
+                                              @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
+        return itemClient.getComments(userId, itemId, after, size);
     }
 
     @GetMapping(value = "/search", produces = APPLICATION_JSON_VALUE)
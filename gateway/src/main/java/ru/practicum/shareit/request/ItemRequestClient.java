@@ -5,7 +5,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -27,24 +29,41 @@ public class ItemRequestClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getRequestsByUserId(Long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getRequestsByUserId(long userId, Integer from, String cursor, Integer size) {
+        return getPage("", userId, from, cursor, size);
     }
 
-    public ResponseEntity<Object> getAllRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getAllRequests(long userId, Integer from, String cursor, Integer size) {
+        return getPage("/all", userId, from, cursor, size);
+    }
+
+    public ResponseEntity<StreamingResponseBody> stream(long userId, String lastEventId) {
+        return stream("/stream", userId, lastEventId);
     }
 
-    public ResponseEntity<Object> getRequestById(long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public ResponseEntity<Object> getMatches(long userId, Integer from, Integer size) {
+        return get("/matches?from={from}&size={size}", userId, Map.of("from", from, "size", size));
+    }
+
+    public ResponseEntity<Object> getRequestById(long userId, Long requestId, @Nullable String ifNoneMatch) {
+        return get("/" + requestId, userId, ifNoneMatch);
     }
 
     public ResponseEntity<Object> addRequest(Long userId, ItemRequestDto itemRequestNewDto) {
         return post("", userId, itemRequestNewDto);
     }
 
-}
\ No newline at end of file
+    /**
+     * Asks for a page by offset when {@code from} is given, otherwise after the cursor or from the start.
+     */
+    private ResponseEntity<Object> getPage(String path, long userId, Integer from, String cursor, Integer size) {
+        if (from != null) {
+            return get(path + "?from={from}&size={size}", userId, Map.of("from", from, "size", size));
+        }
+        if (cursor != null) {
+            return get(path + "?cursor={cursor}&size={size}", userId, Map.of("cursor", cursor, "size", size));
+        }
+        return get(path + "?size={size}", userId, Map.of("size", size));
+    }
+
+}
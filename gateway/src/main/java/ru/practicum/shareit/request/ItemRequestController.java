@@ -1,15 +1,20 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.validation.GroupValidation.Create;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
 @Validated
 @RestController
 @RequestMapping(path = "/requests")
@@ -18,22 +23,48 @@ public class ItemRequestController {
 
     private final ItemRequestClient itemRequestClient;
 
+    /**
+     * Own requests and other users' requests are paged by offset when {@code from} is given, otherwise by the cursor
+     * the previous page returned in {@code X-Next-Cursor}.
+     */
     @GetMapping
-    public ResponseEntity<Object> getAllByUserId(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemRequestClient.getRequestsByUserId(userId);
+    public ResponseEntity<Object> getAllByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam(required = false) @PositiveOrZero Integer from,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "10") @Positive Integer size) {
+        checkPaging(from, cursor);
+        return itemRequestClient.getRequestsByUserId(userId, from, cursor, size);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                              @RequestParam(required = false) @PositiveOrZero Integer from,
+                                              @RequestParam(required = false) String cursor,
                                               @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return itemRequestClient.getAllRequests(userId, from, size);
+        checkPaging(from, cursor);
+        return itemRequestClient.getAllRequests(userId, from, cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @RequestHeader(value = "Last-Event-ID", required = false)
+                                                        String lastEventId) {
+        return itemRequestClient.stream(userId, lastEventId);
+    }
+
+    @GetMapping("/matches")
+    public ResponseEntity<Object> getMatches(@RequestHeader("X-Sharer-User-Id") long userId,
+                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                             @RequestParam(defaultValue = "10") @Positive Integer size) {
+        return itemRequestClient.getMatches(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @PathVariable long requestId) {
-        return itemRequestClient.getRequestById(userId, requestId);
+                                          @PathVariable long requestId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
+        return itemRequestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 
     @PostMapping
@@ -42,4 +73,10 @@ public class ItemRequestController {
         return itemRequestClient.addRequest(userId, itemRequestNewDto);
     }
 
-}
\ No newline at end of file
+    private static void checkPaging(Integer from, String cursor) {
+        if (from != null && cursor != null) {
+            throw new ValidationException("Use either from or cursor");
+        }
+    }
+
+}
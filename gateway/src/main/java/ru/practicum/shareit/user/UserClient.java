@@ -3,13 +3,19 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
@@ -19,13 +25,34 @@ public class UserClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(UserClient::requestFactory)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    /**
+     * Imports are relayed while they are uploaded, so request bodies are streamed instead of buffered.
+     */
+    private static HttpComponentsClientHttpRequestFactory requestFactory() {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    public ResponseEntity<Object> getUsers(long after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getByIds(List<Long> userIds) {
+        return get("?ids={ids}", null, Map.of("ids", joinIds(userIds)));
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return stream("/stream", null, MediaType.APPLICATION_NDJSON);
     }
 
     public ResponseEntity<Object> getById(long userId) {
@@ -36,6 +63,10 @@ public class UserClient extends BaseClient {
         return post("", userDto);
     }
 
+    public ResponseEntity<Object> importUsers(MediaType contentType, InputStream body) {
+        return upload("/import", contentType, body);
+    }
+
     public ResponseEntity<Object> patchUser(long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
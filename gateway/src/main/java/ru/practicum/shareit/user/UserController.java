@@ -1,16 +1,26 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.GroupValidation.Update;
 import ru.practicum.shareit.validation.GroupValidation.Create;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.InputStream;
+import java.util.List;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RestController
 @RequestMapping(path = "/users")
@@ -18,11 +28,28 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int MAX_IDS = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserClient userClient;
 
     @GetMapping(produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Object> getAll() {
-        return userClient.getAllUsers();
+    public ResponseEntity<Object> getAll(@RequestParam(name = "after", defaultValue = "0") @PositiveOrZero long after,
+                                         @RequestParam(name = "size", defaultValue = "1000") @Positive
+                                         @Max(MAX_PAGE_SIZE) int size) {
+        return userClient.getUsers(after, size);
+    }
+
+    @GetMapping(params = "ids", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> getByIds(@RequestParam(name = "ids") @Size(min = 1, max = MAX_IDS)
+                                           List<@NotNull @Positive Long> userIds) {
+        return userClient.getByIds(userIds);
+    }
+
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return userClient.streamUsers();
     }
 
     @GetMapping(value = "{id}", produces = APPLICATION_JSON_VALUE)
@@ -35,6 +62,13 @@ public class UserController {
         return userClient.addUser(userDto);
     }
 
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) {
+        return userClient.importUsers(contentType, body);
+    }
+
     @PatchMapping(value = "{id}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> patch(@PathVariable("id") @Positive long userId,
                                         @Validated(Update.class) @RequestBody UserDto userDto) {
@@ -11,9 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.enums.BookingState;
 
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.stream.Stream;
@@ -21,10 +25,15 @@ import java.util.stream.Stream;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -47,6 +56,24 @@ class BookingControllerTest {
         assertNotNull(mockMvc);
     }
 
+    @Test
+    void shouldStream_RelayServerEvents() throws Exception {
+        String event = "event:CREATED\ndata:{\"id\":1}\n\n";
+        when(bookingClient.stream(1L, "7")).thenReturn(ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> out.write(event.getBytes(StandardCharsets.UTF_8))));
+        MvcResult result = mockMvc.perform(get(url + "/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(event));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(BookingProvider.class)
     void shouldCreateBookingIfFieldNull_ReturnStatus400(BookingCreateDto bookingCreateDto) throws Exception {
@@ -88,6 +115,28 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].error", is("must be greater than or equal to 0")));
     }
 
+    @Test
+    void shouldGetBookingsCurrentUserWithFields_ForwardFields() throws Exception {
+        when(bookingClient.getBookings(1L, BookingState.ALL, 0, 10, "status,item", false))
+                .thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("fields", "status,item"))
+                .andExpect(status().isOk());
+        verify(bookingClient).getBookings(1L, BookingState.ALL, 0, 10, "status,item", false);
+    }
+
+    @Test
+    void getBookingsAllItemCompact_ForwardCompact() throws Exception {
+        when(bookingClient.getBookingsAllItem(1L, BookingState.ALL, 0, 500, "", true))
+                .thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url + "/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("compact", "true"))
+                .andExpect(status().isOk());
+        verify(bookingClient).getBookingsAllItem(1L, BookingState.ALL, 0, 500, "", true);
+    }
+
     private static class BookingProvider implements ArgumentsProvider {
 
         @Override
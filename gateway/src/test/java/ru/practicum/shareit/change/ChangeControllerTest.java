@@ -0,0 +1,65 @@
+package ru.practicum.shareit.change;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeController.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private final ChangeClient changeClient;
+
+    String url = "/changes";
+
+    @Test
+    void shouldGetChanges_ReturnStatus200() throws Exception {
+        when(changeClient.getChanges(1L, 42L, 500)).thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("since", "42"))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(changeClient).getChanges(1L, 42L, 500);
+    }
+
+    @Test
+    void shouldGetChangesIfSinceNegative_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("since", "-1"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].code", is(400)))
+                .andExpect(jsonPath("$[0].error", is("must be greater than or equal to 0")));
+        verifyNoInteractions(changeClient);
+    }
+
+    @Test
+    void shouldGetChangesIfSizeZero_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
+        verifyNoInteractions(changeClient);
+    }
+
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+
+    private MockRestServiceServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost/bookings"));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new BaseClient(rest);
+    }
+
+    @Test
+    void shouldStream_RelayBodyOfSuccessfulResponse() throws Exception {
+        String event = "event:CREATED\ndata:{\"id\":1}\n\n";
+        server.expect(requestTo("http://localhost/bookings/stream"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andExpect(header("Last-Event-ID", "7"))
+                .andRespond(withSuccess(event, MediaType.TEXT_EVENT_STREAM));
+
+        ResponseEntity<StreamingResponseBody> response = client.stream("/stream", 1L, "7");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.TEXT_EVENT_STREAM, response.getHeaders().getContentType());
+        assertEquals(event, write(response.getBody()));
+        server.verify();
+    }
+
+    @Test
+    void shouldStream_PassErrorStatusThroughBeforeStreaming() throws Exception {
+        String error = "{\"error\":\"User with id 99 not found\"}";
+        server.expect(requestTo("http://localhost/bookings/stream"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<StreamingResponseBody> response = client.stream("/stream", 99L, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(error, write(response.getBody()));
+        server.verify();
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
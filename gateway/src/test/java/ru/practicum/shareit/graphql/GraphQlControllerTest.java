@@ -0,0 +1,63 @@
+package ru.practicum.shareit.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.graphql.dto.GraphQlRequestDto;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(GraphQlController.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class GraphQlControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private final GraphQlClient graphQlClient;
+    private final ObjectMapper mapper;
+
+    String url = "/graphql";
+
+    @Test
+    void shouldQuery_ForwardQueryAndVariables() throws Exception {
+        GraphQlRequestDto request = GraphQlRequestDto.builder()
+                .query("query Items($size: Int) { items(size: $size) { id } }")
+                .variables(Map.of("size", 5))
+                .build();
+        when(graphQlClient.query(1L, request)).thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(post(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(graphQlClient).query(1L, request);
+    }
+
+    @Test
+    void shouldQueryIfQueryBlank_ReturnStatus400() throws Exception {
+        mockMvc.perform(post(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\":\" \"}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].error", is("must not be blank")));
+        verifyNoInteractions(graphQlClient);
+    }
+
+}
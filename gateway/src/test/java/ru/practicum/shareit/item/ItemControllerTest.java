@@ -8,7 +8,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -21,9 +24,12 @@ import java.util.Random;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -185,4 +191,41 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetItemByIdIfNoneMatch_ForwardTagAndReturnStatus304() throws Exception {
+        when(itemClient.getById(1L, 2L, "\"3-1\"")).thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag("\"3-1\"").build());
+        mockMvc.perform(get(url + "/2")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-1\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1\""));
+        verify(itemClient).getById(1L, 2L, "\"3-1\"");
+    }
+
+    @Test
+    void shouldGetAvailabilityIfFromAfterTo_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url + "/1/availability")
+                        .param("from", "2030-01-02T00:00:00")
+                        .param("to", "2030-01-01T00:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(400)))
+                .andExpect(jsonPath("$.error", is("Date is not correct")));
+    }
+
+    @Test
+    void shouldGetCommentsIfAfterNegative_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url + "/1/comments")
+                        .param("after", "-1")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].code", is(400)))
+                .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
+    }
+
+}
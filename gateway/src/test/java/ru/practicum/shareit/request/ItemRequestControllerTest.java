@@ -9,7 +9,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.nio.charset.StandardCharsets;
@@ -20,10 +22,14 @@ import java.util.Random;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemRequestController.class)
@@ -127,4 +133,88 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetRequestsIfFromAndCursor_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url + "/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "0")
+                        .param("cursor", "abc"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Use either from or cursor")));
+        verifyNoInteractions(itemRequestClient);
+    }
+
+    @Test
+    void shouldGetRequestsByCursor_ReturnStatus200() throws Exception {
+        when(itemRequestClient.getAllRequests(1L, null, "abc", 10)).thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url + "/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", "abc"))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(itemRequestClient).getAllRequests(1L, null, "abc", 10);
+    }
+
+    @Test
+    void shouldGetOwnRequestsIfFromAndCursor_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "0")
+                        .param("cursor", "abc"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Use either from or cursor")));
+        verifyNoInteractions(itemRequestClient);
+    }
+
+    @Test
+    void shouldGetOwnRequestsByOffset_ReturnStatus200() throws Exception {
+        when(itemRequestClient.getRequestsByUserId(1L, 20, null, 10)).thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "20"))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(itemRequestClient).getRequestsByUserId(1L, 20, null, 10);
+    }
+
+    @Test
+    void shouldGetMatches_ReturnStatus200() throws Exception {
+        when(itemRequestClient.getMatches(1L, 0, 10)).thenReturn(ResponseEntity.ok().build());
+        mockMvc.perform(get(url + "/matches")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isOk());
+        verify(itemRequestClient).getMatches(1L, 0, 10);
+    }
+
+    @Test
+    void shouldGetMatchesIfSizeZero_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url + "/matches")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
+        verifyNoInteractions(itemRequestClient);
+    }
+
+    @Test
+    void shouldStream_RelayServerEvents() throws Exception {
+        String event = "event:OFFER\ndata:{\"id\":1,\"requestId\":2}\n\n";
+        when(itemRequestClient.stream(1L, null)).thenReturn(ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(out -> out.write(event.getBytes(StandardCharsets.UTF_8))));
+        MvcResult result = mockMvc.perform(get(url + "/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(event));
+    }
+
+}
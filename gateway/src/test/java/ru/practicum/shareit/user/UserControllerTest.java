@@ -8,15 +8,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -85,4 +102,69 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].error", is("must not be blank")));
     }
 
+    @Test
+    void shouldGetAllIfSizeZero_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url).param("size", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].code", is(400)))
+                .andExpect(jsonPath("$[0].error", is("must be greater than 0")));
+    }
+
+    @Test
+    void shouldGetAllIfSizeTooLarge_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url).param("size", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].code", is(400)))
+                .andExpect(jsonPath("$[0].error", is("must be less than or equal to 1000")));
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void shouldGetByIds_PassIdsToClient() throws Exception {
+        when(userClient.getByIds(List.of(2L, 1L))).thenReturn(ResponseEntity.ok(List.of()));
+        mockMvc.perform(get(url).param("ids", "2,1"))
+                .andExpect(status().isOk());
+        verify(userClient).getByIds(List.of(2L, 1L));
+    }
+
+    @Test
+    void shouldGetByIdsIfTooManyIds_ReturnStatus400() throws Exception {
+        String ids = LongStream.rangeClosed(1, 501)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+        mockMvc.perform(get(url).param("ids", ids))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].code", is(400)))
+                .andExpect(jsonPath("$[0].error", is("size must be between 1 and 500")));
+        verifyNoInteractions(userClient);
+    }
+
+    @Test
+    void shouldImportNdjson_RelayBodyToClient() throws Exception {
+        when(userClient.importUsers(any(), any())).thenReturn(ResponseEntity.ok(Map.of("imported", 1)));
+        mockMvc.perform(post(url + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Alice\",\"email\":\"alice@mail.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+        verify(userClient).importUsers(argThat(type -> type.isCompatibleWith(MediaType.APPLICATION_NDJSON)), any());
+    }
+
+    @Test
+    void shouldStream_RelayServerLines() throws Exception {
+        String lines = "{\"id\":1}\n{\"id\":2}\n";
+        when(userClient.streamUsers()).thenReturn(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> out.write(lines.getBytes(StandardCharsets.UTF_8))));
+        MvcResult result = mockMvc.perform(get(url + "/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(lines));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings that ended before the archive horizon from {@code bookings} to {@code bookings_archive}.
+ * <p>
+ * Each batch is copied and deleted in one transaction, so a booking is always in exactly one of the tables. The
+ * owner's view of an item shows its last approved booking from {@code bookings}, so the versions of the items whose
+ * approved bookings are moved are incremented too.
+ * Every statement is bounded by {@code end_date}, so when {@code bookings} is partitioned only its old partitions
+ * are scanned.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    private static final String SELECT_IDS = "select id from bookings where end_date < :cutoff " +
+            "order by end_date limit :limit";
+    private static final String COPY = "insert into bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, version) " +
+            "select id, start_date, end_date, item_id, booker_id, status, version from bookings " +
+            "where end_date < :cutoff and id in (:ids)";
+    private static final String INCREMENT_ITEM_VERSIONS = "update items set version = version + 1 where id in " +
+            "(select item_id from bookings where end_date < :cutoff and id in (:ids) and status = 'APPROVED')";
+    private static final String DELETE = "delete from bookings where end_date < :cutoff and id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+
+    @Autowired
+    public BookingArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.horizon:365d}") Duration horizon,
+                           @Value("${shareit.booking.archive.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(horizon);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval-ms:3600000}",
+            initialDelayString = "${shareit.booking.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime cutoff = cutoff();
+        long total = 0;
+        int moved;
+        do {
+            Integer batch = transactionTemplate.execute(status -> moveBatch(cutoff));
+            moved = batch != null ? batch : 0;
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} bookings that ended before {}", total, cutoff);
+        }
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", batchSize);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS, parameters, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        parameters.addValue("ids", ids);
+        jdbcTemplate.update(COPY, parameters);
+        jdbcTemplate.update(INCREMENT_ITEM_VERSIONS, parameters);
+        jdbcTemplate.update(DELETE, parameters);
+        return ids.size();
+    }
+
+}
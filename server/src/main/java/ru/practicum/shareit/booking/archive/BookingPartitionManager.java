@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Maintains the monthly {@code end_date} partitions of {@code bookings} on Postgres.
+ * <p>
+ * Partitions are created a few months ahead; bookings ending later land in the default partition and are moved
+ * into their month's partition when it is created. Partitions of months that are entirely before the archive
+ * horizon are dropped once the archiver has emptied them.
+ * <p>
+ * Partitioning is off by default, the partitioned layout has not yet been run against a Postgres instance. To turn
+ * it on, set {@code shareit.booking.partition.enabled=true} together with
+ * {@code shareit.booking.schema=schema-postgresql-partitioned.sql}, after checking that schema and this manager on
+ * Postgres.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partition.enabled", havingValue = "true")
+public class BookingPartitionManager {
+
+    private static final String PARTITION_PREFIX = "bookings_p";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingArchiver bookingArchiver;
+    private final int monthsAhead;
+
+    @Autowired
+    public BookingPartitionManager(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   BookingArchiver bookingArchiver,
+                                   @Value("${shareit.booking.partition.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingArchiver = bookingArchiver;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${shareit.booking.partition.check-interval-ms:86400000}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartition(current.plusMonths(i));
+            } catch (DataAccessException e) {
+                log.warn("Booking partition for {} is not created, will retry: {}", current.plusMonths(i),
+                        e.getMessage());
+            }
+        }
+        dropArchivedPartitions(YearMonth.from(bookingArchiver.cutoff()));
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class,
+                name))) {
+            return;
+        }
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("create table " + name + " (like bookings including defaults including constraints)");
+            int rows = jdbcTemplate.update("insert into " + name + " select * from bookings_default " +
+                    "where end_date >= ? and end_date < ?", from, to);
+            jdbcTemplate.update("delete from bookings_default where end_date >= ? and end_date < ?", from, to);
+            jdbcTemplate.execute("alter table bookings attach partition " + name + " for values from ('" +
+                    from.format(BOUND_FORMAT) + "') to ('" + to.format(BOUND_FORMAT) + "')");
+            return rows;
+        });
+        log.info("Created booking partition {}, moved {} bookings from the default partition", name, moved);
+    }
+
+    /**
+     * Drops empty partitions whose whole month is before {@code cutoff}, the month of the archive horizon.
+     */
+    private void dropArchivedPartitions(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                "join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = 'bookings'::regclass and c.relname like 'bookings\\_p%'", String.class);
+        for (String name : partitions) {
+            YearMonth month = YearMonth.parse(name.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select not exists (select 1 from " + name + ")",
+                    Boolean.class))) {
+                jdbcTemplate.execute("drop table " + name);
+                log.info("Dropped archived booking partition {}", name);
+            }
+        }
+    }
+
+}
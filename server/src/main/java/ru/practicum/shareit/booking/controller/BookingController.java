@@ -1,12 +1,18 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
 
-import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -14,31 +20,72 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getSummary(userId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") Long userId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bookingService.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Returns the booking with an entity tag, or 304 without a body when the tag in {@code If-None-Match} is still
+     * current. Archived bookings do not change and are sent without a tag.
+     */
     @GetMapping("{bookingId}")
     public BookingDto getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                     @PathVariable("bookingId") Long bookingId) {
+                                     @PathVariable("bookingId") Long bookingId,
+                                     WebRequest request) {
+        if (bookingService.getBookingTag(userId, bookingId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return bookingService.getBookingById(userId, bookingId);
     }
 
+    /**
+     * Returns a page of the user's bookings, with {@code fields} only the listed fields of each booking and its id.
+     * With {@code compact} the bookings reference their item and booker by id and each of them is sent once.
+     */
     @GetMapping
-    public List<BookingDto> getBookingsCurrentUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(name = "from", required = false, defaultValue = "0")
-                                                       Integer from,
-                                                   @RequestParam(name = "size", required = false, defaultValue = "500")
-                                                       Integer size) {
-        return bookingService.getBookingsCurrentUser(userId, state, from, size);
+    public Object getBookingsCurrentUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                         @RequestParam(defaultValue = "ALL") String state,
+                                         @RequestParam(name = "from", required = false, defaultValue = "0")
+                                             Integer from,
+                                         @RequestParam(name = "size", required = false, defaultValue = "500")
+                                             Integer size,
+                                         @RequestParam(name = "fields", required = false) String fields,
+                                         @RequestParam(name = "compact", defaultValue = "false") boolean compact) {
+        if (compact) {
+            checkNoFields(fields);
+            return bookingService.getCompactBookingsCurrentUser(userId, state, from, size);
+        }
+        FieldSet fieldSet = FieldSet.of(fields, BookingDto.class);
+        return fieldSet.select(objectMapper, bookingService.getBookingsCurrentUser(userId, state, from, size,
+                fieldSet));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsAllItemCurrentUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(name = "from", required = false, defaultValue = "0")
-                                                       Integer from,
-                                                   @RequestParam(name = "size", required = false, defaultValue = "500")
-                                                       Integer size) {
-        return bookingService.getBookingsAllItemCurrentUser(userId, state, from, size);
+    public Object getBookingsAllItemCurrentUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestParam(defaultValue = "ALL") String state,
+                                                @RequestParam(name = "from", required = false, defaultValue = "0")
+                                                    Integer from,
+                                                @RequestParam(name = "size", required = false, defaultValue = "500")
+                                                    Integer size,
+                                                @RequestParam(name = "fields", required = false) String fields,
+                                                @RequestParam(name = "compact", defaultValue = "false")
+                                                    boolean compact) {
+        if (compact) {
+            checkNoFields(fields);
+            return bookingService.getCompactBookingsAllItemCurrentUser(userId, state, from, size);
+        }
+        FieldSet fieldSet = FieldSet.of(fields, BookingDto.class);
+        return fieldSet.select(objectMapper, bookingService.getBookingsAllItemCurrentUser(userId, state, from, size,
+                fieldSet));
     }
 
     @PostMapping
@@ -54,4 +101,10 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approve);
     }
 
-}
\ No newline at end of file
+    private static void checkNoFields(String fields) {
+        if (fields != null && !fields.isBlank()) {
+            throw new ValidationException("The fields parameter cannot be combined with compact");
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.booking.counter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.BookingCounter;
+import ru.practicum.shareit.booking.repository.BookingCounterRepository;
+import ru.practicum.shareit.booking.repository.BookingParticipantsView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Number of bookings per user, role and status, maintained by the booking write paths.
+ * <p>
+ * Counter rows are created together with the user and never inserted afterwards, so concurrent bookings only ever
+ * update existing rows and cannot race each other into a duplicate key. Every write path updates its rows in
+ * (user, role, status) order, so two transactions touching the same rows lock them in the same order and cannot
+ * deadlock on them. Callers must run inside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingCounters {
+
+    private static final String INSERT_COUNTER =
+            "insert into booking_counters (user_id, role, status, booking_count) values (?, ?, ?, ?)";
+    private static final Comparator<BookingCounter.Key> LOCK_ORDER = Comparator
+            .comparing(BookingCounter.Key::getUserId)
+            .thenComparing(BookingCounter.Key::getRole)
+            .thenComparing(BookingCounter.Key::getStatus);
+
+    private final BookingCounterRepository bookingCounterRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createFor(Long userId) {
+        createFor(List.of(userId));
+    }
+
+    /**
+     * Creates the counter rows of all the users with one batch.
+     */
+    public void createFor(Collection<Long> userIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            for (BookingRole role : BookingRole.values()) {
+                for (StatusBooking status : StatusBooking.values()) {
+                    rows.add(new Object[]{userId, role.name(), status.name(), 0L});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_COUNTER, rows);
+    }
+
+    public void added(Long bookerId, Long ownerId, StatusBooking status) {
+        Map<BookingCounter.Key, Long> deltas = new TreeMap<>(LOCK_ORDER);
+        addTo(deltas, bookerId, BookingRole.BOOKER, status, 1);
+        addTo(deltas, ownerId, BookingRole.OWNER, status, 1);
+        apply(deltas);
+    }
+
+    public void moved(Long bookerId, Long ownerId, StatusBooking from, StatusBooking to, long count) {
+        Map<BookingCounter.Key, Long> deltas = new TreeMap<>(LOCK_ORDER);
+        moveIn(deltas, bookerId, ownerId, from, to, count);
+        apply(deltas);
+    }
+
+    /**
+     * Moves the bookings of several booker and owner pairs at once, the rows of all the pairs are updated in one
+     * ordered pass.
+     */
+    public void moved(Collection<BookingParticipantsView> participants, StatusBooking from, StatusBooking to) {
+        Map<BookingCounter.Key, Long> deltas = new TreeMap<>(LOCK_ORDER);
+        for (BookingParticipantsView pair : participants) {
+            moveIn(deltas, pair.getBookerId(), pair.getOwnerId(), from, to, pair.getCount());
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Takes bookings off the counters of the given users in the given role, counted per user and status.
+     */
+    public void removed(Map<Long, Map<StatusBooking, Long>> counts, BookingRole role) {
+        Map<BookingCounter.Key, Long> deltas = new TreeMap<>(LOCK_ORDER);
+        counts.forEach((userId, byStatus) ->
+                byStatus.forEach((status, count) -> addTo(deltas, userId, role, status, -count)));
+        apply(deltas);
+    }
+
+    /**
+     * Reads the counters of the user in both roles with one statement.
+     */
+    public Map<BookingRole, Map<StatusBooking, Long>> get(Long userId) {
+        Map<BookingRole, Map<StatusBooking, Long>> counts = new EnumMap<>(BookingRole.class);
+        for (BookingRole role : BookingRole.values()) {
+            Map<StatusBooking, Long> roleCounts = new EnumMap<>(StatusBooking.class);
+            for (StatusBooking status : StatusBooking.values()) {
+                roleCounts.put(status, 0L);
+            }
+            counts.put(role, roleCounts);
+        }
+        for (BookingCounter counter : bookingCounterRepository.findByUserId(userId)) {
+            counts.get(counter.getRole()).put(counter.getStatus(), counter.getCount());
+        }
+        return counts;
+    }
+
+    private static void moveIn(Map<BookingCounter.Key, Long> deltas, Long bookerId, Long ownerId,
+                               StatusBooking from, StatusBooking to, long count) {
+        addTo(deltas, bookerId, BookingRole.BOOKER, from, -count);
+        addTo(deltas, bookerId, BookingRole.BOOKER, to, count);
+        addTo(deltas, ownerId, BookingRole.OWNER, from, -count);
+        addTo(deltas, ownerId, BookingRole.OWNER, to, count);
+    }
+
+    private static void addTo(Map<BookingCounter.Key, Long> deltas, Long userId, BookingRole role,
+                              StatusBooking status, long delta) {
+        deltas.merge(new BookingCounter.Key(userId, role, status), delta, Long::sum);
+    }
+
+    private void apply(Map<BookingCounter.Key, Long> deltas) {
+        deltas.forEach((key, delta) -> {
+            if (delta != 0 && bookingCounterRepository.increment(key.getUserId(), key.getRole(), key.getStatus(),
+                    delta) == 0) {
+                throw new IllegalStateException(String.format(
+                        "Booking counter not found: userId=%d, role=%s, status=%s",
+                        key.getUserId(), key.getRole(), key.getStatus()));
+            }
+        });
+    }
+
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CompactBookingDto {
+
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    Long itemId;
+    Long bookerId;
+    StatusBooking status;
+
+}
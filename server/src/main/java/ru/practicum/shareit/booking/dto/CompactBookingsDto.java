@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of bookings that reference their item and booker by id, each item and booker of the page is sent once in
+ * the maps by id.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CompactBookingsDto {
+
+    List<CompactBookingDto> bookings;
+    Map<Long, ItemDto> items;
+    Map<Long, UserDto> users;
+
+}
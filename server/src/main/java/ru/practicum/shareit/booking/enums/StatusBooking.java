@@ -2,6 +2,6 @@ package ru.practicum.shareit.booking.enums;
 
 public enum StatusBooking {
 
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED, EXPIRED
 
 }
\ No newline at end of file
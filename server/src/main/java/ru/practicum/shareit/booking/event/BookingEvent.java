@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BookingEvent {
+
+    BookingEventType type;
+    Long ownerId;
+    BookingDto booking;
+
+}
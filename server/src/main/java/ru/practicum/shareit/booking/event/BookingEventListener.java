@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.sse.SseBroker;
+
+import java.util.List;
+
+/**
+ * Pushes committed booking changes to the booker and the item owner.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEventListener {
+
+    public static final String TOPIC = "bookings";
+
+    private final SseBroker sseBroker;
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        sseBroker.publish(TOPIC, List.of(event.getBooking().getBooker().getId(), event.getOwnerId()),
+                event.getType().name(), event.getBooking());
+    }
+
+}
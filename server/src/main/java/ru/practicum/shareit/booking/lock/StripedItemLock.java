@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size array of locks striped by item id.
+ * <p>
+ * Booking writes for the same item are serialized on one stripe while writes for other items proceed in parallel.
+ * Only guards a single server JVM; several server instances still rely on the database alone.
+ */
+@Component
+public class StripedItemLock {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedItemLock(@Value("${shareit.booking.lock-stripes:1024}") int stripes) {
+        int size = stripes > 1 ? Integer.highestOneBit(stripes - 1) << 1 : 1;
+        this.stripes = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock get(long itemId) {
+        int hash = Long.hashCode(itemId) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /**
+     * Locks the stripe of the item and keeps it locked until the current transaction is committed or rolled back,
+     * so that a concurrent writer sees the changes made under the lock.
+     */
+    public void lockUntilCompletion(long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item lock requires an active transaction");
+        }
+        Lock lock = get(itemId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    int size() {
+        return stripes.length;
+    }
+
+}
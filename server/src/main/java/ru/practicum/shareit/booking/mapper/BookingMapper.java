@@ -6,7 +6,9 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -17,12 +19,33 @@ import ru.practicum.shareit.user.model.User;
 public class BookingMapper {
 
     public static BookingDto toBookingDto(Booking booking) {
+        return toBookingDto(booking, FieldSet.ALL);
+    }
+
+    /**
+     * Maps only the associations among the fields, so the lazy item and booker of the others are not loaded.
+     */
+    public static BookingDto toBookingDto(Booking booking, FieldSet fields) {
         return BookingDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(ItemMapper.toItemDto(booking.getItem()))
-                .booker(UserMapper.toUserDto(booking.getBooker()))
+                .item(fields.contains("item") ? ItemMapper.toItemDto(booking.getItem()) : null)
+                .booker(fields.contains("booker") ? UserMapper.toUserDto(booking.getBooker()) : null)
+                .status(booking.getStatus())
+                .build();
+    }
+
+    /**
+     * Takes the ids of the item and booker from their proxies, so neither is loaded.
+     */
+    public static CompactBookingDto toCompactBookingDto(Booking booking) {
+        return CompactBookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
                 .status(booking.getStatus())
                 .build();
     }
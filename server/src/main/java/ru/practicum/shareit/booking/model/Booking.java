@@ -42,4 +42,7 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     StatusBooking status;
 
+    @Column(insertable = false, updatable = false)
+    Long version;
+
 }
\ No newline at end of file
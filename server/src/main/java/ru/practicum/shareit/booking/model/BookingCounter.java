@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+@Entity
+@Table(name = "booking_counters")
+@IdClass(BookingCounter.Key.class)
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingCounter {
+
+    @Id
+    @Column(name = "user_id")
+    Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    BookingRole role;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    StatusBooking status;
+
+    @Column(name = "booking_count", nullable = false)
+    long count;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Key implements Serializable {
+
+        Long userId;
+        BookingRole role;
+        StatusBooking status;
+
+    }
+
+}
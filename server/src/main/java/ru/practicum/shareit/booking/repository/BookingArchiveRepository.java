@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to bookings moved to the {@code bookings_archive} table. Archived bookings have ended before the
+ * archive horizon, so they only take part in the ALL, PAST and REJECTED states.
+ */
+public interface BookingArchiveRepository extends Repository<Booking, Long> {
+
+    @Query(value = "select * from bookings_archive where id = ?1", nativeQuery = true)
+    Optional<Booking> findArchivedById(Long id);
+
+    @Query(value = "select a.* from bookings_archive a join items i on i.id = a.item_id " +
+            "where a.id in (?1) and (a.booker_id = ?2 or i.owner_id = ?2)", nativeQuery = true)
+    List<Booking> findVisibleByIdIn(Collection<Long> ids, Long userId);
+
+    @Query(value = "select * from bookings_archive where booker_id = ?1 " +
+            "order by start_date desc, id desc limit ?2 offset ?3", nativeQuery = true)
+    List<Booking> findByBookerId(Long userId, int limit, long offset);
+
+    @Query(value = "select * from bookings_archive where booker_id = ?1 and status = ?2 " +
+            "order by start_date desc, id desc limit ?3 offset ?4", nativeQuery = true)
+    List<Booking> findByBookerIdAndStatus(Long userId, String status, int limit, long offset);
+
+    @Query(value = "select a.* from bookings_archive a join items i on i.id = a.item_id where i.owner_id = ?1 " +
+            "order by a.start_date desc, a.id desc limit ?2 offset ?3", nativeQuery = true)
+    List<Booking> findByOwnerId(Long userId, int limit, long offset);
+
+    @Query(value = "select a.* from bookings_archive a join items i on i.id = a.item_id " +
+            "where i.owner_id = ?1 and a.status = ?2 " +
+            "order by a.start_date desc, a.id desc limit ?3 offset ?4", nativeQuery = true)
+    List<Booking> findByOwnerIdAndStatus(Long userId, String status, int limit, long offset);
+
+    @Query(value = "select exists(select 1 from bookings_archive where item_id = ?1 and booker_id = ?2 " +
+            "and status = ?3)", nativeQuery = true)
+    boolean existsByItemIdAndBookerIdAndStatus(Long itemId, Long bookerId, String status);
+
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.BookingCounter;
+
+import java.util.List;
+
+public interface BookingCounterRepository extends JpaRepository<BookingCounter, BookingCounter.Key> {
+
+    List<BookingCounter> findByUserId(Long userId);
+
+    @Modifying
+    @Query("update BookingCounter c set c.count = c.count + ?4 where c.userId = ?1 and c.role = ?2 and c.status = ?3")
+    int increment(Long userId, BookingRole role, StatusBooking status, long delta);
+
+}
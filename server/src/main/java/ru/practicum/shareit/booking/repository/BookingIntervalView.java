@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+public interface BookingIntervalView {
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+}
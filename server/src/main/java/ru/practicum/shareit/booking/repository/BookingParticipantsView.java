@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingParticipantsView {
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getCount();
+
+}
@@ -2,12 +2,19 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.change.model.ChangedEntity;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
@@ -16,28 +23,136 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByBookerIdAndStartBeforeAndEndBefore(Long userId, LocalDateTime start,
                                                            LocalDateTime end, Pageable page);
 
-    List<Booking> findByBookerIdAndStartAfter(Long userId, LocalDateTime start, Pageable page);
+    List<Booking> findByBookerIdAndStartAfterAndEndAfter(Long userId, LocalDateTime start, LocalDateTime end,
+                                                         Pageable page);
 
     List<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime start,
                                                           LocalDateTime end, Pageable page);
 
     List<Booking> findByBookerIdAndStatus(Long userId, StatusBooking status, Pageable page);
 
+    List<Booking> findByBookerIdAndStatusAndEndAfter(Long userId, StatusBooking status, LocalDateTime end,
+                                                     Pageable page);
+
     List<Booking> findAllByItem_Owner_Id(Long userId, Pageable page);
 
     List<Booking> findAllByItem_Owner_IdAndEndIsBefore(Long userId, LocalDateTime end, Pageable page);
 
-    List<Booking> findAllByItem_Owner_IdAndStartIsAfter(Long userId, LocalDateTime start, Pageable page);
+    List<Booking> findAllByItem_Owner_IdAndStartIsAfterAndEndIsAfter(Long userId, LocalDateTime start,
+                                                                     LocalDateTime end, Pageable page);
 
     List<Booking> findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime start,
                                                                       LocalDateTime end, Pageable page);
 
     List<Booking> findAllByItem_Owner_IdAndStatus(Long userId, StatusBooking status, Pageable page);
 
+    List<Booking> findAllByItem_Owner_IdAndStatusAndEndIsAfter(Long userId, StatusBooking status, LocalDateTime end,
+                                                               Pageable page);
+
+    long countByBookerIdAndStartGreaterThanEqual(Long userId, LocalDateTime start);
+
+    long countByBookerIdAndStartGreaterThanEqualAndStartBeforeAndEndBefore(Long userId, LocalDateTime from,
+                                                                            LocalDateTime start, LocalDateTime end);
+
+    long countByBookerIdAndStatusAndStartGreaterThanEqual(Long userId, StatusBooking status, LocalDateTime start);
+
+    long countByItem_Owner_IdAndStartGreaterThanEqual(Long userId, LocalDateTime start);
+
+    long countByItem_Owner_IdAndStartGreaterThanEqualAndEndIsBefore(Long userId, LocalDateTime start,
+                                                                    LocalDateTime end);
+
+    long countByItem_Owner_IdAndStatusAndStartGreaterThanEqual(Long userId, StatusBooking status,
+                                                               LocalDateTime start);
+
     List<Booking> findBookingsByItem_Id(Long itemId);
 
     List<Booking> findBookingsByItemIn(List<Item> items);
 
-    List<Booking> findBookingsByItem_IdAndStatusOrderByEndAsc(Long itemId, StatusBooking status);
+    boolean existsByItem_IdAndBooker_IdAndStatusAndEndBefore(Long itemId, Long bookerId, StatusBooking status,
+                                                             LocalDateTime end);
+
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfter(Long itemId, StatusBooking status,
+                                                              LocalDateTime end, LocalDateTime start);
+
+    List<BookingIntervalView> findByItem_IdAndStatusAndEndAfterOrderByStartAsc(Long itemId, StatusBooking status,
+                                                                             LocalDateTime end);
+
+    List<BookingIntervalView> findByItem_IdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(Long itemId,
+                                                                                          StatusBooking status,
+                                                                                          LocalDateTime end,
+                                                                                          LocalDateTime start);
+
+    @Query("select b.item.id from Booking b where b.id = ?1")
+    Optional<Long> findItemIdById(Long bookingId);
+
+    @Query("select b.version as version, b.booker.id as bookerId, i.owner.id as ownerId, i.version as itemVersion " +
+            "from Booking b join b.item i where b.id = ?1")
+    Optional<BookingVersionView> findVersionById(Long bookingId);
+
+    @Query("select b from Booking b join fetch b.item i join fetch i.owner o join fetch b.booker u " +
+            "where b.id in ?1 and (u.id = ?2 or o.id = ?2)")
+    List<Booking> findVisibleByIdIn(Collection<Long> ids, Long userId);
+
+    @Query("select max(b.id) from Booking b")
+    Optional<Long> findMaxId();
+
+    List<BookingStartView> findByStatusAndIdBetweenOrderByIdAsc(StatusBooking status, Long fromId, Long toId,
+                                                                Pageable page);
+
+    @Modifying
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id in ?1 and b.status = ?2")
+    int updateStatusByIdInAndStatus(List<Long> ids, StatusBooking status, StatusBooking newStatus);
+
+    /**
+     * Marks the views of the booking as changed, the end is given so that only its partition is scanned when
+     * bookings are partitioned.
+     */
+    @Modifying
+    @Query("update Booking b set b.version = b.version + 1 where b.id = ?1 and b.end = ?2")
+    int incrementVersion(Long bookingId, LocalDateTime end);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Booking> findForUpdateById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Booking> findForUpdateByIdInAndStatus(List<Long> ids, StatusBooking status);
+
+    @Query("select b.booker.id as bookerId, b.item.owner.id as ownerId, count(b) as count from Booking b " +
+            "where b.id in ?1 group by b.booker.id, b.item.owner.id")
+    List<BookingParticipantsView> countParticipantsByIdIn(List<Long> ids);
+
+    @Query("select new ru.practicum.shareit.change.model.ChangedEntity(b.id, b.booker.id, i.owner.id) " +
+            "from Booking b join b.item i where b.id in ?1")
+    List<ChangedEntity> findChangedByIdIn(List<Long> ids);
+
+    /**
+     * Returns the given users that booked an item of the user or own an item the user booked.
+     */
+    @Query(value = "select b.booker_id from bookings b join items i on i.id = b.item_id " +
+            "where i.owner_id = ?1 and b.booker_id in ?2 " +
+            "union select i.owner_id from bookings b join items i on i.id = b.item_id " +
+            "where b.booker_id = ?1 and i.owner_id in ?2 " +
+            "union select a.booker_id from bookings_archive a join items i on i.id = a.item_id " +
+            "where i.owner_id = ?1 and a.booker_id in ?2 " +
+            "union select i.owner_id from bookings_archive a join items i on i.id = a.item_id " +
+            "where a.booker_id = ?1 and i.owner_id in ?2", nativeQuery = true)
+    List<Long> findCounterpartIds(Long userId, Collection<Long> userIds);
+
+    @Query(value = "select sum(case when b.start_date < ?2 and b.end_date > ?2 then 1 else 0 end) as current, " +
+            "sum(case when b.start_date > ?2 then 1 else 0 end) as future, " +
+            "sum(case when b.start_date < ?2 and b.end_date < ?2 then 1 else 0 end) as past, " +
+            "(select count(*) from bookings_archive a where a.booker_id = ?1) as archived " +
+            "from bookings b where b.booker_id = ?1", nativeQuery = true)
+    BookingTimeCountsView countByBookerIdAt(Long userId, LocalDateTime time);
+
+    @Query(value = "select sum(case when b.start_date < ?2 and b.end_date > ?2 then 1 else 0 end) as current, " +
+            "sum(case when b.start_date > ?2 then 1 else 0 end) as future, " +
+            "sum(case when b.end_date < ?2 then 1 else 0 end) as past, " +
+            "(select count(*) from bookings_archive a join items ai on ai.id = a.item_id " +
+            "where ai.owner_id = ?1) as archived " +
+            "from bookings b join items i on i.id = b.item_id where i.owner_id = ?1", nativeQuery = true)
+    BookingTimeCountsView countByOwnerIdAt(Long userId, LocalDateTime time);
+
+    long countByItem_IdAndStatusAndStartBefore(Long itemId, StatusBooking status, LocalDateTime start);
 
 }
\ No newline at end of file
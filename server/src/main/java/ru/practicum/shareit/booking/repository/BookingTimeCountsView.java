@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingTimeCountsView {
+
+    Long getCurrent();
+
+    Long getFuture();
+
+    Long getPast();
+
+    Long getArchived();
+
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingVersionView {
+
+    Long getVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getItemVersion();
+
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStartView;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves WAITING bookings to {@link StatusBooking#EXPIRED} once their start (plus a grace period) has passed.
+ * <p>
+ * Deadlines are kept in a {@link TimingWheel}. New bookings are scheduled by the booking service, bookings that
+ * already existed at startup are loaded from the table in id order, one batch per tick, so the table is never
+ * rescanned. Bookings that were approved or rejected in the meantime are skipped.
+ */
+@Slf4j
+@Component
+public class BookingExpiryScheduler {
+
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingCounters bookingCounters;
+    private final ChangeLog changeLog;
+    private final Duration grace;
+    private final int loadBatchSize;
+    private final TimingWheel wheel;
+    private final List<Long> overdue = new ArrayList<>();
+
+    private Long loadUpToId;
+    private long lastLoadedId;
+    private boolean loaded;
+
+    @Autowired
+    public BookingExpiryScheduler(BookingRepository bookingRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  BookingCounters bookingCounters,
+                                  ChangeLog changeLog,
+                                  @Value("${shareit.booking.expiry.tick-ms:1000}") long tickMs,
+                                  @Value("${shareit.booking.expiry.wheel-size:64}") int wheelSize,
+                                  @Value("${shareit.booking.expiry.grace:PT1H}") Duration grace,
+                                  @Value("${shareit.booking.expiry.load-batch-size:1000}") int loadBatchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingCounters = bookingCounters;
+        this.changeLog = changeLog;
+        this.grace = grace;
+        this.loadBatchSize = loadBatchSize;
+        this.wheel = new TimingWheel(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    public void schedule(Booking booking) {
+        if (booking.getStatus() != StatusBooking.WAITING) {
+            return;
+        }
+        synchronized (wheel) {
+            if (!wheel.add(booking.getId(), deadline(booking.getStart()))) {
+                overdue.add(booking.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${shareit.booking.expiry.tick-ms:1000}")
+    public void tick() {
+        if (!loaded) {
+            loadNextBatch();
+        }
+        List<Long> expired;
+        synchronized (wheel) {
+            expired = wheel.advance(System.currentTimeMillis());
+            expired.addAll(overdue);
+            overdue.clear();
+        }
+        if (!expired.isEmpty()) {
+            expire(expired);
+        }
+    }
+
+    private void loadNextBatch() {
+        if (loadUpToId == null) {
+            loadUpToId = bookingRepository.findMaxId().orElse(0L);
+        }
+        List<BookingStartView> batch = bookingRepository.findByStatusAndIdBetweenOrderByIdAsc(StatusBooking.WAITING,
+                lastLoadedId + 1, loadUpToId, PageRequest.of(0, loadBatchSize));
+        synchronized (wheel) {
+            for (BookingStartView booking : batch) {
+                if (!wheel.add(booking.getId(), deadline(booking.getStart()))) {
+                    overdue.add(booking.getId());
+                }
+            }
+        }
+        if (batch.size() < loadBatchSize) {
+            loaded = true;
+            log.info("Expiry scheduler loaded, {} bookings pending", pending());
+        } else {
+            lastLoadedId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    /**
+     * The ids have already left the wheel, so the ids of a batch that fails, for example as a deadlock victim, are
+     * queued as overdue again and retried on the next tick; the other batches still run.
+     */
+    private void expire(List<Long> bookingIds) {
+        for (int i = 0; i < bookingIds.size(); i += UPDATE_BATCH_SIZE) {
+            List<Long> ids = bookingIds.subList(i, Math.min(i + UPDATE_BATCH_SIZE, bookingIds.size()));
+            try {
+                Integer updated = transactionTemplate.execute(status -> expireWaiting(ids));
+                log.debug("Expired {} of {} due bookings", updated, ids.size());
+            } catch (RuntimeException e) {
+                synchronized (wheel) {
+                    overdue.addAll(ids);
+                }
+                log.warn("Could not expire {} due bookings, will retry: {}", ids.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Locks the bookings that are still waiting, so a concurrent approval either happens before and is skipped here
+     * or sees the expired status, and moves their counters.
+     */
+    private int expireWaiting(List<Long> ids) {
+        List<Long> waiting = bookingRepository.findForUpdateByIdInAndStatus(ids, StatusBooking.WAITING).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        if (waiting.isEmpty()) {
+            return 0;
+        }
+        bookingCounters.moved(bookingRepository.countParticipantsByIdIn(waiting), StatusBooking.WAITING,
+                StatusBooking.EXPIRED);
+        changeLog.record(EntityType.BOOKING, bookingRepository.findChangedByIdIn(waiting));
+        return bookingRepository.updateStatusByIdInAndStatus(waiting, StatusBooking.WAITING, StatusBooking.EXPIRED);
+    }
+
+    /**
+     * Bookings still WAITING at the given time end after the returned one: a booking that started before it has
+     * been expired, give or take the ticks the wheel is behind.
+     */
+    public LocalDateTime waitingEndAfter(LocalDateTime time) {
+        return time.minus(grace);
+    }
+
+    private long deadline(LocalDateTime start) {
+        return start.plus(grace).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+}
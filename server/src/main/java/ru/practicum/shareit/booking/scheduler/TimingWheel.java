@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keyed by booking id.
+ * <p>
+ * Each level has {@code wheelSize} buckets of {@code tickMs} width; deadlines that do not fit into the current
+ * level are kept in a lazily created overflow level whose tick equals the full span of this one. Advancing the
+ * clock by one tick drains a single bucket and, when a level boundary is crossed, cascades one overflow bucket
+ * down, so the cost of a tick does not depend on the number of scheduled entries.
+ * <p>
+ * The class is not thread-safe, callers must synchronize access.
+ */
+class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final List<List<Entry>> buckets;
+    private long currentTime;
+    private TimingWheel overflowWheel;
+    private int size;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules the id, returns {@code false} if the deadline has already passed and nothing was scheduled.
+     */
+    boolean add(long id, long deadlineMs) {
+        return add(new Entry(id, deadlineMs));
+    }
+
+    /**
+     * Moves the clock up to {@code nowMs} and returns ids whose deadline is not later than the passed ticks.
+     */
+    List<Long> advance(long nowMs) {
+        List<Long> expired = new ArrayList<>();
+        while (currentTime + tickMs <= nowMs) {
+            for (Entry entry : drain(currentTime)) {
+                expired.add(entry.id);
+            }
+            currentTime += tickMs;
+            if (overflowWheel != null && currentTime % interval == 0) {
+                for (Entry entry : overflowWheel.cascade(currentTime)) {
+                    add(entry);
+                }
+            }
+        }
+        return expired;
+    }
+
+    int size() {
+        return size + (overflowWheel != null ? overflowWheel.size() : 0);
+    }
+
+    private boolean add(Entry entry) {
+        if (entry.deadline < currentTime) {
+            return false;
+        }
+        if (entry.deadline < currentTime + interval) {
+            buckets.get(index(entry.deadline)).add(entry);
+            size++;
+        } else {
+            overflow().add(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Called by the lower level when its clock reaches {@code time}, a multiple of this level's tick.
+     * Returns the entries of the bucket that starts at {@code time}, all of which fit into the lower level.
+     */
+    private List<Entry> cascade(long time) {
+        currentTime = time;
+        if (overflowWheel != null && currentTime % interval == 0) {
+            for (Entry entry : overflowWheel.cascade(currentTime)) {
+                add(entry);
+            }
+        }
+        return drain(currentTime);
+    }
+
+    private List<Entry> drain(long time) {
+        int index = index(time);
+        List<Entry> bucket = buckets.get(index);
+        if (bucket.isEmpty()) {
+            return bucket;
+        }
+        buckets.set(index, new ArrayList<>());
+        size -= bucket.size();
+        return bucket;
+    }
+
+    private int index(long time) {
+        return (int) ((time / tickMs) % wheelSize);
+    }
+
+    private TimingWheel overflow() {
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTime);
+        }
+        return overflowWheel;
+    }
+
+    private static final class Entry {
+
+        private final long id;
+        private final long deadline;
+
+        private Entry(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+    }
+
+}
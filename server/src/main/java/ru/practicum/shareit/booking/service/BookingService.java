@@ -1,18 +1,53 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
+import ru.practicum.shareit.fields.FieldSet;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
 
-    List<BookingDto> getBookingsCurrentUser(Long userId, String state, Integer from, Integer size);
+    /**
+     * Returns a page of the user's bookings, the item and booker are only mapped if they are among the fields.
+     */
+    List<BookingDto> getBookingsCurrentUser(Long userId, String state, Integer from, Integer size, FieldSet fields);
 
-    List<BookingDto> getBookingsAllItemCurrentUser(Long userId, String state, Integer from, Integer size);
+    /**
+     * Returns the same page as {@link #getBookingsCurrentUser} with each item and booker side-loaded once.
+     */
+    CompactBookingsDto getCompactBookingsCurrentUser(Long userId, String state, Integer from, Integer size);
+
+    /**
+     * Returns the same page as {@link #getBookingsCurrentUser} with only the ids of the items and bookers, for
+     * callers that load those themselves.
+     */
+    List<CompactBookingDto> getBookingRefsCurrentUser(Long userId, String state, Integer from, Integer size);
+
+    List<BookingDto> getBookingsAllItemCurrentUser(Long userId, String state, Integer from, Integer size,
+                                                   FieldSet fields);
+
+    CompactBookingsDto getCompactBookingsAllItemCurrentUser(Long userId, String state, Integer from, Integer size);
+
+    List<CompactBookingDto> getBookingRefsAllItemCurrentUser(Long userId, String state, Integer from, Integer size);
 
     BookingDto getBookingById(Long userId, Long bookingId);
 
+    /**
+     * Returns the entity tag of the booking and its item, or nothing if the booking is not in the hot table or the
+     * user is neither its booker nor the owner of its item.
+     */
+    Optional<String> getBookingTag(Long userId, Long bookingId);
+
+    BookingSummaryDto getSummary(Long userId);
+
+    SseEmitter subscribe(Long userId, String lastEventId);
+
     BookingDto createBooking(Long userId, BookingCreateDto bookingCreateDto);
 
     BookingDto approveBooking(Long userId, Long bookingId, Boolean approve);
@@ -2,28 +2,61 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.dto.BookingCountDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventListener;
+import ru.practicum.shareit.booking.lock.StripedItemLock;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTimeCountsView;
+import ru.practicum.shareit.booking.scheduler.BookingExpiryScheduler;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.UnsupportedStateException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.sse.SseBroker;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,81 +65,158 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    private static final Sort BY_START_DESC = Sort.by("start").descending().and(Sort.by("id").descending());
+
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final BookingArchiver bookingArchiver;
     private final ItemService itemService;
+    private final ItemRepository itemRepository;
     private final UserService userService;
+    private final BookingExpiryScheduler bookingExpiryScheduler;
+    private final StripedItemLock itemLock;
+    private final BookingTimeline bookingTimeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SseBroker sseBroker;
+    private final BookingCounters bookingCounters;
+    private final ChangeLog changeLog;
+
+    @Override
+    public List<BookingDto> getBookingsCurrentUser(Long userId, String state, Integer from, Integer size,
+                                                   FieldSet fields) {
+        userService.validateUserById(userId);
+        return findBookerBookings(userId, state, from, size).stream()
+                .map(booking -> BookingMapper.toBookingDto(booking, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CompactBookingsDto getCompactBookingsCurrentUser(Long userId, String state, Integer from, Integer size) {
+        return toCompactBookingsDto(getBookingRefsCurrentUser(userId, state, from, size));
+    }
+
+    @Override
+    public List<CompactBookingDto> getBookingRefsCurrentUser(Long userId, String state, Integer from, Integer size) {
+        userService.validateUserById(userId);
+        return findBookerBookings(userId, state, from, size).stream()
+                .map(BookingMapper::toCompactBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BookingDto> getBookingsAllItemCurrentUser(Long userId, String state, Integer from, Integer size,
+                                                          FieldSet fields) {
+        userService.validateUserById(userId);
+        return findOwnerBookings(userId, state, from, size).stream()
+                .map(booking -> BookingMapper.toBookingDto(booking, fields))
+                .collect(Collectors.toList());
+    }
 
     @Override
-    public List<BookingDto> getBookingsCurrentUser(Long userId, String state, Integer from, Integer size) {
+    public CompactBookingsDto getCompactBookingsAllItemCurrentUser(Long userId, String state, Integer from,
+                                                                   Integer size) {
+        return toCompactBookingsDto(getBookingRefsAllItemCurrentUser(userId, state, from, size));
+    }
+
+    @Override
+    public List<CompactBookingDto> getBookingRefsAllItemCurrentUser(Long userId, String state, Integer from,
+                                                                    Integer size) {
         userService.validateUserById(userId);
+        return findOwnerBookings(userId, state, from, size).stream()
+                .map(BookingMapper::toCompactBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<Booking> findBookerBookings(Long userId, String state, Integer from, Integer size) {
         List<Booking> bookings;
         LocalDateTime time = LocalDateTime.now();
-        Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
+        Pageable page = PageRequest.of(from / size, size, BY_START_DESC);
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingRepository.findByBookerId(userId, page);
+                bookings = withArchived(window -> bookingRepository.findByBookerId(userId, window),
+                        cutoff -> bookingRepository.countByBookerIdAndStartGreaterThanEqual(userId, cutoff),
+                        (limit, offset) -> bookingArchiveRepository.findByBookerId(userId, limit, offset), page);
                 break;
             case "PAST":
-                bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndBefore(
-                        userId, time, time, page);
+                bookings = withArchived(window -> bookingRepository.findByBookerIdAndStartBeforeAndEndBefore(
+                        userId, time, time, window),
+                        cutoff -> bookingRepository.countByBookerIdAndStartGreaterThanEqualAndStartBeforeAndEndBefore(
+                                userId, cutoff, time, time),
+                        (limit, offset) -> bookingArchiveRepository.findByBookerId(userId, limit, offset), page);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findByBookerIdAndStartAfter(userId, time, page);
+                bookings = bookingRepository.findByBookerIdAndStartAfterAndEndAfter(userId, time, time, page);
                 break;
             case "CURRENT":
                 bookings = bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfter(
                         userId, time, time, page);
                 break;
             case "WAITING":
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, StatusBooking.WAITING, page);
+                bookings = bookingRepository.findByBookerIdAndStatusAndEndAfter(userId, StatusBooking.WAITING,
+                        bookingExpiryScheduler.waitingEndAfter(time), page);
                 break;
             case "REJECTED":
-                bookings = bookingRepository.findByBookerIdAndStatus(userId, StatusBooking.REJECTED, page);
+                bookings = withArchived(window -> bookingRepository.findByBookerIdAndStatus(userId,
+                        StatusBooking.REJECTED, window),
+                        cutoff -> bookingRepository.countByBookerIdAndStatusAndStartGreaterThanEqual(userId,
+                                StatusBooking.REJECTED, cutoff),
+                        (limit, offset) -> bookingArchiveRepository.findByBookerIdAndStatus(userId,
+                                StatusBooking.REJECTED.name(), limit, offset), page);
                 break;
             default:
                 throw new UnsupportedStateException(String.format("Unknown state: %s", state));
         }
-        return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        return bookings;
     }
 
-    @Override
-    public List<BookingDto> getBookingsAllItemCurrentUser(Long userId, String state, Integer from, Integer size) {
-        userService.validateUserById(userId);
+    private List<Booking> findOwnerBookings(Long userId, String state, Integer from, Integer size) {
         List<Booking> bookings;
         LocalDateTime time = LocalDateTime.now();
-        Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
+        Pageable page = PageRequest.of(from / size, size, BY_START_DESC);
         switch (state.toUpperCase()) {
             case "ALL":
-                bookings = bookingRepository.findAllByItem_Owner_Id(userId, page);
+                bookings = withArchived(window -> bookingRepository.findAllByItem_Owner_Id(userId, window),
+                        cutoff -> bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqual(userId, cutoff),
+                        (limit, offset) -> bookingArchiveRepository.findByOwnerId(userId, limit, offset), page);
                 break;
             case "PAST":
-                bookings = bookingRepository.findAllByItem_Owner_IdAndEndIsBefore(userId, time, page);
+                bookings = withArchived(window -> bookingRepository.findAllByItem_Owner_IdAndEndIsBefore(userId,
+                        time, window),
+                        cutoff -> bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqualAndEndIsBefore(
+                                userId, cutoff, time),
+                        (limit, offset) -> bookingArchiveRepository.findByOwnerId(userId, limit, offset), page);
                 break;
             case "FUTURE":
-                bookings = bookingRepository.findAllByItem_Owner_IdAndStartIsAfter(userId, time, page);
+                bookings = bookingRepository.findAllByItem_Owner_IdAndStartIsAfterAndEndIsAfter(userId, time, time,
+                        page);
                 break;
             case "CURRENT":
                 bookings = bookingRepository.findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(userId,
                         time, time, page);
                 break;
             case "WAITING":
-                bookings = bookingRepository.findAllByItem_Owner_IdAndStatus(userId,
-                        StatusBooking.WAITING, page);
+                bookings = bookingRepository.findAllByItem_Owner_IdAndStatusAndEndIsAfter(userId,
+                        StatusBooking.WAITING, bookingExpiryScheduler.waitingEndAfter(time), page);
                 break;
             case "REJECTED":
-                bookings = bookingRepository.findAllByItem_Owner_IdAndStatus(userId,
-                        StatusBooking.REJECTED, page);
+                bookings = withArchived(window -> bookingRepository.findAllByItem_Owner_IdAndStatus(userId,
+                        StatusBooking.REJECTED, window),
+                        cutoff -> bookingRepository.countByItem_Owner_IdAndStatusAndStartGreaterThanEqual(userId,
+                                StatusBooking.REJECTED, cutoff),
+                        (limit, offset) -> bookingArchiveRepository.findByOwnerIdAndStatus(userId,
+                                StatusBooking.REJECTED.name(), limit, offset), page);
                 break;
             default:
                 throw new UnsupportedStateException(String.format("Unknown state: %s", state));
         }
-        return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        return bookings;
     }
 
     @Override
     public BookingDto getBookingById(Long userId, Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
-                new ObjectNotFoundException(String.format("Booking not found: id=%d", bookingId)));
+        Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> bookingArchiveRepository.findArchivedById(bookingId))
+                .orElseThrow(() -> new ObjectNotFoundException(String.format("Booking not found: id=%d", bookingId)));
         if (Objects.equals(booking.getBooker().getId(), userId) ||
                 Objects.equals(booking.getItem().getOwner().getId(), userId)) {
             return BookingMapper.toBookingDto(booking);
@@ -114,38 +224,175 @@ public class BookingServiceImpl implements BookingService {
         throw new ObjectNotFoundException(String.format("Wrong user: id=%d", userId));
     }
 
+    @Override
+    public Optional<String> getBookingTag(Long userId, Long bookingId) {
+        return bookingRepository.findVersionById(bookingId)
+                .filter(view -> Objects.equals(view.getBookerId(), userId)
+                        || Objects.equals(view.getOwnerId(), userId))
+                .map(view -> view.getVersion() + "-" + view.getItemVersion());
+    }
+
+    @Override
+    public BookingSummaryDto getSummary(Long userId) {
+        userService.validateUserById(userId);
+        LocalDateTime time = LocalDateTime.now();
+        Map<BookingRole, Map<StatusBooking, Long>> counters = bookingCounters.get(userId);
+        return BookingSummaryDto.builder()
+                .booker(toBookingCountDto(counters.get(BookingRole.BOOKER),
+                        bookingRepository.countByBookerIdAt(userId, time)))
+                .owner(toBookingCountDto(counters.get(BookingRole.OWNER),
+                        bookingRepository.countByOwnerIdAt(userId, time)))
+                .build();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        userService.validateUserById(userId);
+        return sseBroker.subscribe(BookingEventListener.TOPIC, userId, lastEventId);
+    }
+
     @Transactional
     @Override
     public BookingDto createBooking(Long userId, BookingCreateDto bookingCreateDto) {
         User user = userService.getById(userId);
         Item item = itemService.getById(bookingCreateDto.getItemId());
-        if (Objects.equals(item.getOwner(), user)) {
+        if (Objects.equals(item.getOwner().getId(), user.getId())) {
             throw new ObjectNotFoundException(String
                     .format("Item with id %d is not available for booking", item.getId()));
         }
         if (!item.getIsAvailable()) {
             throw new ValidationException(String.format("Item with id %d is not available", item.getId()));
         }
+        itemLock.lockUntilCompletion(item.getId());
+        checkNotBooked(item.getId(), bookingCreateDto.getStart(), bookingCreateDto.getEnd());
         bookingCreateDto.setBookerId(user.getId());
         bookingCreateDto.setStatus(StatusBooking.WAITING);
-        return BookingMapper.toBookingDto(bookingRepository.save(BookingMapper
-                .toBooking(bookingCreateDto, user, item)));
+        Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingCreateDto, user, item));
+        changeLog.record(EntityType.BOOKING, booking.getId(), user.getId(), item.getOwner().getId());
+        bookingExpiryScheduler.schedule(booking);
+        bookingCounters.added(user.getId(), item.getOwner().getId(), StatusBooking.WAITING);
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+        eventPublisher.publishEvent(new BookingEvent(BookingEventType.CREATED, item.getOwner().getId(), bookingDto));
+        return bookingDto;
     }
 
     @Transactional
     @Override
     public BookingDto approveBooking(Long userId, Long bookingId, Boolean approve) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+        Long itemId = bookingRepository.findItemIdById(bookingId).orElseThrow(() ->
+                new ObjectNotFoundException(String.format("Booking not found: id=%d", bookingId)));
+        itemLock.lockUntilCompletion(itemId);
+        Booking booking = bookingRepository.findForUpdateById(bookingId).orElseThrow(() ->
                 new ObjectNotFoundException(String.format("Booking not found: id=%d", bookingId)));
         User user = userService.getById(userId);
-        if (!Objects.equals(booking.getItem().getOwner(), user)) {
+        if (!Objects.equals(booking.getItem().getOwner().getId(), user.getId())) {
             throw new ObjectNotFoundException("You are not the owner of this item!");
         }
         if (booking.getStatus() != StatusBooking.WAITING) {
             throw new ValidationException(String.format("Booking not available: id=%d", bookingId));
         }
+        if (approve) {
+            checkNotBooked(itemId, booking.getStart(), booking.getEnd());
+            bookingTimeline.evictAfterCommit(itemId);
+            itemRepository.incrementVersion(itemId);
+        }
         booking.setStatus(approve ? StatusBooking.APPROVED : StatusBooking.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        bookingCounters.moved(booking.getBooker().getId(), user.getId(), StatusBooking.WAITING, booking.getStatus(), 1);
+        BookingDto bookingDto = BookingMapper.toBookingDto(bookingRepository.save(booking));
+        bookingRepository.incrementVersion(bookingId, booking.getEnd());
+        changeLog.record(EntityType.BOOKING, bookingId, booking.getBooker().getId(), user.getId());
+        eventPublisher.publishEvent(new BookingEvent(approve ? BookingEventType.APPROVED : BookingEventType.REJECTED,
+                user.getId(), bookingDto));
+        return bookingDto;
+    }
+
+    /**
+     * Loads the distinct items of the page in one query and its bookers from the user cache, instead of one lazy load
+     * per booking.
+     */
+    private CompactBookingsDto toCompactBookingsDto(List<CompactBookingDto> compactBookings) {
+        Set<Long> itemIds = compactBookings.stream()
+                .map(CompactBookingDto::getItemId)
+                .collect(Collectors.toSet());
+        List<Long> bookerIds = compactBookings.stream()
+                .map(CompactBookingDto::getBookerId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, ItemDto> items = itemIds.isEmpty() ? Map.of() : itemRepository.findWithOwnerByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, ItemMapper::toItemDto));
+        Map<Long, UserDto> users = bookerIds.isEmpty() ? Map.of() : userService.getUsersByIds(bookerIds).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        return CompactBookingsDto.builder()
+                .bookings(compactBookings)
+                .items(items)
+                .users(users)
+                .build();
+    }
+
+    private static BookingCountDto toBookingCountDto(Map<StatusBooking, Long> counters,
+                                                     BookingTimeCountsView timeCounts) {
+        return BookingCountDto.builder()
+                .all(counters.values().stream().mapToLong(Long::longValue).sum())
+                .current(valueOrZero(timeCounts.getCurrent()))
+                .future(valueOrZero(timeCounts.getFuture()))
+                .past(valueOrZero(timeCounts.getPast()) + valueOrZero(timeCounts.getArchived()))
+                .waiting(counters.get(StatusBooking.WAITING))
+                .rejected(counters.get(StatusBooking.REJECTED))
+                .build();
+    }
+
+    /**
+     * Archived bookings ended before the archive cutoff, so the hot bookings that start at or after it come first
+     * and a page among them is read from the hot table alone. Past them, the rest of the hot table and the archive
+     * are merged by start: a long booking can stay in the hot table while one that started after it is archived, so
+     * neither table simply follows the other. The archive is read from the first row that can reach the page, which
+     * is at most as many rows before it as older hot bookings were read. A booking archived between the reads is
+     * seen twice and kept once.
+     */
+    private List<Booking> withArchived(Function<Pageable, List<Booking>> hotPage,
+                                       ToLongFunction<LocalDateTime> recentCount, ArchivePage archivePage,
+                                       Pageable page) {
+        long offset = page.getOffset();
+        int size = page.getPageSize();
+        long recent = recentCount.applyAsLong(bookingArchiver.cutoff());
+        if (offset + size <= recent) {
+            return hotPage.apply(page);
+        }
+        long hotOffset = Math.min(offset, recent);
+        List<Booking> hot = hotPage.apply(new OffsetPageRequest(hotOffset, Math.toIntExact(offset + size - hotOffset),
+                page.getSort()));
+        long olderOffset = offset - hotOffset;
+        long olderEnd = offset + size - recent;
+        long olderHot = Math.max(0, hot.size() - (recent - hotOffset));
+        long archiveOffset = Math.max(0, olderOffset - olderHot);
+        List<Booking> merged = new ArrayList<>(hot);
+        merged.addAll(archivePage.find(Math.toIntExact(olderEnd - archiveOffset), archiveOffset));
+        merged.sort(Comparator.comparing(Booking::getStart).reversed()
+                .thenComparing(Booking::getId, Comparator.reverseOrder()));
+        Set<Long> seen = new HashSet<>();
+        return merged.stream()
+                .filter(booking -> seen.add(booking.getId()))
+                .skip(olderOffset - archiveOffset)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private static long valueOrZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private void checkNotBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(itemId, StatusBooking.APPROVED,
+                end, start)) {
+            throw new ValidationException(String.format("Item with id %d is already booked for these dates", itemId));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ArchivePage {
+
+        List<Booking> find(int limit, long offset);
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-item timeline of approved bookings, sorted by start.
+ * <p>
+ * The timeline of an item holds only bookings that had not ended when it was loaded, so it answers windows that
+ * start after the load time; older windows are read from the table for just that window. Cached timelines are
+ * evicted when a booking of the item is approved.
+ */
+@Component
+public class BookingTimeline {
+
+    private final BookingRepository bookingRepository;
+    private final BoundedCache<Long, Timeline> timelines;
+    private long generation;
+
+    @Autowired
+    public BookingTimeline(BookingRepository bookingRepository,
+                           @Value("${shareit.booking.timeline.cache-size:10000}") int cacheSize) {
+        this.bookingRepository = bookingRepository;
+        this.timelines = new BoundedCache<>(cacheSize);
+    }
+
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            timeline = load(itemId);
+        }
+        List<Interval> bookings;
+        if (from.isBefore(timeline.loadedAt)) {
+            bookings = toIntervals(bookingRepository.findByItem_IdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(
+                    itemId, StatusBooking.APPROVED, to, from));
+        } else {
+            bookings = timeline.bookings;
+        }
+        return merge(itemId, from, to, bookings);
+    }
+
+    /**
+     * Drops the cached timeline of the item once the current transaction has committed.
+     */
+    public void evictAfterCommit(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(itemId);
+            }
+        });
+    }
+
+    /**
+     * Clips the sorted bookings to {@code [from, to)} and merges overlapping ones in a single pass,
+     * the gaps between merged intervals are the free ones.
+     */
+    static ItemAvailabilityDto merge(Long itemId, LocalDateTime from, LocalDateTime to, List<Interval> bookings) {
+        List<AvailabilityIntervalDto> busy = new ArrayList<>();
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        LocalDateTime busyStart = null;
+        LocalDateTime busyEnd = null;
+        LocalDateTime freeStart = from;
+        for (Interval booking : bookings) {
+            if (!booking.start.isBefore(to)) {
+                break;
+            }
+            if (!booking.end.isAfter(from)) {
+                continue;
+            }
+            LocalDateTime start = booking.start.isBefore(from) ? from : booking.start;
+            LocalDateTime end = booking.end.isAfter(to) ? to : booking.end;
+            if (busyEnd != null && !start.isAfter(busyEnd)) {
+                if (end.isAfter(busyEnd)) {
+                    busyEnd = end;
+                }
+                continue;
+            }
+            if (busyEnd != null) {
+                busy.add(new AvailabilityIntervalDto(busyStart, busyEnd));
+                freeStart = busyEnd;
+            }
+            if (start.isAfter(freeStart)) {
+                free.add(new AvailabilityIntervalDto(freeStart, start));
+            }
+            busyStart = start;
+            busyEnd = end;
+        }
+        if (busyEnd != null) {
+            busy.add(new AvailabilityIntervalDto(busyStart, busyEnd));
+            freeStart = busyEnd;
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new AvailabilityIntervalDto(freeStart, to));
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
+
+    /**
+     * A timeline read before an eviction may miss the approved booking, so it is cached only when no eviction
+     * happened while it was being read.
+     */
+    private Timeline load(Long itemId) {
+        long loadGeneration;
+        synchronized (timelines) {
+            loadGeneration = generation;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timeline timeline = new Timeline(now, toIntervals(
+                bookingRepository.findByItem_IdAndStatusAndEndAfterOrderByStartAsc(itemId, StatusBooking.APPROVED,
+                        now)));
+        synchronized (timelines) {
+            if (loadGeneration == generation) {
+                timelines.put(itemId, timeline);
+            }
+        }
+        return timeline;
+    }
+
+    private void evict(Long itemId) {
+        synchronized (timelines) {
+            generation++;
+            timelines.remove(itemId);
+        }
+    }
+
+    private static List<Interval> toIntervals(List<BookingIntervalView> views) {
+        List<Interval> intervals = new ArrayList<>(views.size());
+        for (BookingIntervalView view : views) {
+            intervals.add(new Interval(view.getStart(), view.getEnd()));
+        }
+        return Collections.unmodifiableList(intervals);
+    }
+
+    private static final class Timeline {
+
+        private final LocalDateTime loadedAt;
+        private final List<Interval> bookings;
+
+        private Timeline(LocalDateTime loadedAt, List<Interval> bookings) {
+            this.loadedAt = loadedAt;
+            this.bookings = bookings;
+        }
+
+    }
+
+    static final class Interval {
+
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+}
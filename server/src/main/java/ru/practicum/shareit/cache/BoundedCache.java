@@ -0,0 +1,62 @@
+package ru.practicum.shareit.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe map limited to {@code maxSize} entries, the least recently used entry is evicted first.
+ */
+public class BoundedCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public BoundedCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Replaces the value only if the key is cached, the function receives the key and the current value.
+     */
+    public synchronized void computeIfPresent(K key, BiFunction<K, V, V> function) {
+        entries.computeIfPresent(key, function);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sums the function over all cached values, the cache is locked for the whole pass.
+     */
+    public synchronized long sum(ToLongFunction<? super V> function) {
+        long sum = 0;
+        for (V value : entries.values()) {
+            sum += function.applyAsLong(value);
+        }
+        return sum;
+    }
+
+}
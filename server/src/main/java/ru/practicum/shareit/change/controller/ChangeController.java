@@ -0,0 +1,27 @@
+package ru.practicum.shareit.change.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.change.dto.ChangesDto;
+import ru.practicum.shareit.change.service.ChangeService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/changes")
+public class ChangeController {
+
+    private final ChangeService changeService;
+
+    /**
+     * Returns what changed after the token {@code since} that concerns the user, reading at most {@code size}
+     * changes. Clients start from {@code 0} and pass the {@code next} token of each response to the following
+     * request.
+     */
+    @GetMapping
+    public ChangesDto getChanges(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                 @RequestParam(name = "since", defaultValue = "0") Long since,
+                                 @RequestParam(name = "size", defaultValue = "500") Integer size) {
+        return changeService.getChanges(userId, since, size);
+    }
+
+}
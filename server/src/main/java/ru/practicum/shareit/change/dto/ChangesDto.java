@@ -0,0 +1,34 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The current state of the entities changed after a token, comments grouped by item id, and the ids of the changed
+ * entities that no longer exist. {@code next} is the token to ask for the following changes with.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ChangesDto {
+
+    Long next;
+    List<UserDto> users;
+    List<ItemDto> items;
+    List<BookingDto> bookings;
+    Map<Long, List<CommentDto>> comments;
+    List<ItemRequestDto> requests;
+    Map<EntityType, List<Long>> deleted;
+
+}
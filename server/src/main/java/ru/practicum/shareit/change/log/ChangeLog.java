@@ -0,0 +1,137 @@
+package ru.practicum.shareit.change.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.change.model.Change;
+import ru.practicum.shareit.change.model.ChangedEntity;
+import ru.practicum.shareit.change.model.EntityType;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sequence of the writes of users, items, bookings, comments and requests, which clients sync from.
+ * <p>
+ * Writes are recorded into {@code pending_changes} in the transaction that makes them, so a change is logged if and
+ * only if it commits. A single publisher moves the committed pending changes into {@code changes}, which assigns the
+ * sequence numbers, so they follow the order in which the changes became visible. A reader that sees a sequence
+ * number has therefore seen every smaller one that will ever exist, however long the writing transaction ran. Gaps
+ * are only left by a rolled back publish and are read over. The publisher runs in one instance, like the other
+ * schedulers.
+ * <p>
+ * Every change keeps the users the entity concerned when it was written, so readers can tell which changes are
+ * theirs even after the entity is gone.
+ */
+@Slf4j
+@Component
+public class ChangeLog {
+
+    private static final String INSERT_PENDING = "insert into pending_changes (entity_type, entity_id, changed_at, " +
+            "user_id, other_user_id) values (:entityType, :entityId, :changedAt, :userId, :otherUserId)";
+    private static final String SELECT_PENDING_IDS = "select id from pending_changes order by id limit :limit";
+    private static final String PUBLISH = "insert into changes (entity_type, entity_id, changed_at, user_id, " +
+            "other_user_id) select entity_type, entity_id, changed_at, user_id, other_user_id from pending_changes " +
+            "where id in (:ids) order by id";
+    private static final String DELETE_PENDING = "delete from pending_changes where id in (:ids)";
+    private static final String SELECT_AFTER = "select seq, entity_type, entity_id, changed_at, user_id, " +
+            "other_user_id from changes where seq > :since order by seq limit :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public ChangeLog(NamedParameterJdbcTemplate jdbcTemplate,
+                     TransactionTemplate transactionTemplate,
+                     @Value("${shareit.changes.publish-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records a change of an entity that concerns no user in particular, that is of a user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, Long entityId) {
+        record(entityType, List.of(entityId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, Collection<Long> entityIds) {
+        record(entityType, entityIds.stream()
+                .map(entityId -> new ChangedEntity(entityId, null, null))
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, Long entityId, Long userId, @Nullable Long otherUserId) {
+        record(entityType, List.of(new ChangedEntity(entityId, userId, otherUserId)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EntityType entityType, List<ChangedEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        LocalDateTime changedAt = LocalDateTime.now();
+        SqlParameterSource[] batch = entities.stream()
+                .map(entity -> new MapSqlParameterSource()
+                        .addValue("entityType", entityType.name())
+                        .addValue("entityId", entity.getId())
+                        .addValue("changedAt", changedAt)
+                        .addValue("userId", entity.getUserId(), Types.BIGINT)
+                        .addValue("otherUserId", entity.getOtherUserId(), Types.BIGINT))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_PENDING, batch);
+    }
+
+    /**
+     * Moves the committed pending changes into the log, one batch per transaction.
+     */
+    @Scheduled(fixedDelayString = "${shareit.changes.publish-interval-ms:200}")
+    public synchronized void publish() {
+        int published;
+        do {
+            Integer batch = transactionTemplate.execute(status -> publishBatch());
+            published = batch != null ? batch : 0;
+        } while (published == batchSize);
+    }
+
+    /**
+     * Returns up to {@code limit} changes after the sequence number {@code since} in order.
+     */
+    public List<Change> readAfter(long since, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, Map.of("since", since, "limit", limit),
+                (rs, rowNum) -> new Change(rs.getLong("seq"), EntityType.valueOf(rs.getString("entity_type")),
+                        rs.getLong("entity_id"), rs.getTimestamp("changed_at").toLocalDateTime(),
+                        rs.getObject("user_id", Long.class), rs.getObject("other_user_id", Long.class)));
+    }
+
+    private int publishBatch() {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_PENDING_IDS, Map.of("limit", batchSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> parameters = Map.of("ids", ids);
+        jdbcTemplate.update(PUBLISH, parameters);
+        jdbcTemplate.update(DELETE_PENDING, parameters);
+        log.debug("Published {} changes", ids.size());
+        return ids.size();
+    }
+
+}
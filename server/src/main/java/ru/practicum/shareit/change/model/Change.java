@@ -0,0 +1,30 @@
+package ru.practicum.shareit.change.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the change log: the entity was created, changed or deleted by the write with sequence number
+ * {@code seq}. The users the entity concerned at the time are kept with it, changes of users have none.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class Change {
+
+    long seq;
+    EntityType entityType;
+    long entityId;
+    LocalDateTime changedAt;
+    Long userId;
+    Long otherUserId;
+
+    public boolean concerns(Long userId) {
+        return userId.equals(this.userId) || userId.equals(otherUserId);
+    }
+
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.change.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * An entity to record in the change log with the users it concerns: the owner and the booker of a booking, the
+ * owner and the requestor of an item, the author and the item owner of a comment, the requestor of a request.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ChangedEntity {
+
+    Long id;
+    Long userId;
+    Long otherUserId;
+
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.change.model;
+
+public enum EntityType {
+    USER,
+    ITEM,
+    BOOKING,
+    COMMENT,
+    REQUEST
+}
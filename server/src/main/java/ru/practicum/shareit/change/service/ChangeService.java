@@ -0,0 +1,9 @@
+package ru.practicum.shareit.change.service;
+
+import ru.practicum.shareit.change.dto.ChangesDto;
+
+public interface ChangeService {
+
+    ChangesDto getChanges(Long userId, Long since, Integer size);
+
+}
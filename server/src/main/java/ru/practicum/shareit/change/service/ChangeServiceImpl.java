@@ -0,0 +1,155 @@
+package ru.practicum.shareit.change.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.dto.ChangesDto;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.Change;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a page of the change log, keeps the changes that concern the user and loads the current state of every
+ * entity in them once, with one query per entity type, bookings not in the hot table are looked up in the archive.
+ * A change concerns the user when it is of the user's items, bookings, requests or comments on them, of items
+ * offered to the user's requests, of the user or of a user they share a booking with. Entities that are gone are
+ * reported as deleted, so only to users they concerned.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+class ChangeServiceImpl implements ChangeService {
+
+    private final ChangeLog changeLog;
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+
+    @Override
+    public ChangesDto getChanges(Long userId, Long since, Integer size) {
+        userService.validateUserById(userId);
+        List<Change> page = changeLog.readAfter(since, size);
+        List<Change> changes = concerning(userId, page);
+        Map<EntityType, Set<Long>> changed = new EnumMap<>(EntityType.class);
+        for (Change change : changes) {
+            changed.computeIfAbsent(change.getEntityType(), type -> new LinkedHashSet<>()).add(change.getEntityId());
+        }
+        Map<EntityType, List<Long>> deleted = new EnumMap<>(EntityType.class);
+
+        Set<Long> userIds = changed.getOrDefault(EntityType.USER, Collections.emptySet());
+        List<UserDto> users = userIds.isEmpty() ? Collections.emptyList()
+                : userService.getUsersByIds(new ArrayList<>(userIds));
+        addDeleted(deleted, EntityType.USER, userIds, users, UserDto::getId);
+
+        Set<Long> itemIds = changed.getOrDefault(EntityType.ITEM, Collections.emptySet());
+        List<ItemDto> items = itemIds.isEmpty() ? Collections.emptyList()
+                : itemRepository.findWithOwnerByIdIn(itemIds).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        addDeleted(deleted, EntityType.ITEM, itemIds, items, ItemDto::getId);
+
+        Set<Long> bookingIds = changed.getOrDefault(EntityType.BOOKING, Collections.emptySet());
+        List<BookingDto> bookings = bookingIds.isEmpty() ? Collections.emptyList()
+                : findVisibleBookings(bookingIds, userId).stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+        addDeleted(deleted, EntityType.BOOKING, bookingIds, bookings, BookingDto::getId);
+
+        Set<Long> commentIds = changed.getOrDefault(EntityType.COMMENT, Collections.emptySet());
+        List<Comment> commentList = commentIds.isEmpty() ? Collections.emptyList()
+                : commentRepository.findWithAuthorByIdIn(commentIds);
+        Map<Long, List<CommentDto>> comments = commentList.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(), LinkedHashMap::new,
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        addDeleted(deleted, EntityType.COMMENT, commentIds, commentList, Comment::getId);
+
+        Set<Long> requestIds = changed.getOrDefault(EntityType.REQUEST, Collections.emptySet());
+        List<ItemRequest> requestList = requestIds.isEmpty() ? Collections.emptyList()
+                : itemRequestRepository.findWithRequestorByIdIn(requestIds);
+        List<ItemRequestDto> requests = requestList.isEmpty() ? Collections.emptyList()
+                : ItemRequestMapper.toItemRequestDtos(requestList, itemRepository.findByRequestIdIn(
+                requestList.stream().map(ItemRequest::getId).collect(Collectors.toList())));
+        addDeleted(deleted, EntityType.REQUEST, requestIds, requestList, ItemRequest::getId);
+
+        return ChangesDto.builder()
+                .next(page.isEmpty() ? since : page.get(page.size() - 1).getSeq())
+                .users(users)
+                .items(items)
+                .bookings(bookings)
+                .comments(comments)
+                .requests(requests)
+                .deleted(deleted)
+                .build();
+    }
+
+    /**
+     * Keeps the changes the user is a party of and the changes of the user and their counterparts, which are looked
+     * up with one query.
+     */
+    private List<Change> concerning(Long userId, List<Change> changes) {
+        Set<Long> otherUserIds = changes.stream()
+                .filter(change -> change.getEntityType() == EntityType.USER && change.getEntityId() != userId)
+                .map(Change::getEntityId)
+                .collect(Collectors.toSet());
+        Set<Long> counterpartIds = otherUserIds.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(bookingRepository.findCounterpartIds(userId, otherUserIds));
+        return changes.stream()
+                .filter(change -> change.getEntityType() == EntityType.USER
+                        ? change.getEntityId() == userId || counterpartIds.contains(change.getEntityId())
+                        : change.concerns(userId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Looks up the bookings in the hot table first and only the ones not found there in the archive.
+     */
+    private List<Booking> findVisibleBookings(Set<Long> bookingIds, Long userId) {
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findVisibleByIdIn(bookingIds, userId));
+        if (bookings.size() < bookingIds.size()) {
+            Set<Long> found = bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+            List<Long> rest = bookingIds.stream()
+                    .filter(bookingId -> !found.contains(bookingId))
+                    .collect(Collectors.toList());
+            bookings.addAll(bookingArchiveRepository.findVisibleByIdIn(rest, userId));
+        }
+        return bookings;
+    }
+
+    private static <T> void addDeleted(Map<EntityType, List<Long>> deleted, EntityType entityType,
+                                       Set<Long> changedIds, List<T> found, Function<T, Long> id) {
+        if (found.size() == changedIds.size()) {
+            return;
+        }
+        Set<Long> foundIds = found.stream().map(id).collect(Collectors.toSet());
+        List<Long> missing = changedIds.stream()
+                .filter(changedId -> !foundIds.contains(changedId))
+                .collect(Collectors.toList());
+        deleted.put(entityType, missing);
+    }
+
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.EqualsAndHashCode;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * The top level fields of a DTO a client asked for with the {@code fields} parameter of a list endpoint, the id is
+ * always included. Services leave out the associations that were not asked for, so they are never loaded, and
+ * controllers write only the fields asked for.
+ */
+@EqualsAndHashCode
+public final class FieldSet {
+
+    public static final FieldSet ALL = new FieldSet(null);
+
+    private static final String ID = "id";
+
+    @Nullable
+    private final Set<String> names;
+
+    private FieldSet(@Nullable Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * Parses a comma separated list of fields of the DTO class, a missing or blank list selects all fields.
+     */
+    public static FieldSet of(@Nullable String fields, Class<?> dtoClass) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> known = Arrays.stream(dtoClass.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        Set<String> names = new LinkedHashSet<>();
+        names.add(ID);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!known.contains(name)) {
+                throw new ValidationException(String.format("Unknown field: %s", name));
+            }
+            names.add(name);
+        }
+        return new FieldSet(Collections.unmodifiableSet(names));
+    }
+
+    public boolean contains(String name) {
+        return names == null || names.contains(name);
+    }
+
+    /**
+     * Returns the values as they are when all fields are selected, otherwise JSON objects of the selected fields.
+     */
+    public List<?> select(ObjectMapper objectMapper, List<?> values) {
+        if (names == null) {
+            return values;
+        }
+        return values.stream()
+                .map(value -> objectMapper.<ObjectNode>valueToTree(value).retain(names))
+                .collect(Collectors.toList());
+    }
+
+}
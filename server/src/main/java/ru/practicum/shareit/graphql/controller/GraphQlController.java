@@ -0,0 +1,143 @@
+package ru.practicum.shareit.graphql.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.graphql.service.GraphQlService;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the queries of {@code schema.graphqls}. Items, requests and comments are resolved from their entities,
+ * which are loaded with the user they reference, and bookings from {@link CompactBookingDto}. The other
+ * associations are batch mappings, called once per request and level with all objects the association is asked for.
+ */
+@Controller
+@RequiredArgsConstructor
+public class GraphQlController {
+
+    private final GraphQlService graphQlService;
+
+    @QueryMapping
+    public UserDto user(@ContextValue(name = UserIdInterceptor.USER_ID, required = false) String userId,
+                        @Argument Long id) {
+        return graphQlService.getUser(parseUserId(userId), id);
+    }
+
+    @QueryMapping
+    public Item item(@ContextValue(name = UserIdInterceptor.USER_ID, required = false) String userId,
+                     @Argument Long id) {
+        return graphQlService.getItem(parseUserId(userId), id);
+    }
+
+    @QueryMapping
+    public List<Item> items(@ContextValue(name = UserIdInterceptor.USER_ID, required = false) String userId,
+                            @Argument Integer from, @Argument Integer size) {
+        return graphQlService.getOwnItems(parseUserId(userId), from, size);
+    }
+
+    @QueryMapping
+    public List<CompactBookingDto> bookings(@ContextValue(name = UserIdInterceptor.USER_ID, required = false)
+                                                String userId,
+                                            @Argument String state, @Argument Integer from, @Argument Integer size) {
+        return graphQlService.getBookings(parseUserId(userId), state, from, size);
+    }
+
+    @QueryMapping
+    public List<CompactBookingDto> ownerBookings(@ContextValue(name = UserIdInterceptor.USER_ID, required = false)
+                                                     String userId,
+                                                 @Argument String state, @Argument Integer from,
+                                                 @Argument Integer size) {
+        return graphQlService.getOwnerBookings(parseUserId(userId), state, from, size);
+    }
+
+    @QueryMapping
+    public ItemRequest request(@ContextValue(name = UserIdInterceptor.USER_ID, required = false) String userId,
+                               @Argument Long id) {
+        return graphQlService.getRequest(parseUserId(userId), id);
+    }
+
+    @QueryMapping
+    public List<ItemRequest> requests(@ContextValue(name = UserIdInterceptor.USER_ID, required = false) String userId,
+                                      @Argument Integer from, @Argument Integer size) {
+        return graphQlService.getOwnRequests(parseUserId(userId), from, size);
+    }
+
+    @SchemaMapping(typeName = "Item")
+    public Boolean available(Item item) {
+        return item.getIsAvailable();
+    }
+
+    @BatchMapping(typeName = "Item")
+    public Map<Item, ItemRequest> request(List<Item> items) {
+        Function<Item, Long> requestId = item -> item.getRequest() != null ? item.getRequest().getId() : null;
+        return byKey(items, requestId, graphQlService.getRequestsByIds(ids(items, requestId)));
+    }
+
+    @BatchMapping(typeName = "Item")
+    public Map<Item, Comment> lastComment(List<Item> items) {
+        return byKey(items, Item::getLastCommentId,
+                graphQlService.getCommentsByIds(ids(items, Item::getLastCommentId)));
+    }
+
+    @BatchMapping(typeName = "Booking")
+    public Map<CompactBookingDto, Item> item(List<CompactBookingDto> bookings) {
+        return byKey(bookings, CompactBookingDto::getItemId,
+                graphQlService.getItemsByIds(ids(bookings, CompactBookingDto::getItemId)));
+    }
+
+    @BatchMapping(typeName = "Booking")
+    public Map<CompactBookingDto, UserDto> booker(List<CompactBookingDto> bookings) {
+        return byKey(bookings, CompactBookingDto::getBookerId,
+                graphQlService.getUsersByIds(ids(bookings, CompactBookingDto::getBookerId)));
+    }
+
+    @BatchMapping(typeName = "ItemRequest")
+    public Map<ItemRequest, List<Item>> items(List<ItemRequest> requests) {
+        Map<Long, List<Item>> items = graphQlService.getItemsByRequestIds(ids(requests, ItemRequest::getId));
+        Map<ItemRequest, List<Item>> result = new HashMap<>();
+        for (ItemRequest request : requests) {
+            result.put(request, items.getOrDefault(request.getId(), Collections.emptyList()));
+        }
+        return result;
+    }
+
+    private static Long parseUserId(String userId) {
+        try {
+            return Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("The X-Sharer-User-Id header must be a user id");
+        }
+    }
+
+    private static <S> Set<Long> ids(List<S> sources, Function<S, Long> id) {
+        return sources.stream()
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static <S, V> Map<S, V> byKey(List<S> sources, Function<S, Long> id, Map<Long, V> values) {
+        Map<S, V> result = new HashMap<>();
+        for (S source : sources) {
+            V value = values.get(id.apply(source));
+            if (value != null) {
+                result.put(source, value);
+            }
+        }
+        return result;
+    }
+
+}
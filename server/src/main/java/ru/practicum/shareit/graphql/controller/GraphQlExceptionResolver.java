@@ -0,0 +1,36 @@
+package ru.practicum.shareit.graphql.controller;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.exception.UnsupportedStateException;
+import ru.practicum.shareit.exception.ValidationException;
+
+/**
+ * Reports the exceptions the REST {@code ErrorHandler} answers with 404 and 400 as GraphQL errors of the same kind
+ * with their message, anything else is left to the default internal error.
+ */
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType errorType;
+        if (ex instanceof ObjectNotFoundException) {
+            errorType = ErrorType.NOT_FOUND;
+        } else if (ex instanceof ValidationException || ex instanceof UnsupportedStateException) {
+            errorType = ErrorType.BAD_REQUEST;
+        } else {
+            return null;
+        }
+        return GraphqlErrorBuilder.newError(env)
+                .errorType(errorType)
+                .message(ex.getMessage())
+                .build();
+    }
+
+}
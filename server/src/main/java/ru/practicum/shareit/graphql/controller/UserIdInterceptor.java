@@ -0,0 +1,31 @@
+package ru.practicum.shareit.graphql.controller;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Passes the user of the {@code X-Sharer-User-Id} header to the resolvers as the {@link #USER_ID} context value.
+ */
+@Component
+public class UserIdInterceptor implements WebGraphQlInterceptor {
+
+    public static final String USER_ID = "userId";
+
+    private static final String HEADER = "X-Sharer-User-Id";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String userId = request.getHeaders().getFirst(HEADER);
+        if (userId != null) {
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(USER_ID, userId)).build());
+        }
+        return chain.next(request);
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.graphql.instrumentation;
+
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rejects queries nested deeper than {@code max-depth} before they run. Items and requests refer to each other, so
+ * without a limit one query could walk the associations, and every list in them, to any depth.
+ */
+@Component
+public class QueryDepthInstrumentation extends MaxQueryDepthInstrumentation {
+
+    public QueryDepthInstrumentation(@Value("${shareit.graphql.max-depth:8}") int maxDepth) {
+        super(maxDepth);
+    }
+
+}
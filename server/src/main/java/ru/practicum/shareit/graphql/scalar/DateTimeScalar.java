@@ -0,0 +1,65 @@
+package ru.practicum.shareit.graphql.scalar;
+
+import graphql.language.StringValue;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.idl.RuntimeWiring;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The {@code DateTime} scalar of the schema, written in the same ISO format as the REST responses.
+ */
+@Component
+public class DateTimeScalar implements RuntimeWiringConfigurer {
+
+    private static final GraphQLScalarType DATE_TIME = GraphQLScalarType.newScalar()
+            .name("DateTime")
+            .description("A local date and time, e.g. 2030-01-01T10:00:00")
+            .coercing(new Coercing<LocalDateTime, String>() {
+
+                @Override
+                public String serialize(Object value) {
+                    if (!(value instanceof LocalDateTime)) {
+                        throw new CoercingSerializeException("Not a LocalDateTime: " + value);
+                    }
+                    return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value);
+                }
+
+                @Override
+                public LocalDateTime parseValue(Object input) {
+                    try {
+                        return LocalDateTime.parse(input.toString());
+                    } catch (DateTimeParseException e) {
+                        throw new CoercingParseValueException("Not a date and time: " + input, e);
+                    }
+                }
+
+                @Override
+                public LocalDateTime parseLiteral(Object input) {
+                    if (!(input instanceof StringValue)) {
+                        throw new CoercingParseLiteralException("Not a string: " + input);
+                    }
+                    try {
+                        return LocalDateTime.parse(((StringValue) input).getValue());
+                    } catch (DateTimeParseException e) {
+                        throw new CoercingParseLiteralException("Not a date and time: " + input, e);
+                    }
+                }
+
+            })
+            .build();
+
+    @Override
+    public void configure(RuntimeWiring.Builder builder) {
+        builder.scalar(DATE_TIME);
+    }
+
+}
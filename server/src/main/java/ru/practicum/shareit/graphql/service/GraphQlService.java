@@ -0,0 +1,43 @@
+package ru.practicum.shareit.graphql.service;
+
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the objects of GraphQL queries. The root methods check the user, the methods taking ids are the batch
+ * loaders of the associations and load all ids of a request with one query, returning the found objects by id.
+ */
+public interface GraphQlService {
+
+    UserDto getUser(Long userId, Long id);
+
+    Item getItem(Long userId, Long itemId);
+
+    List<Item> getOwnItems(Long userId, Integer from, Integer size);
+
+    List<CompactBookingDto> getBookings(Long userId, String state, Integer from, Integer size);
+
+    List<CompactBookingDto> getOwnerBookings(Long userId, String state, Integer from, Integer size);
+
+    ItemRequest getRequest(Long userId, Long requestId);
+
+    List<ItemRequest> getOwnRequests(Long userId, Integer from, Integer size);
+
+    Map<Long, UserDto> getUsersByIds(Collection<Long> ids);
+
+    Map<Long, Item> getItemsByIds(Collection<Long> ids);
+
+    Map<Long, List<Item>> getItemsByRequestIds(Collection<Long> requestIds);
+
+    Map<Long, ItemRequest> getRequestsByIds(Collection<Long> ids);
+
+    Map<Long, Comment> getCommentsByIds(Collection<Long> ids);
+
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.graphql.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Every loader fetches the associations its objects are resolved with in the same query, so that the number of
+ * statements of a query does not depend on the number of objects in it.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+class GraphQlServiceImpl implements GraphQlService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Sort NEWEST_FIRST = Sort.by("created").descending().and(Sort.by("id").descending());
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final CommentRepository commentRepository;
+
+    @Override
+    public UserDto getUser(Long userId, Long id) {
+        userService.validateUserById(userId);
+        return userService.getUserById(id);
+    }
+
+    @Override
+    public Item getItem(Long userId, Long itemId) {
+        userService.validateUserById(userId);
+        return itemService.getById(itemId);
+    }
+
+    @Override
+    public List<Item> getOwnItems(Long userId, Integer from, Integer size) {
+        checkPage(from, size);
+        userService.validateUserById(userId);
+        return itemRepository.findAllByOwnerId(userId, PageRequest.of(from / size, size, Sort.by("id")));
+    }
+
+    @Override
+    public List<CompactBookingDto> getBookings(Long userId, String state, Integer from, Integer size) {
+        checkPage(from, size);
+        return bookingService.getBookingRefsCurrentUser(userId, state, from, size);
+    }
+
+    @Override
+    public List<CompactBookingDto> getOwnerBookings(Long userId, String state, Integer from, Integer size) {
+        checkPage(from, size);
+        return bookingService.getBookingRefsAllItemCurrentUser(userId, state, from, size);
+    }
+
+    @Override
+    public ItemRequest getRequest(Long userId, Long requestId) {
+        userService.validateUserById(userId);
+        return itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new ObjectNotFoundException(String.format("Request not found: id=%d", requestId)));
+    }
+
+    @Override
+    public List<ItemRequest> getOwnRequests(Long userId, Integer from, Integer size) {
+        checkPage(from, size);
+        userService.validateUserById(userId);
+        return itemRequestRepository.findAllByRequestor_Id(userId, PageRequest.of(from / size, size, NEWEST_FIRST));
+    }
+
+    @Override
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return userService.getUsersByIds(new ArrayList<>(ids)).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+    }
+
+    @Override
+    public Map<Long, Item> getItemsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return itemRepository.findWithOwnerByIdIn(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    @Override
+    public Map<Long, List<Item>> getItemsByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return itemRepository.findWithOwnerByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+    }
+
+    @Override
+    public Map<Long, ItemRequest> getRequestsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return itemRequestRepository.findWithRequestorByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+    }
+
+    @Override
+    public Map<Long, Comment> getCommentsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return commentRepository.findWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Comment::getId, Function.identity()));
+    }
+
+    private static void checkPage(Integer from, Integer size) {
+        if (from < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Wrong page: from=%d, size=%d", from, size));
+        }
+    }
+
+}
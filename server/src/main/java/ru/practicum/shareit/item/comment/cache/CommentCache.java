@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.comment.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item comment pages, newest first.
+ * <p>
+ * Pages are keyed by the keyset cursor, the id of the last comment already seen, and the page size; the first page
+ * of {@code latest} comments is the one embedded into item responses. Everything cached for an item is evicted
+ * when a comment is added to it.
+ */
+@Component
+public class CommentCache {
+
+    private final CommentRepository commentRepository;
+    private final int latestSize;
+    private final int pagesPerItem;
+    private final BoundedCache<Long, ItemComments> items;
+    private long generation;
+
+    @Autowired
+    public CommentCache(CommentRepository commentRepository,
+                        @Value("${shareit.item.comments.latest:10}") int latestSize,
+                        @Value("${shareit.item.comments.cache-size:10000}") int cacheSize,
+                        @Value("${shareit.item.comments.pages-per-item:16}") int pagesPerItem) {
+        this.commentRepository = commentRepository;
+        this.latestSize = latestSize;
+        this.pagesPerItem = pagesPerItem;
+        this.items = new BoundedCache<>(cacheSize);
+    }
+
+    /**
+     * Returns up to {@code size} comments of the item with ids below {@code after}, or the newest ones when
+     * {@code after} is {@code null}.
+     */
+    public List<CommentDto> getPage(Long itemId, Long after, int size) {
+        PageKey key = new PageKey(after, size);
+        ItemComments cached = items.get(itemId);
+        List<CommentDto> page = cached != null ? cached.pages.get(key) : null;
+        if (page != null) {
+            return page;
+        }
+        long loadGeneration = currentGeneration();
+        PageRequest pageRequest = PageRequest.of(0, size);
+        page = toDtos(after == null
+                ? commentRepository.findPageByItemId(itemId, pageRequest)
+                : commentRepository.findPageByItemIdAndIdBefore(itemId, after, pageRequest));
+        cacheIfCurrent(loadGeneration, itemId, key, page);
+        return page;
+    }
+
+    /**
+     * Returns the newest comments of the item, the page embedded into item responses.
+     */
+    public List<CommentDto> getLatest(Long itemId) {
+        return getPage(itemId, null, latestSize);
+    }
+
+    /**
+     * Drops everything cached for the item once the current transaction has committed.
+     */
+    public void evictAfterCommit(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(itemId);
+            }
+        });
+    }
+
+    private long currentGeneration() {
+        synchronized (items) {
+            return generation;
+        }
+    }
+
+    /**
+     * A page read before an eviction may miss the new comment, so it is cached only when no eviction happened while
+     * it was being read.
+     */
+    private void cacheIfCurrent(long loadGeneration, Long itemId, PageKey key, List<CommentDto> page) {
+        synchronized (items) {
+            if (loadGeneration != generation) {
+                return;
+            }
+            ItemComments entry = items.get(itemId);
+            if (entry == null) {
+                entry = new ItemComments(pagesPerItem);
+                items.put(itemId, entry);
+            }
+            entry.pages.put(key, page);
+        }
+    }
+
+    private void evict(Long itemId) {
+        synchronized (items) {
+            generation++;
+            items.remove(itemId);
+        }
+    }
+
+    private static List<CommentDto> toDtos(List<Comment> comments) {
+        return Collections.unmodifiableList(comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList()));
+    }
+
+    private static final class ItemComments {
+
+        private final BoundedCache<PageKey, List<CommentDto>> pages;
+
+        private ItemComments(int pagesPerItem) {
+            this.pages = new BoundedCache<>(pagesPerItem);
+        }
+
+    }
+
+    private static final class PageKey {
+
+        private final Long after;
+        private final int size;
+
+        private PageKey(Long after, int size) {
+            this.after = after;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return size == other.size && Objects.equals(after, other.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(after, size);
+        }
+
+    }
+
+}
@@ -1,15 +1,22 @@
 package ru.practicum.shareit.item.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.comment.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findCommentsByItem_Id(Long itemId);
+    @Query("select c from Comment c join fetch c.author where c.item.id = ?1 order by c.id desc")
+    List<Comment> findPageByItemId(Long itemId, Pageable page);
 
-    List<Comment> findCommentsByItemIn(List<Item> items);
+    @Query("select c from Comment c join fetch c.author where c.item.id = ?1 and c.id < ?2 order by c.id desc")
+    List<Comment> findPageByItemIdAndIdBefore(Long itemId, Long after, Pageable page);
 
-}
\ No newline at end of file
+    @Query("select c from Comment c join fetch c.author where c.id in ?1 order by c.id desc")
+    List<Comment> findWithAuthorByIdIn(Collection<Long> ids);
+
+}
@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,20 +21,62 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Returns a page of the user's items, with {@code fields} only the listed fields of each item and its id.
+     */
     @GetMapping
-    public List<ItemOwnerDto> getAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemService.getAllItemsByUserId(userId, from, size);
+    public List<?> getAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                       @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                       @RequestParam(name = "fields", required = false) String fields) {
+        FieldSet fieldSet = FieldSet.of(fields, ItemOwnerDto.class);
+        return fieldSet.select(objectMapper, itemService.getAllItemsByUserId(userId, from, size, fieldSet));
     }
 
+    /**
+     * Returns the items with the given ids in the order of the first occurrence of each id, unknown ids are skipped.
+     */
+    @GetMapping(params = "ids")
+    public List<ItemDto> getItemsByIds(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @RequestParam(name = "ids") List<Long> itemIds) {
+        return itemService.getItemsByIds(userId, itemIds);
+    }
+
+    /**
+     * Returns the item with an entity tag, or 304 without a body when the tag in {@code If-None-Match} is still
+     * current. The tag is read before the item, so an item changed in between is sent with the older tag and is
+     * sent again on the next conditional request.
+     */
     @GetMapping("{id}")
     public ItemOwnerDto getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                    @PathVariable("id") Long itemId) {
+                                    @PathVariable("id") Long itemId,
+                                    WebRequest request) {
+        if (itemService.getItemTag(userId, itemId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return itemService.getItemById(userId, itemId);
     }
 
+    @GetMapping("{id}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @PathVariable("id") Long itemId,
+                                               @RequestParam(name = "from")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(name = "to")
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(userId, itemId, from, to);
+    }
+
+    @GetMapping("{id}/comments")
+    public List<CommentDto> getComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @PathVariable("id") Long itemId,
+                                        @RequestParam(name = "after", required = false) Long after,
+                                        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.getComments(userId, itemId, after, size);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> getSearchItem(@RequestParam(name = "text", defaultValue = "") String text,
                                        @RequestParam(name = "from", defaultValue = "1") Integer from,
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+
+    Long itemId;
+    LocalDateTime from;
+    LocalDateTime to;
+    List<AvailabilityIntervalDto> busy;
+    List<AvailabilityIntervalDto> free;
+
+}
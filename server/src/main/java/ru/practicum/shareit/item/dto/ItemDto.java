@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
 
 @Getter
 @Builder
@@ -15,5 +16,7 @@ public class ItemDto {
     String description;
     Boolean available;
     Long requestId;
+    Long commentCount;
+    CommentDto lastComment;
 
 }
\ No newline at end of file
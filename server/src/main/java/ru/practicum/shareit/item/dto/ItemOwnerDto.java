@@ -22,5 +22,7 @@ public class ItemOwnerDto {
     BookingItemDto nextBooking;
     Long requestId;
     List<CommentDto> comments;
+    Long commentCount;
+    CommentDto lastComment;
 
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.model.Item;
@@ -14,12 +15,18 @@ import ru.practicum.shareit.user.model.User;
 public class ItemMapper {
 
     public static ItemDto toItemDto(Item item) {
+        return toItemDto(item, null);
+    }
+
+    public static ItemDto toItemDto(Item item, CommentDto lastComment) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getIsAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .commentCount(item.getCommentCount())
+                .lastComment(lastComment)
                 .build();
     }
 
@@ -40,6 +47,7 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getIsAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .commentCount(item.getCommentCount())
                 .build();
     }
 
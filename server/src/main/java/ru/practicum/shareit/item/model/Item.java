@@ -40,4 +40,13 @@ public class Item {
     @JoinColumn(name = "request_id")
     ItemRequest request;
 
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    long commentCount;
+
+    @Column(name = "last_comment_id", insertable = false, updatable = false)
+    Long lastCommentId;
+
+    @Column(insertable = false, updatable = false)
+    Long version;
+
 }
\ No newline at end of file
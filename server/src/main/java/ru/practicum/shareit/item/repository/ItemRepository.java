@@ -3,21 +3,58 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerId(Long userId, PageRequest pageRequest);
 
-    @Query("select i from Item i where (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.isAvailable = true order by i.id ")
+    /**
+     * Finds available items by text. Items of a deleted owner are not found before the purger removes them, the same
+     * holds for the offers of requests below.
+     */
+    @Query("select i from Item i join fetch i.owner o where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) and i.isAvailable = true " +
+            "and o.deletedAt is null order by i.id ")
     List<Item> search(String text, Pageable pageable);
 
-    List<Item> findAllByRequest_IdOrderByRequestDesc(Long requestId);
+    @Query("select i from Item i join fetch i.owner o where i.request.id = ?1 and o.deletedAt is null order by i.id")
+    List<Item> findAllByRequest_IdOrderById(Long requestId);
 
+    @Query("select i from Item i join fetch i.owner o where i.request.id in ?1 and o.deletedAt is null")
     List<Item> findByRequestIdIn(List<Long> requestsIds);
 
+    @Query("select i from Item i join fetch i.owner where i.id in ?1")
+    List<Item> findWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query("select i from Item i join fetch i.owner o where i.request.id in ?1 and o.deletedAt is null order by i.id")
+    List<Item> findWithOwnerByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select i.version as version, o.id as ownerId from Item i join i.owner o " +
+            "where i.id = ?1 and o.deletedAt is null")
+    Optional<ItemVersionView> findVersionById(Long itemId);
+
+    /**
+     * Counts a new comment of the item. The pointer only moves forward, so comments committed out of id order
+     * still leave it on the newest one.
+     */
+    @Modifying
+    @Query("update Item i set i.commentCount = i.commentCount + 1, i.lastCommentId = case " +
+            "when i.lastCommentId is null or i.lastCommentId < ?2 then ?2 else i.lastCommentId end, " +
+            "i.version = i.version + 1 where i.id = ?1")
+    int addComment(Long itemId, Long commentId);
+
+    /**
+     * Marks the views of the item as changed when something shown with it, such as its bookings, changes.
+     */
+    @Modifying
+    @Query("update Item i set i.version = i.version + 1 where i.id = ?1")
+    int incrementVersion(Long itemId);
+
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemVersionView {
+
+    Long getVersion();
+
+    Long getOwnerId();
+
+}
@@ -1,18 +1,37 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemService {
 
-    List<ItemOwnerDto> getAllItemsByUserId(Long userId, Integer from, Integer size);
+    /**
+     * Returns a page of the user's items, the bookings and last comments are only read if they are among the fields.
+     */
+    List<ItemOwnerDto> getAllItemsByUserId(Long userId, Integer from, Integer size, FieldSet fields);
 
     ItemOwnerDto getItemById(Long userId, Long itemId);
 
+    /**
+     * Returns the entity tag of the item as {@link #getItemById} shows it to the user, read without building the
+     * view, or nothing if the item does not exist.
+     */
+    Optional<String> getItemTag(Long userId, Long itemId);
+
+    List<ItemDto> getItemsByIds(Long userId, List<Long> itemIds);
+
+    ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<CommentDto> getComments(Long userId, Long itemId, Long after, Integer size);
+
     List<ItemDto> getSearchItem(String text, Integer from, Integer size);
 
     ItemDto saveItem(Long userId, ItemDto itemDto);
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -10,18 +11,29 @@ import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.cache.CommentCache;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
+import ru.practicum.shareit.request.event.OfferEvent;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.ItemTermIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -37,27 +49,37 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
 
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
+    private final BookingTimeline bookingTimeline;
+    private final CommentCache commentCache;
+    private final RequestFeed requestFeed;
+    private final ItemTermIndex itemTermIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestDetailCache requestDetailCache;
+    private final ChangeLog changeLog;
 
     @Override
-    public List<ItemOwnerDto> getAllItemsByUserId(Long userId, Integer from, Integer size) {
+    public List<ItemOwnerDto> getAllItemsByUserId(Long userId, Integer from, Integer size, FieldSet fields) {
         userService.validateUserById(userId);
         PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("id"));
         List<Item> items = itemRepository.findAllByOwnerId(userId, pageRequest);
         List<ItemOwnerDto> itemsOwnerDto = items.stream()
                 .map(ItemMapper::toItemOwnerDto)
                 .collect(Collectors.toList());
-        List<Booking> bookings = bookingRepository.findBookingsByItemIn(items);
-        List<Comment> comments = commentRepository.findCommentsByItemIn(items);
-        if (comments != null && !comments.isEmpty()) {
+        if (fields.contains("lastComment")) {
+            Map<Long, CommentDto> lastComments = getLastComments(items);
             for (ItemOwnerDto i : itemsOwnerDto) {
-                i.setComments(comments.stream().filter(c -> Objects.equals(c.getItem().getId(), i.getId()))
-                        .map(CommentMapper::toCommentDto).collect(Collectors.toList()));
+                i.setLastComment(lastComments.get(i.getId()));
             }
         }
+        if (!fields.contains("lastBooking") && !fields.contains("nextBooking")) {
+            return itemsOwnerDto;
+        }
+        List<Booking> bookings = bookingRepository.findBookingsByItemIn(items);
         if (bookings != null && !bookings.isEmpty()) {
             for (ItemOwnerDto i : itemsOwnerDto) {
                 List<Booking> bookingsOwnerItems = bookings.stream()
@@ -73,8 +95,9 @@ public class ItemServiceImpl implements ItemService {
         userService.validateUserById(userId);
         Item item = getById(itemId);
         ItemOwnerDto itemOwnerDto = ItemMapper.toItemOwnerDto(item);
-        List<Comment> comments = commentRepository.findCommentsByItem_Id(itemId);
-        itemOwnerDto.setComments(comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()));
+        List<CommentDto> comments = commentCache.getLatest(itemId);
+        itemOwnerDto.setComments(comments);
+        itemOwnerDto.setLastComment(comments.isEmpty() ? null : comments.get(0));
         List<Booking> bookings = bookingRepository.findBookingsByItem_Id(itemOwnerDto.getId());
         if (bookings != null && !bookings.isEmpty() && Objects.equals(item.getOwner().getId(), userId)) {
             addLastAndNextBookings(itemOwnerDto, bookings);
@@ -82,6 +105,60 @@ public class ItemServiceImpl implements ItemService {
         return itemOwnerDto;
     }
 
+    /**
+     * The owner also sees the last and next approved bookings, which move as bookings start, so the owner's tag adds
+     * the number of approved bookings started so far to the item version.
+     */
+    @Override
+    public Optional<String> getItemTag(Long userId, Long itemId) {
+        userService.validateUserById(userId);
+        return itemRepository.findVersionById(itemId).map(view -> {
+            if (!Objects.equals(view.getOwnerId(), userId)) {
+                return String.valueOf(view.getVersion());
+            }
+            long started = bookingRepository.countByItem_IdAndStatusAndStartBefore(itemId, StatusBooking.APPROVED,
+                    LocalDateTime.now());
+            return view.getVersion() + "-" + started;
+        });
+    }
+
+    @Override
+    public List<ItemDto> getItemsByIds(Long userId, List<Long> itemIds) {
+        userService.validateUserById(userId);
+        List<Item> items = itemRepository.findWithOwnerByIdIn(new LinkedHashSet<>(itemIds)).stream()
+                .filter(item -> item.getOwner().getDeletedAt() == null)
+                .collect(Collectors.toList());
+        Map<Long, Item> itemsById = items.stream().collect(Collectors.toMap(Item::getId, item -> item));
+        Map<Long, CommentDto> lastComments = getLastComments(items);
+        return itemIds.stream()
+                .distinct()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .map(item -> ItemMapper.toItemDto(item, lastComments.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        userService.validateUserById(userId);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Date is not correct");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException(String.format("Item not found: id=%d", itemId));
+        }
+        return bookingTimeline.getAvailability(itemId, from, to);
+    }
+
+    @Override
+    public List<CommentDto> getComments(Long userId, Long itemId, Long after, Integer size) {
+        userService.validateUserById(userId);
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException(String.format("Item not found: id=%d", itemId));
+        }
+        return commentCache.getPage(itemId, after, size);
+    }
+
     @Override
     public List<ItemDto> getSearchItem(String text, Integer from, Integer size) {
         if (text.isBlank()) {
@@ -89,9 +166,10 @@ public class ItemServiceImpl implements ItemService {
         }
         Pageable pageable = PageRequest.of(from / size, size);
         List<Item> items = itemRepository.search(text, pageable);
+        Map<Long, CommentDto> lastComments = getLastComments(items);
         return items
                 .stream()
-                .map(ItemMapper::toItemDto)
+                .map(item -> ItemMapper.toItemDto(item, lastComments.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -104,7 +182,17 @@ public class ItemServiceImpl implements ItemService {
             itemRequest = itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(() ->
                     new ObjectNotFoundException(String.format("Request not found: id=%d", itemDto.getRequestId())));
         }
-        return ItemMapper.toItemDto(itemRepository.save(ItemMapper.toItem(itemDto, user, itemRequest)));
+        Item saved = itemRepository.save(ItemMapper.toItem(itemDto, user, itemRequest));
+        changeLog.record(EntityType.ITEM, saved.getId(), userId, requestorId(saved));
+        itemTermIndex.putAfterCommit(saved);
+        ItemDto savedDto = ItemMapper.toItemDto(saved);
+        if (itemRequest != null) {
+            itemRequestRepository.incrementVersion(itemRequest.getId());
+            requestFeed.refreshAfterCommit(itemRequest.getId());
+            requestDetailCache.putOfferAfterCommit(itemRequest.getId(), savedDto);
+            eventPublisher.publishEvent(new OfferEvent(itemRequest.getRequestor().getId(), savedDto));
+        }
+        return savedDto;
     }
 
     @Transactional
@@ -112,7 +200,7 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         User user = userService.getById(userId);
         Item item = getById(itemId);
-        if (!Objects.equals(item.getOwner(), user)) {
+        if (!Objects.equals(item.getOwner().getId(), user.getId())) {
             throw new ObjectNotFoundException(String.format("User not found: id=%d", userId));
         }
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
@@ -124,7 +212,17 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setIsAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.toItemDto((itemRepository.save(item)));
+        Item saved = itemRepository.save(item);
+        itemRepository.incrementVersion(itemId);
+        changeLog.record(EntityType.ITEM, itemId, userId, requestorId(item));
+        ItemDto savedDto = ItemMapper.toItemDto(saved);
+        if (item.getRequest() != null) {
+            itemRequestRepository.incrementVersion(item.getRequest().getId());
+            requestFeed.refreshAfterCommit(item.getRequest().getId());
+            requestDetailCache.putOfferAfterCommit(item.getRequest().getId(), savedDto);
+        }
+        itemTermIndex.putAfterCommit(saved);
+        return savedDto;
     }
 
     @Transactional
@@ -132,25 +230,61 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto createComment(Long userId, Long itemId, CommentDto commentDto) {
         User user = userService.getById(userId);
         Item item = getById(itemId);
-        List<Booking> bookings = bookingRepository.findBookingsByItem_IdAndStatusOrderByEndAsc(itemId,
-                StatusBooking.APPROVED);
-        Comment comment = Comment.builder().text(commentDto.getText())
-                .item(item).author(user).created(LocalDateTime.now()).build();
-        if (bookings.stream().noneMatch(s -> s.getEnd().isBefore(LocalDateTime.now()))) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(itemId, userId,
+                StatusBooking.APPROVED, now)
+                && !bookingArchiveRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId,
+                StatusBooking.APPROVED.name())) {
             throw new ValidationException("You can add a comment only after the booking is completed.");
         }
-        if (bookings.stream().noneMatch(s -> Objects.equals(s.getBooker(), user))) {
-            throw new ValidationException("You can add a comment only after the booking");
+        Comment comment = Comment.builder().text(commentDto.getText())
+                .item(item).author(user).created(now).build();
+        CommentDto saved = CommentMapper.toCommentDto(commentRepository.save(comment));
+        itemRepository.addComment(itemId, saved.getId());
+        changeLog.record(EntityType.COMMENT, saved.getId(), userId, item.getOwner().getId());
+        changeLog.record(EntityType.ITEM, itemId, item.getOwner().getId(), requestorId(item));
+        commentCache.evictAfterCommit(itemId);
+        if (item.getRequest() != null) {
+            itemRequestRepository.incrementVersion(item.getRequest().getId());
+            requestFeed.refreshAfterCommit(item.getRequest().getId());
+            requestDetailCache.evictAfterCommit(item.getRequest().getId());
         }
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        return saved;
     }
 
+    /**
+     * Items of a deleted owner are not found, the same way search skips them until the purger removes them.
+     */
     @Override
     public Item getById(Long itemId) {
         return itemRepository.findById(itemId)
+                .filter(item -> item.getOwner().getDeletedAt() == null)
                 .orElseThrow(() -> new ObjectNotFoundException(String.format("Item not found: id=%d", itemId)));
     }
 
+    /**
+     * Reads the newest comment of each item by the pointer stored on the item, so the comments table is only
+     * touched by primary key.
+     */
+    private Map<Long, CommentDto> getLastComments(List<Item> items) {
+        List<Long> commentIds = items.stream()
+                .map(Item::getLastCommentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (commentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return commentRepository.findWithAuthorByIdIn(commentIds).stream()
+                .collect(Collectors.toMap(c -> c.getItem().getId(), CommentMapper::toCommentDto));
+    }
+
+    /**
+     * The requestor the item was offered to, who follows its changes besides the owner.
+     */
+    private static Long requestorId(Item item) {
+        return item.getRequest() != null ? item.getRequest().getRequestor().getId() : null;
+    }
+
     private void addLastAndNextBookings(ItemOwnerDto itemOwnerDto, List<Booking> bookings) {
             itemOwnerDto.setLastBooking(bookings.stream()
                     .filter(s -> s.getStart().isBefore(LocalDateTime.now()))
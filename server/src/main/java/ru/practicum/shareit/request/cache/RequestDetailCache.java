@@ -0,0 +1,180 @@
+package ru.practicum.shareit.request.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Recently viewed requests with the items offered for them.
+ * <p>
+ * A request is read from the database once; after that an offered item that is saved or changed is put into the
+ * cached offer list in place, so a popular request keeps being served from memory while it receives offers. Changes
+ * that are not tracked one by one, such as a new comment on an offered item or a purged user, drop the entry or the
+ * whole cache instead.
+ */
+@Component
+public class RequestDetailCache {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final BoundedCache<Long, CachedRequest> requests;
+    private long generation;
+
+    @Autowired
+    public RequestDetailCache(ItemRequestRepository itemRequestRepository,
+                              ItemRepository itemRepository,
+                              @Value("${shareit.request.detail.cache-size:10000}") int size) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.requests = new BoundedCache<>(size);
+    }
+
+    /**
+     * Returns the request with its offered items in the order they were offered, or an empty result if there is no
+     * such request.
+     */
+    public Optional<ItemRequestDto> get(Long requestId) {
+        CachedRequest cached = requests.get(requestId);
+        if (cached != null) {
+            return Optional.of(cached.toDto());
+        }
+        long loadGeneration = currentGeneration();
+        Optional<ItemRequest> request = itemRequestRepository.findById(requestId);
+        if (request.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ItemDto> offers = itemRepository.findAllByRequest_IdOrderById(requestId).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        CachedRequest loaded = new CachedRequest(request.get(), offers);
+        cacheIfCurrent(loadGeneration, requestId, loaded);
+        return Optional.of(loaded.toDto());
+    }
+
+    /**
+     * Adds the item to the offers of the cached request, or replaces its previous version, once the current
+     * transaction has committed.
+     */
+    public void putOfferAfterCommit(Long requestId, ItemDto offer) {
+        afterCommit(() -> {
+            synchronized (requests) {
+                generation++;
+                requests.computeIfPresent(requestId, (id, cached) -> cached.withOffer(offer));
+            }
+        });
+    }
+
+    /**
+     * Drops the request once the current transaction has committed.
+     */
+    public void evictAfterCommit(Long requestId) {
+        afterCommit(() -> {
+            synchronized (requests) {
+                generation++;
+                requests.remove(requestId);
+            }
+        });
+    }
+
+    /**
+     * Drops every request once the current transaction has committed.
+     */
+    public void clearAfterCommit() {
+        afterCommit(() -> {
+            synchronized (requests) {
+                generation++;
+                requests.clear();
+            }
+        });
+    }
+
+    private long currentGeneration() {
+        synchronized (requests) {
+            return generation;
+        }
+    }
+
+    /**
+     * A request read before a change may miss it, so it is cached only when nothing changed while it was being read.
+     */
+    private void cacheIfCurrent(long loadGeneration, Long requestId, CachedRequest loaded) {
+        synchronized (requests) {
+            if (loadGeneration == generation) {
+                requests.put(requestId, loaded);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static final class CachedRequest {
+
+        private final Long id;
+        private final String description;
+        private final LocalDateTime created;
+        private final List<ItemDto> offers;
+
+        private CachedRequest(ItemRequest request, List<ItemDto> offers) {
+            this(request.getId(), request.getDescription(), request.getCreated(), offers);
+        }
+
+        private CachedRequest(Long id, String description, LocalDateTime created, List<ItemDto> offers) {
+            this.id = id;
+            this.description = description;
+            this.created = created;
+            this.offers = Collections.unmodifiableList(offers);
+        }
+
+        private CachedRequest withOffer(ItemDto offer) {
+            List<ItemDto> changed = new ArrayList<>(offers.size() + 1);
+            boolean replaced = false;
+            for (ItemDto current : offers) {
+                if (current.getId().equals(offer.getId())) {
+                    changed.add(offer);
+                    replaced = true;
+                } else {
+                    changed.add(current);
+                }
+            }
+            if (!replaced) {
+                changed.add(offer);
+            }
+            return new CachedRequest(id, description, created, changed);
+        }
+
+        private ItemRequestDto toDto() {
+            return ItemRequestDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(offers)
+                    .build();
+        }
+
+    }
+
+}
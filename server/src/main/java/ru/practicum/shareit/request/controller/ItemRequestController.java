@@ -1,8 +1,14 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.feed.RequestFeedPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -12,26 +18,76 @@ import java.util.List;
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemRequestService itemRequestService;
 
+    /**
+     * Returns a page of the user's own requests, newest first, paged the same way as {@link #getRequests}.
+     */
     @GetMapping
-    public List<ItemRequestDto> getAllRequestsWithOffers(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getAllRequestsWithOffers(userId);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequestsWithOffers(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "from", required = false) Integer from,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false, defaultValue = "500") Integer size) {
+        if (from != null) {
+            return ResponseEntity.ok(itemRequestService.getAllRequestsWithOffers(userId, from, size));
+        }
+        return withNextCursor(itemRequestService.getOwnRequests(userId, cursor, size));
     }
 
-    @GetMapping("{requestId}")
-    public ItemRequestDto getRequestWithOffersById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @PathVariable("requestId") Long requestId) {
-        return itemRequestService.getRequestWithOffersById(userId, requestId);
+    /**
+     * Opens a stream of the items other users offer for the user's requests, so requestors need not poll them.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") Long userId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return itemRequestService.subscribe(userId, lastEventId);
     }
 
-    @GetMapping("/all")
-    public List<ItemRequestDto> getRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+    /**
+     * Returns the user's inbox of other users' requests that match the user's available items, newest first.
+     */
+    @GetMapping("/matches")
+    public List<RequestMatchDto> getMatches(@RequestHeader("X-Sharer-User-Id") Long userId,
                                             @RequestParam(name = "from", required = false, defaultValue = "0")
                                             Integer from,
                                             @RequestParam(name = "size", required = false, defaultValue = "500")
                                             Integer size) {
-        return itemRequestService.getRequests(userId, from, size);
+        return itemRequestService.getMatches(userId, from, size);
+    }
+
+    /**
+     * Returns the request with its offers and an entity tag, or 304 without a body when the tag in
+     * {@code If-None-Match} is still current.
+     */
+    @GetMapping("{requestId}")
+    public ItemRequestDto getRequestWithOffersById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PathVariable("requestId") Long requestId,
+                                                 WebRequest request) {
+        if (itemRequestService.getRequestTag(userId, requestId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
+        return itemRequestService.getRequestWithOffersById(userId, requestId);
+    }
+
+    /**
+     * Returns a page of other users' requests, newest first. With {@code from} the page is found by offset,
+     * otherwise it starts after the cursor and the cursor of the next page is returned in {@code X-Next-Cursor}.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @RequestParam(name = "from", required = false)
+                                                            Integer from,
+                                                            @RequestParam(name = "cursor", required = false)
+                                                            String cursor,
+                                                            @RequestParam(name = "size", required = false,
+                                                                    defaultValue = "500") Integer size) {
+        if (from != null) {
+            return ResponseEntity.ok(itemRequestService.getRequests(userId, from, size));
+        }
+        return withNextCursor(itemRequestService.getFeed(userId, cursor, size));
     }
 
     @PostMapping
@@ -40,4 +96,12 @@ public class ItemRequestController {
         return itemRequestService.saveRequest(userId, itemRequestDto);
     }
 
+    private static ResponseEntity<List<ItemRequestDto>> withNextCursor(RequestFeedPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RequestMatchDto {
+
+    Long id;
+    ItemRequestDto request;
+    ItemDto item;
+    int score;
+    LocalDateTime created;
+
+}
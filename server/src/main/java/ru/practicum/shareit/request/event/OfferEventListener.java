@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.sse.SseBroker;
+
+import java.util.List;
+
+/**
+ * Pushes committed offers, items posted in response to a request, to the requestor.
+ */
+@Component
+@RequiredArgsConstructor
+public class OfferEventListener {
+
+    public static final String TOPIC = "requests";
+    public static final String OFFER = "OFFER";
+
+    private final SseBroker sseBroker;
+
+    @TransactionalEventListener
+    public void onOfferEvent(OfferEvent event) {
+        sseBroker.publish(TOPIC, List.of(event.getRequestorId()), OFFER, event.getItem());
+    }
+
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.request.feed;
+
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Position of a request in the feed, newest first: by creation time, then by id for requests created at the same
+ * time. Clients get it as an opaque cursor.
+ */
+public final class FeedKey implements Comparable<FeedKey> {
+
+    private static final Comparator<FeedKey> NEWEST_FIRST = Comparator.comparing((FeedKey key) -> key.created)
+            .thenComparing(key -> key.id)
+            .reversed();
+
+    private final LocalDateTime created;
+    private final long id;
+
+    public FeedKey(LocalDateTime created, long id) {
+        this.created = created;
+        this.id = id;
+    }
+
+    public static FeedKey of(ItemRequestDto request) {
+        return new FeedKey(request.getCreated(), request.getId());
+    }
+
+    public static FeedKey fromCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('_');
+            return new FeedKey(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String toCursor() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(FeedKey other) {
+        return NEWEST_FIRST.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FeedKey)) {
+            return false;
+        }
+        FeedKey other = (FeedKey) o;
+        return id == other.id && created.equals(other.created);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(created, id);
+    }
+
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.request.feed;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The global request feed, newest first, with the newest {@code cache-size} requests of all users held once and
+ * shared by every reader.
+ * <p>
+ * A page skips the reader's own requests while it is read, and continues from the database when it runs past the
+ * cached window. New requests are added to the window and requests whose offered items change are reloaded, both
+ * after commit, so the window is never rebuilt because of a write. Readers never lock; writes and the initial load
+ * are serialized.
+ */
+@Component
+public class RequestFeed {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+    private volatile Window window;
+
+    @Autowired
+    public RequestFeed(ItemRequestRepository itemRequestRepository,
+                       ItemRepository itemRepository,
+                       @Value("${shareit.request.feed.cache-size:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns up to {@code size} requests of other users that come after the cursor, or the newest ones when
+     * {@code after} is {@code null}.
+     */
+    public RequestFeedPage getPage(long userId, @Nullable FeedKey after, int size) {
+        Window current = window();
+        List<ItemRequestDto> page = new ArrayList<>(size);
+        FeedKey scanned = after;
+        for (Entry entry : (after == null ? current.entries : current.entries.tailMap(after, false)).values()) {
+            if (page.size() == size) {
+                break;
+            }
+            scanned = FeedKey.of(entry.request);
+            if (entry.requestorId != userId) {
+                page.add(entry.request);
+            }
+        }
+        if (page.size() < size && !current.complete) {
+            page.addAll(load(userId, scanned, size - page.size()));
+        }
+        String nextCursor = page.size() == size ? FeedKey.of(page.get(page.size() - 1)).toCursor() : null;
+        return new RequestFeedPage(page, nextCursor);
+    }
+
+    /**
+     * Adds a new request to the window once the current transaction has committed.
+     */
+    public void addAfterCommit(ItemRequest request) {
+        Entry entry = new Entry(request.getRequestor().getId(), ItemRequestMapper.toItemRequestDto(request,
+                Collections.emptyList()));
+        afterCommit(() -> add(entry));
+    }
+
+    /**
+     * Reloads a request with its offered items once the current transaction has committed.
+     */
+    public void refreshAfterCommit(Long requestId) {
+        afterCommit(() -> refresh(requestId));
+    }
+
+    /**
+     * Drops the window once the current transaction has committed, for changes that are not worth tracking one by
+     * one. The next reader loads it again.
+     */
+    public void clearAfterCommit() {
+        afterCommit(this::clear);
+    }
+
+    private Window window() {
+        Window current = window;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (window == null) {
+                List<ItemRequest> newest = itemRequestRepository.findNewest(PageRequest.of(0, capacity));
+                Window loaded = new Window(newest.size() < capacity);
+                for (Entry entry : toEntries(newest)) {
+                    loaded.entries.put(FeedKey.of(entry.request), entry);
+                }
+                loaded.size = newest.size();
+                window = loaded;
+            }
+            return window;
+        }
+    }
+
+    private List<ItemRequestDto> load(long userId, @Nullable FeedKey after, int size) {
+        PageRequest page = PageRequest.of(0, size);
+        List<ItemRequest> requests = after == null
+                ? itemRequestRepository.findFeed(userId, page)
+                : itemRequestRepository.findFeedAfter(userId, after.getCreated(), after.getId(), page);
+        return ItemRequestMapper.toItemRequestDtos(requests, requests.isEmpty() ? Collections.emptyList()
+                : itemRepository.findByRequestIdIn(ids(requests)));
+    }
+
+    private synchronized void add(Entry entry) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+        FeedKey key = FeedKey.of(entry.request);
+        if (!current.complete && current.entries.lastKey().compareTo(key) < 0) {
+            return;
+        }
+        if (current.entries.put(key, entry) == null && ++current.size > capacity) {
+            current.complete = false;
+            current.entries.pollLastEntry();
+            current.size--;
+        }
+    }
+
+    private synchronized void refresh(Long requestId) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+        itemRequestRepository.findById(requestId).ifPresent(request -> {
+            FeedKey key = new FeedKey(request.getCreated(), request.getId());
+            if (current.entries.containsKey(key)) {
+                current.entries.put(key, toEntries(List.of(request)).get(0));
+            }
+        });
+    }
+
+    private synchronized void clear() {
+        window = null;
+    }
+
+    private List<Entry> toEntries(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ItemRequestDto> dtos = ItemRequestMapper.toItemRequestDtos(requests,
+                itemRepository.findByRequestIdIn(ids(requests)));
+        List<Entry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            entries.add(new Entry(requests.get(i).getRequestor().getId(), dtos.get(i)));
+        }
+        return entries;
+    }
+
+    private static List<Long> ids(List<ItemRequest> requests) {
+        List<Long> ids = new ArrayList<>(requests.size());
+        for (ItemRequest request : requests) {
+            ids.add(request.getId());
+        }
+        return ids;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * The cached newest requests; {@code complete} is set while they are all the requests there are.
+     */
+    private static final class Window {
+
+        private final ConcurrentSkipListMap<FeedKey, Entry> entries = new ConcurrentSkipListMap<>();
+        private volatile boolean complete;
+        private int size;
+
+        private Window(boolean complete) {
+            this.complete = complete;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final long requestorId;
+        private final ItemRequestDto request;
+
+        private Entry(long requestorId, ItemRequestDto request) {
+            this.requestorId = requestorId;
+            this.request = request;
+        }
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RequestFeedPage {
+
+    List<ItemRequestDto> requests;
+    /**
+     * Cursor of the next page, {@code null} when this page is the last one.
+     */
+    @Nullable
+    String nextCursor;
+
+}
@@ -3,10 +3,20 @@ package ru.practicum.shareit.request.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestMatch;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Component
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemRequestMapper {
@@ -26,4 +36,33 @@ public class ItemRequestMapper {
                 .build();
     }
 
-}
\ No newline at end of file
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> items) {
+        ItemRequestDto itemRequestDto = toItemRequestDto(itemRequest);
+        itemRequestDto.setItems(items);
+        return itemRequestDto;
+    }
+
+    /**
+     * Maps the requests in their order, each with the items among the given ones that were offered for it.
+     */
+    public static List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests, List<Item> items) {
+        Map<Long, List<ItemDto>> itemsByRequestId = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        return itemRequests.stream()
+                .map(itemRequest -> toItemRequestDto(itemRequest,
+                        itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    public static RequestMatchDto toRequestMatchDto(RequestMatch match) {
+        return RequestMatchDto.builder()
+                .id(match.getId())
+                .request(toItemRequestDto(match.getRequest()))
+                .item(ItemMapper.toItemDto(match.getItem()))
+                .score(match.getScore())
+                .created(match.getCreated())
+                .build();
+    }
+
+}
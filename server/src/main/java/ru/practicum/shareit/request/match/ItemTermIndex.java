@@ -0,0 +1,183 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from the terms of the name and description of every available item to the item ids, used to find
+ * the items a new request asks for without scanning the items table.
+ * <p>
+ * The index is read from the database on startup and changed only after an item write commits. Lookups never lock;
+ * changes are serialized, so an item is always indexed under exactly the terms of its last committed version.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemTermIndex {
+
+    static final int MIN_TERM_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "for", "with", "from", "that", "this",
+            "are", "was", "not", "but", "you", "your", "any", "can", "has", "have", "need", "want", "some", "please");
+    private static final String SELECT_AVAILABLE = "select id, owner_id, name, description from items " +
+            "where is_available = true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Set<Long>> itemIdsByTerm = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        jdbcTemplate.query(SELECT_AVAILABLE, rs -> {
+            put(rs.getLong("id"), rs.getLong("owner_id"),
+                    terms(rs.getString("name") + " " + rs.getString("description")));
+        });
+    }
+
+    /**
+     * Splits the text into lower case words of letters and digits, leaving out short words and common ones.
+     */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns up to {@code limit} available items of owners other than the given one that share at least one term,
+     * the items sharing the most terms first and newer items first among equals.
+     */
+    public List<Candidate> match(Set<String> terms, long excludedOwnerId, int limit) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (String term : terms) {
+            for (Long itemId : itemIdsByTerm.getOrDefault(term, Collections.emptySet())) {
+                scores.merge(itemId, 1, Integer::sum);
+            }
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        scores.forEach((itemId, score) -> {
+            IndexedItem item = items.get(itemId);
+            if (item != null && item.ownerId != excludedOwnerId) {
+                candidates.add(new Candidate(itemId, item.ownerId, score));
+            }
+        });
+        candidates.sort(Comparator.comparingInt(Candidate::getScore).reversed()
+                .thenComparing(Comparator.comparingLong(Candidate::getItemId).reversed()));
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    /**
+     * Indexes the item as it is now, or drops it if it is not available, once the current transaction has
+     * committed.
+     */
+    public void putAfterCommit(Item item) {
+        long itemId = item.getId();
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            afterCommit(() -> remove(itemId));
+            return;
+        }
+        long ownerId = item.getOwner().getId();
+        Set<String> terms = terms(item.getName() + " " + item.getDescription());
+        afterCommit(() -> put(itemId, ownerId, terms));
+    }
+
+    /**
+     * Drops a deleted item once the current transaction has committed.
+     */
+    public void removeAfterCommit(Long itemId) {
+        afterCommit(() -> remove(itemId));
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    private synchronized void put(long itemId, long ownerId, Set<String> terms) {
+        remove(itemId);
+        items.put(itemId, new IndexedItem(ownerId, terms));
+        for (String term : terms) {
+            itemIdsByTerm.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+    }
+
+    private synchronized void remove(long itemId) {
+        IndexedItem item = items.remove(itemId);
+        if (item == null) {
+            return;
+        }
+        for (String term : item.terms) {
+            itemIdsByTerm.computeIfPresent(term, (t, itemIds) -> {
+                itemIds.remove(itemId);
+                return itemIds.isEmpty() ? null : itemIds;
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * An item that shares {@code score} terms with a request.
+     */
+    public static final class Candidate {
+
+        private final long itemId;
+        private final long ownerId;
+        private final int score;
+
+        Candidate(long itemId, long ownerId, int score) {
+            this.itemId = itemId;
+            this.ownerId = ownerId;
+            this.score = score;
+        }
+
+        public long getItemId() {
+            return itemId;
+        }
+
+        public long getOwnerId() {
+            return ownerId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+    }
+
+    private static final class IndexedItem {
+
+        private final long ownerId;
+        private final Set<String> terms;
+
+        private IndexedItem(long ownerId, Set<String> terms) {
+            this.ownerId = ownerId;
+            this.terms = terms;
+        }
+
+    }
+
+}
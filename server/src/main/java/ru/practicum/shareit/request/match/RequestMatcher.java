@@ -0,0 +1,129 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the available items a new request asks for in the {@link ItemTermIndex} and records them as matches for
+ * their owners.
+ * <p>
+ * Matching runs after the request commits on a small pool with a bounded queue, so creating a request never waits
+ * for it. When the queue is full the request is not matched and the drop is counted, the same way the SSE broker
+ * sheds load; owners can still find such requests in the feed.
+ */
+@Slf4j
+@Component
+public class RequestMatcher {
+
+    private static final String INSERT_MATCH = "insert into request_matches " +
+            "(request_id, item_id, owner_id, score, created) values (:requestId, :itemId, :ownerId, :score, :created)";
+
+    private final ItemTermIndex itemTermIndex;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int maxMatches;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    public RequestMatcher(ItemTermIndex itemTermIndex,
+                          NamedParameterJdbcTemplate jdbcTemplate,
+                          @Value("${shareit.request.match.threads:2}") int threads,
+                          @Value("${shareit.request.match.queue-capacity:1000}") int queueCapacity,
+                          @Value("${shareit.request.match.max-matches:100}") int maxMatches) {
+        this.itemTermIndex = itemTermIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxMatches = maxMatches;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "request-matcher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    long total = dropped.incrementAndGet();
+                    log.warn("Request matching queue is full, dropped a request ({} dropped so far)", total);
+                });
+    }
+
+    /**
+     * Queues the request for matching once the current transaction has committed.
+     */
+    public void matchAfterCommit(ItemRequest request) {
+        long requestId = request.getId();
+        long requestorId = request.getRequestor().getId();
+        String description = request.getDescription();
+        Runnable submit = () -> executor.execute(() -> match(requestId, requestorId, description));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit.run();
+            }
+        });
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Records the items of other owners that share terms with the description, returns how many were recorded.
+     */
+    int match(long requestId, long requestorId, String description) {
+        Set<String> terms = ItemTermIndex.terms(description);
+        if (terms.isEmpty()) {
+            return 0;
+        }
+        List<ItemTermIndex.Candidate> candidates = itemTermIndex.match(terms, requestorId, maxMatches);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime created = LocalDateTime.now();
+        SqlParameterSource[] batch = candidates.stream()
+                .map(candidate -> new MapSqlParameterSource()
+                        .addValue("requestId", requestId)
+                        .addValue("itemId", candidate.getItemId())
+                        .addValue("ownerId", candidate.getOwnerId())
+                        .addValue("score", candidate.getScore())
+                        .addValue("created", created))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_MATCH, batch);
+        } catch (DataAccessException e) {
+            log.warn("Could not record matches of request {}", requestId, e);
+            return 0;
+        }
+        log.debug("Matched request {} with {} items", requestId, candidates.size());
+        return candidates.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+}
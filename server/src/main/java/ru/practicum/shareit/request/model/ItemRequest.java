@@ -2,11 +2,11 @@ package ru.practicum.shareit.request.model;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import org.hibernate.annotations.CreationTimestamp;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "requests")
@@ -31,7 +31,20 @@ public class ItemRequest {
     User requestor;
 
     @Column(name = "created")
-    @CreationTimestamp
     LocalDateTime created;
 
+    @Column(insertable = false, updatable = false)
+    Long version;
+
+    /**
+     * The creation time is kept to the microsecond the database stores, so a request cached right after it is saved
+     * sorts and pages exactly like the row read back.
+     */
+    @PrePersist
+    void onCreate() {
+        if (created == null) {
+            created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "request_matches")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RequestMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JoinColumn(name = "request_id", nullable = false)
+    ItemRequest request;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JoinColumn(name = "item_id", nullable = false)
+    Item item;
+
+    @Column(name = "owner_id", nullable = false)
+    Long ownerId;
+
+    @Column(nullable = false)
+    int score;
+
+    @Column(nullable = false)
+    LocalDateTime created;
+
+}
@@ -1,16 +1,47 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequestor_Id(long userId, Sort sort);
+    List<ItemRequest> findAllByRequestor_Id(long userId, Pageable page);
+
+    @Query("select r from ItemRequest r where r.requestor.id = ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequest> findOwnAfter(long userId, LocalDateTime created, long id, Pageable page);
 
     List<ItemRequest> findAllByRequestor_IdNot(long userId, Pageable page);
 
+    @Query("select r from ItemRequest r join fetch r.requestor order by r.created desc, r.id desc")
+    List<ItemRequest> findNewest(Pageable page);
+
+    @Query("select r from ItemRequest r join fetch r.requestor where r.id in ?1")
+    List<ItemRequest> findWithRequestorByIdIn(Collection<Long> ids);
+
+    @Query("select r from ItemRequest r join fetch r.requestor u where u.id <> ?1 order by r.created desc, r.id desc")
+    List<ItemRequest> findFeed(long userId, Pageable page);
+
+    @Query("select r from ItemRequest r join fetch r.requestor u where u.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequest> findFeedAfter(long userId, LocalDateTime created, long id, Pageable page);
+
+    @Query("select r.version from ItemRequest r where r.id = ?1")
+    Optional<Long> findVersionById(Long requestId);
+
+    /**
+     * Marks the views of the request as changed when one of its offers changes.
+     */
+    @Modifying
+    @Query("update ItemRequest r set r.version = r.version + 1 where r.id = ?1")
+    int incrementVersion(Long requestId);
+
 }
\ No newline at end of file
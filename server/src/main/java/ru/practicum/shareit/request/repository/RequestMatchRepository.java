@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.model.RequestMatch;
+
+import java.util.List;
+
+public interface RequestMatchRepository extends JpaRepository<RequestMatch, Long> {
+
+    @Query("select m from RequestMatch m join fetch m.request r join fetch r.requestor join fetch m.item " +
+            "where m.ownerId = ?1 order by m.created desc, m.id desc")
+    List<RequestMatch> findInbox(long ownerId, Pageable page);
+
+}
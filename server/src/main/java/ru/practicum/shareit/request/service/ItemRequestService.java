@@ -1,17 +1,34 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.feed.RequestFeedPage;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
-    List<ItemRequestDto> getAllRequestsWithOffers(long userId);
+    List<ItemRequestDto> getAllRequestsWithOffers(long userId, Integer from, Integer size);
+
+    RequestFeedPage getOwnRequests(long userId, String cursor, Integer size);
 
     ItemRequestDto getRequestWithOffersById(Long userId, Long requestId);
 
+    /**
+     * Returns the entity tag of the request with its offers, or nothing if the request does not exist.
+     */
+    Optional<String> getRequestTag(Long userId, Long requestId);
+
     List<ItemRequestDto> getRequests(Long userId, Integer from, Integer size);
 
+    RequestFeedPage getFeed(Long userId, String cursor, Integer size);
+
+    List<RequestMatchDto> getMatches(long userId, Integer from, Integer size);
+
+    SseEmitter subscribe(Long userId, String lastEventId);
+
     ItemRequestDto saveRequest(Long userId, ItemRequestDto itemRequestDto);
 
 }
\ No newline at end of file
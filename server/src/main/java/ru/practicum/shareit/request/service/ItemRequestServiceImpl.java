@@ -6,21 +6,30 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
-import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.event.OfferEventListener;
+import ru.practicum.shareit.request.feed.FeedKey;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.feed.RequestFeedPage;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
+import ru.practicum.shareit.sse.SseBroker;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,31 +37,58 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
 
+    private static final Sort NEWEST_FIRST = Sort.by("created").descending().and(Sort.by("id").descending());
+
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final RequestFeed requestFeed;
+    private final RequestMatchRepository requestMatchRepository;
+    private final RequestMatcher requestMatcher;
+    private final SseBroker sseBroker;
+    private final RequestDetailCache requestDetailCache;
+    private final ChangeLog changeLog;
 
     @Override
-    public List<ItemRequestDto> getAllRequestsWithOffers(long userId) {
+    public List<ItemRequestDto> getAllRequestsWithOffers(long userId, Integer from, Integer size) {
         userService.validateUserById(userId);
-        Sort sort = Sort.by("created").descending();
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(userId, sort);
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(userId,
+                PageRequest.of(from / size, size, NEWEST_FIRST));
         if (requests.isEmpty()) {
             return Collections.emptyList();
         }
         return addItemsInResponseToRequest(requests);
     }
 
+    @Override
+    public RequestFeedPage getOwnRequests(long userId, String cursor, Integer size) {
+        userService.validateUserById(userId);
+        List<ItemRequest> requests;
+        if (cursor == null) {
+            requests = itemRequestRepository.findAllByRequestor_Id(userId, PageRequest.of(0, size, NEWEST_FIRST));
+        } else {
+            FeedKey after = FeedKey.fromCursor(cursor);
+            requests = itemRequestRepository.findOwnAfter(userId, after.getCreated(), after.getId(),
+                    PageRequest.of(0, size));
+        }
+        List<ItemRequestDto> requestDtos = requests.isEmpty() ? Collections.emptyList()
+                : addItemsInResponseToRequest(requests);
+        String nextCursor = requestDtos.size() == size
+                ? FeedKey.of(requestDtos.get(requestDtos.size() - 1)).toCursor() : null;
+        return new RequestFeedPage(requestDtos, nextCursor);
+    }
+
     @Override
     public ItemRequestDto getRequestWithOffersById(Long userId, Long requestId) {
         userService.validateUserById(userId);
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+        return requestDetailCache.get(requestId).orElseThrow(() ->
                 new ObjectNotFoundException(String.format("Request not found: id=%d", requestId)));
-        List<Item> items = itemRepository.findAllByRequest_IdOrderByRequestDesc(requestId);
-        List<ItemDto> itemDtos = items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
-        ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
-        itemRequestDto.setItems(itemDtos);
-        return itemRequestDto;
+    }
+
+    @Override
+    public Optional<String> getRequestTag(Long userId, Long requestId) {
+        userService.validateUserById(userId);
+        return itemRequestRepository.findVersionById(requestId).map(String::valueOf);
     }
 
     @Override
@@ -65,26 +101,39 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return addItemsInResponseToRequest(requests);
     }
 
+    @Override
+    public RequestFeedPage getFeed(Long userId, String cursor, Integer size) {
+        return requestFeed.getPage(userId, cursor != null ? FeedKey.fromCursor(cursor) : null, size);
+    }
+
+    @Override
+    public List<RequestMatchDto> getMatches(long userId, Integer from, Integer size) {
+        userService.validateUserById(userId);
+        return requestMatchRepository.findInbox(userId, PageRequest.of(from / size, size)).stream()
+                .map(ItemRequestMapper::toRequestMatchDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        userService.validateUserById(userId);
+        return sseBroker.subscribe(OfferEventListener.TOPIC, userId, lastEventId);
+    }
+
     @Transactional
     @Override
     public ItemRequestDto saveRequest(Long userId, ItemRequestDto itemRequestDto) {
         User user = userService.getById(userId);
-        return ItemRequestMapper.toItemRequestDto(itemRequestRepository
-                .save(ItemRequestMapper.toItemRequest(user, itemRequestDto)));
+        ItemRequest saved = itemRequestRepository.save(ItemRequestMapper.toItemRequest(user, itemRequestDto));
+        changeLog.record(EntityType.REQUEST, saved.getId(), userId, null);
+        requestFeed.addAfterCommit(saved);
+        requestMatcher.matchAfterCommit(saved);
+        return ItemRequestMapper.toItemRequestDto(saved);
     }
 
     private List<ItemRequestDto> addItemsInResponseToRequest(List<ItemRequest> requests) {
         List<Long> requestsIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
-        List<Item> items = itemRepository.findByRequestIdIn(requestsIds);
-        List<ItemRequestDto> requestDtos = requests.stream()
-                .map(ItemRequestMapper::toItemRequestDto).collect(Collectors.toList());
-        List<ItemDto> itemDtos = items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
-        for (ItemRequestDto itemRequestDto : requestDtos) {
-            itemRequestDto.setItems(itemDtos.stream()
-                    .filter(i -> Objects.equals(i.getRequestId(), itemRequestDto.getId()))
-                    .collect(Collectors.toList()));
-        }
-        return requestDtos;
+        return ItemRequestMapper.toItemRequestDtos(requests, itemRepository.findByRequestIdIn(requestsIds));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package ru.practicum.shareit.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process bus delivering server-sent events to subscribed users.
+ * <p>
+ * Publishers only put messages into a bounded queue and never wait: when the queue is full the message is dropped
+ * and counted, so slow clients cannot hold up the write paths that produce the events. A single dispatcher thread
+ * takes messages from the queue and sends them to the emitters of the recipients in the message topic.
+ * <p>
+ * Every send is handed to one of {@code sender-threads} sender threads and given at most {@code send-timeout-ms}: an
+ * emitter whose send is still blocked after that, or failed, is dropped and completed with the error, so the client
+ * sees its connection closed and reconnects. One slow client delays a message by the timeout once rather than every
+ * message for everyone. A comment frame is sent to all emitters every {@code heartbeat-ms}, so connections of clients
+ * that went away are noticed and released long before the emitter timeout.
+ * <p>
+ * Events carry increasing ids. There is no replay, so a client that may have missed events gets a {@value #RESYNC}
+ * event and should load its state again: before its next event or heartbeat when an event for it was dropped, and
+ * on subscribing when the {@code Last-Event-ID} it reconnects with is older than the last event of the topic. The
+ * latter is per topic rather than per user, so a client may be asked to resync when it missed nothing.
+ */
+@Slf4j
+@Component
+public class SseBroker {
+
+    public static final String RESYNC = "RESYNC";
+
+    private static final Message HEARTBEAT = new Message(0, null, Set.of(), null, null);
+    private static final Supplier<SseEventBuilder> HEARTBEAT_EVENT = () -> SseEmitter.event().comment("");
+
+    private final BlockingQueue<Message> queue;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+    private final ThreadPoolExecutor sender;
+    private final Map<Subscriber, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Set<Subscriber> missed = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastIds = new ConcurrentHashMap<>();
+    /**
+     * Ids start at the start time in microseconds, so they keep growing across restarts and a client reconnecting
+     * with an id of the previous run is asked to resync.
+     */
+    private final long firstId = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final AtomicLong sequence = new AtomicLong(firstId);
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread dispatcher;
+
+    @Autowired
+    public SseBroker(@Value("${shareit.sse.queue-capacity:10000}") int queueCapacity,
+                     @Value("${shareit.sse.timeout-ms:1800000}") long timeoutMs,
+                     @Value("${shareit.sse.send-timeout-ms:5000}") long sendTimeoutMs,
+                     @Value("${shareit.sse.sender-threads:32}") int senderThreads) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // the dispatcher waits for the sends of a message before the next one, so at most one task per emitter queues
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Opens a stream of the user's events in the topic. A client reconnecting with the id of the last event it got
+     * is sent a {@value #RESYNC} event first when it may have missed events in between.
+     */
+    public SseEmitter subscribe(String topic, Long userId, @Nullable String lastEventId) {
+        Subscriber subscriber = new Subscriber(topic, userId);
+        SseEmitter emitter = createEmitter();
+        if (lastEventId != null && isBehind(topic, lastEventId)) {
+            try {
+                emitter.send(resyncEvent());
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+        }
+        emitters.compute(subscriber, (s, set) -> {
+            Set<SseEmitter> userEmitters = set != null ? set : new CopyOnWriteArraySet<>();
+            userEmitters.add(emitter);
+            return userEmitters;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber, emitter));
+        emitter.onTimeout(() -> unsubscribe(subscriber, emitter));
+        emitter.onError(e -> unsubscribe(subscriber, emitter));
+        return emitter;
+    }
+
+    /**
+     * Queues the event for the recipients, returns {@code false} if the queue is full and the event was dropped. The
+     * connected recipients of a dropped event are sent a {@value #RESYNC} event once the queue has room again.
+     */
+    public boolean publish(String topic, Collection<Long> userIds, String name, Object data) {
+        long id = sequence.incrementAndGet();
+        lastIds.merge(topic, id, Math::max);
+        if (queue.offer(new Message(id, topic, Set.copyOf(userIds), name, data))) {
+            return true;
+        }
+        long total = dropped.incrementAndGet();
+        userIds.stream()
+                .map(userId -> new Subscriber(topic, userId))
+                .filter(emitters::containsKey)
+                .forEach(missed::add);
+        log.warn("SSE queue is full, dropped event {} for topic {} ({} dropped so far)", name, topic, total);
+        return false;
+    }
+
+    /**
+     * Queues a comment frame for every emitter. Skipped when the queue is full, the queued events keep the
+     * connections busy then.
+     */
+    @Scheduled(fixedDelayString = "${shareit.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            queue.offer(HEARTBEAT);
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    public int getSubscriberCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = new Thread(this::dispatch, "sse-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        sender.shutdownNow();
+        emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Message message;
+            try {
+                message = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Map<SseEmitter, Subscriber> targets = new HashMap<>();
+            if (message == HEARTBEAT) {
+                emitters.forEach((subscriber, userEmitters) -> userEmitters.forEach(e -> targets.put(e, subscriber)));
+                send(targets, HEARTBEAT_EVENT);
+                continue;
+            }
+            for (Long userId : message.userIds) {
+                Subscriber subscriber = new Subscriber(message.topic, userId);
+                emitters.getOrDefault(subscriber, Set.of()).forEach(e -> targets.put(e, subscriber));
+            }
+            send(targets, () -> SseEmitter.event()
+                    .id(String.valueOf(message.id))
+                    .name(message.name)
+                    .data(message.data));
+        }
+    }
+
+    /**
+     * Sends the event to the emitters on the sender threads and waits for all of them at most {@code sendTimeoutMs},
+     * subscribers that missed an event are sent a {@value #RESYNC} event before it. Emitters that failed or are still
+     * sending are unsubscribed and completed with the error. A blocked send keeps its sender thread until the
+     * container gives up on the write, so the completion of its emitter is left to a sender thread as well.
+     */
+    private void send(Map<SseEmitter, Subscriber> targets, Supplier<SseEventBuilder> event) {
+        Set<Subscriber> resync = new HashSet<>();
+        targets.values().stream()
+                .filter(missed::remove)
+                .forEach(resync::add);
+        Map<SseEmitter, Future<?>> sends = new HashMap<>();
+        try {
+            targets.forEach((emitter, subscriber) -> sends.put(emitter, sender.submit(() -> {
+                if (resync.contains(subscriber)) {
+                    emitter.send(resyncEvent());
+                }
+                emitter.send(event.get());
+                return null;
+            })));
+        } catch (RejectedExecutionException e) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        sends.forEach((emitter, future) -> {
+            Subscriber subscriber = targets.get(emitter);
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("SSE client of user {} did not take an event in {} ms, dropping it",
+                        subscriber.userId, sendTimeoutMs);
+                future.cancel(true);
+                unsubscribe(subscriber, emitter);
+                try {
+                    sender.execute(() -> emitter.completeWithError(e));
+                } catch (RejectedExecutionException rejected) {
+                    log.debug("SSE sender is stopped, leaving the emitter of user {} to time out", subscriber.userId);
+                }
+            } catch (ExecutionException e) {
+                log.debug("SSE client of user {} is gone: {}", subscriber.userId, e.getCause().getMessage());
+                unsubscribe(subscriber, emitter);
+                emitter.completeWithError(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void unsubscribe(Subscriber subscriber, SseEmitter emitter) {
+        emitters.computeIfPresent(subscriber, (s, set) -> {
+            set.remove(emitter);
+            if (set.isEmpty()) {
+                missed.remove(s);
+                return null;
+            }
+            return set;
+        });
+    }
+
+    private boolean isBehind(String topic, String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim()) < lastIds.getOrDefault(topic, firstId);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static SseEventBuilder resyncEvent() {
+        return SseEmitter.event().name(RESYNC).data(RESYNC);
+    }
+
+    /**
+     * Creates the emitter of a new subscription.
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private static final class Message {
+
+        private final long id;
+        private final String topic;
+        private final Set<Long> userIds;
+        private final String name;
+        private final Object data;
+
+        private Message(long id, String topic, Set<Long> userIds, String name, Object data) {
+            this.id = id;
+            this.topic = topic;
+            this.userIds = userIds;
+            this.name = name;
+            this.data = data;
+        }
+
+    }
+
+    private static final class Subscriber {
+
+        private final String topic;
+        private final Long userId;
+
+        private Subscriber(String topic, Long userId) {
+            this.topic = topic;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Subscriber)) {
+                return false;
+            }
+            Subscriber that = (Subscriber) o;
+            return topic.equals(that.topic) && userId.equals(that.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * topic.hashCode() + userId.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email of every user mapped to the user's id, so registrations and email changes can be checked for conflicts
+ * without a query or a failed insert.
+ * <p>
+ * The index is read from the database on startup and changed only after a user write commits. A conflict it does
+ * not know about yet, such as a concurrent write of the same email, is still rejected by the unique constraint,
+ * which stays the final arbiter.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailIndex {
+
+    private static final String SELECT_EMAILS = "select id, email from users";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> owners = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        jdbcTemplate.query(SELECT_EMAILS, rs -> {
+            owners.put(rs.getString("email"), rs.getLong("id"));
+        });
+    }
+
+    /**
+     * Tells whether the email belongs to a user other than the given one, {@code null} for a user not saved yet.
+     */
+    public boolean isTaken(String email, @Nullable Long userId) {
+        Long owner = owners.get(email);
+        return owner != null && !owner.equals(userId);
+    }
+
+    /**
+     * Moves the user from the old email, {@code null} for a new user, to the new one once the current transaction
+     * has committed.
+     */
+    public void putAfterCommit(Long userId, @Nullable String oldEmail, String newEmail) {
+        afterCommit(() -> {
+            if (oldEmail != null && !Objects.equals(oldEmail, newEmail)) {
+                owners.remove(oldEmail, userId);
+            }
+            owners.put(newEmail, userId);
+        });
+    }
+
+    /**
+     * Frees the email of a deleted user once the current transaction has committed.
+     */
+    public void removeAfterCommit(Long userId, String email) {
+        afterCommit(() -> owners.remove(email, userId));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,221 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.BoundedCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Id, name and email of recently used users, plus ids that were looked up and not found.
+ * <p>
+ * A hit returns a new detached {@link User}, so changing it never affects the cache; it can be used as a reference
+ * in new entities but must not be saved. Entries are evicted after a user is created, updated or deleted. Hits,
+ * misses, sizes and an estimate of the heap taken by the entries are published as metrics.
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    /**
+     * Approximate heap taken by a cached user apart from its characters: map entry, boxed key, the record and
+     * two strings with their arrays.
+     */
+    static final long USER_ENTRY_BYTES = 160;
+    /**
+     * Approximate heap taken by a negative entry: map entry and boxed key, the value is a shared constant.
+     */
+    static final long MISSING_ENTRY_BYTES = 56;
+
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, CachedUser> users;
+    private final BoundedCache<Long, Boolean> missing;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder missingHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation;
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     @Value("${shareit.user.cache.size:100000}") int size,
+                     @Value("${shareit.user.cache.missing-size:10000}") int missingSize) {
+        this.userRepository = userRepository;
+        this.users = new BoundedCache<>(size);
+        this.missing = new BoundedCache<>(missingSize);
+    }
+
+    public Optional<User> get(Long userId) {
+        CachedUser cached = users.get(userId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached.toUser());
+        }
+        if (missing.get(userId) != null) {
+            missingHits.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        return load(userId);
+    }
+
+    /**
+     * Returns the users that exist among the ids, the ones that are not cached are read with one query.
+     */
+    public Map<Long, User> getAll(Collection<Long> userIds) {
+        Map<Long, User> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long userId : userIds) {
+            CachedUser cached = users.get(userId);
+            if (cached != null) {
+                hits.increment();
+                found.put(userId, cached.toUser());
+            } else if (missing.get(userId) != null) {
+                missingHits.increment();
+            } else {
+                misses.increment();
+                uncached.add(userId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            found.putAll(loadAll(uncached));
+        }
+        return found;
+    }
+
+    public boolean exists(Long userId) {
+        return get(userId).isPresent();
+    }
+
+    /**
+     * Drops the user, found or not, once the current transaction has committed.
+     */
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(userId);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("shareit.user.cache.gets", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("User lookups by where they were answered")
+                .register(registry);
+        FunctionCounter.builder("shareit.user.cache.gets", missingHits, LongAdder::sum)
+                .tag("result", "missing-hit")
+                .description("User lookups by where they were answered")
+                .register(registry);
+        FunctionCounter.builder("shareit.user.cache.gets", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("User lookups by where they were answered")
+                .register(registry);
+        Gauge.builder("shareit.user.cache.size", users, BoundedCache::size)
+                .tag("tier", "users")
+                .register(registry);
+        Gauge.builder("shareit.user.cache.size", missing, BoundedCache::size)
+                .tag("tier", "missing")
+                .register(registry);
+        Gauge.builder("shareit.user.cache.memory", this, UserCache::estimateBytes)
+                .baseUnit("bytes")
+                .description("Estimated heap taken by cached entries")
+                .register(registry);
+    }
+
+    long estimateBytes() {
+        return users.sum(user -> USER_ENTRY_BYTES + user.name.length() + user.email.length())
+                + missing.size() * MISSING_ENTRY_BYTES;
+    }
+
+    /**
+     * A row read before an eviction may be outdated, so it is cached only when no eviction happened while it was
+     * being read.
+     */
+    private Optional<User> load(Long userId) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        Optional<User> user = userRepository.findByIdAndDeletedAtIsNull(userId);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                if (user.isPresent()) {
+                    users.put(userId, new CachedUser(user.get()));
+                } else {
+                    missing.put(userId, Boolean.TRUE);
+                }
+            }
+        }
+        return user;
+    }
+
+    private Map<Long, User> loadAll(List<Long> userIds) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        Map<Long, User> loaded = userRepository.findByIdInAndDeletedAtIsNull(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                for (Long userId : userIds) {
+                    User user = loaded.get(userId);
+                    if (user != null) {
+                        users.put(userId, new CachedUser(user));
+                    } else {
+                        missing.put(userId, Boolean.TRUE);
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private void evict(Long userId) {
+        synchronized (this) {
+            generation++;
+            users.remove(userId);
+            missing.remove(userId);
+        }
+    }
+
+    private static final class CachedUser {
+
+        private final Long id;
+        private final String name;
+        private final String email;
+
+        private CachedUser(User user) {
+            this.id = user.getId();
+            this.name = user.getName();
+            this.email = user.getEmail();
+        }
+
+        private User toUser() {
+            return User.builder()
+                    .id(id)
+                    .name(name)
+                    .email(email)
+                    .build();
+        }
+
+    }
+
+}
@@ -1,10 +1,20 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.importer.UserImportReport;
+import ru.practicum.shareit.user.importer.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -13,10 +23,45 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImporter userImporter;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAllUsers();
+    public List<UserDto> getUsers(@RequestParam(name = "after", defaultValue = "0") Long after,
+                                  @RequestParam(name = "size", defaultValue = "1000") Integer size) {
+        return userService.getUsers(after, size);
+    }
+
+    /**
+     * Returns the users with the given ids in the order of the first occurrence of each id, unknown ids are skipped.
+     */
+    @GetMapping(params = "ids")
+    public List<UserDto> getUsersByIds(@RequestParam(name = "ids") List<Long> userIds) {
+        return userService.getUsersByIds(userIds);
+    }
+
+    /**
+     * Writes every user as one JSON line, users are read from a scrolling cursor while the response is written.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                userService.forEachUser(user -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(user));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("{id}")
@@ -29,6 +74,15 @@ public class UserController {
         return userService.saveUser(userDto);
     }
 
+    /**
+     * Imports users from an NDJSON or CSV body that is read while rows are inserted, see {@link UserImporter}.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, UserImporter.TEXT_CSV_VALUE})
+    public UserImportReport importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) throws IOException {
+        return userImporter.importUsers(body, contentType);
+    }
+
     @PatchMapping("{id}")
     public UserDto updateUser(@PathVariable("id") Long userId, @RequestBody UserDto userDto) {
         return userService.updateUser(userId, userDto);
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.importer;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserImportError {
+
+    long line;
+    String email;
+    String error;
+
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.user.importer;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an import: how many rows were imported and rejected, and why the first rejected rows were.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserImportReport {
+
+    long imported;
+    long rejected;
+    final List<UserImportError> errors = new ArrayList<>();
+
+    void addImported(int count) {
+        imported += count;
+    }
+
+    void reject(long line, String email, String error, int maxErrors) {
+        rejected++;
+        if (errors.size() < maxErrors) {
+            errors.add(UserImportError.builder()
+                    .line(line)
+                    .email(email)
+                    .error(error)
+                    .build());
+        }
+    }
+
+}
@@ -0,0 +1,303 @@
+package ru.practicum.shareit.user.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from an NDJSON or CSV stream.
+ * <p>
+ * Rows are read one at a time and checked with the same rules the gateway applies to a single registration, and
+ * against the {@link EmailIndex} and the rest of the chunk for email conflicts. Valid rows are inserted with JDBC
+ * batches of {@code chunk-size} rows, each chunk in its own transaction, so memory use does not depend on the size
+ * of the input and a failure keeps the chunks already imported. A chunk that still hits the unique constraint, for
+ * example because of a concurrent registration, is retried row by row. Lines longer than {@code max-line-length}
+ * characters are skipped without being buffered and reported as rejected rows.
+ */
+@Slf4j
+@Component
+public class UserImporter {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_EMAIL_LENGTH = 400;
+    private static final Pattern NAME = Pattern.compile("[A-Za-z]+(?:(?:, |-)[A-Za-z]+)*");
+    private static final Pattern EMAIL = Pattern.compile("^[a-zA-Z0-9_.+-]+@[a-zA-Z0-9-]+\\.[a-zA-Z0-9-.]+$");
+    private static final String INSERT_USER = "insert into users (name, email) values (:name, :email)";
+    private static final String SELECT_IDS = "select id, email from users where email in (:emails)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingCounters bookingCounters;
+    private final EmailIndex emailIndex;
+    private final UserCache userCache;
+    private final ChangeLog changeLog;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxLineLength;
+
+    @Autowired
+    public UserImporter(NamedParameterJdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        BookingCounters bookingCounters,
+                        EmailIndex emailIndex,
+                        UserCache userCache,
+                        ChangeLog changeLog,
+                        ObjectMapper objectMapper,
+                        @Value("${shareit.user.import.chunk-size:500}") int chunkSize,
+                        @Value("${shareit.user.import.max-errors:1000}") int maxErrors,
+                        @Value("${shareit.user.import.max-line-length:4096}") int maxLineLength) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingCounters = bookingCounters;
+        this.emailIndex = emailIndex;
+        this.userCache = userCache;
+        this.changeLog = changeLog;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Imports the rows of the stream, either JSON objects with {@code name} and {@code email}, one per line, or CSV
+     * with {@code name,email} columns and an optional header. Blank lines are skipped.
+     */
+    public UserImportReport importUsers(InputStream body, MediaType contentType) throws IOException {
+        boolean csv = MediaType.parseMediaType(TEXT_CSV_VALUE).includes(contentType);
+        if (!csv && !MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            throw new ValidationException("Unsupported import format: " + contentType);
+        }
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        UserImportReport report = new UserImportReport();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Set<String> chunkEmails = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset))) {
+            StringBuilder buffer = new StringBuilder();
+            long length;
+            long line = 0;
+            while ((length = readLine(reader, buffer, maxLineLength)) >= 0) {
+                line++;
+                if (length > maxLineLength) {
+                    report.reject(line, null, "Line is longer than " + maxLineLength + " characters", maxErrors);
+                    continue;
+                }
+                String text = buffer.toString();
+                if (text.isBlank() || (csv && line == 1 && isHeader(text))) {
+                    continue;
+                }
+                Row row;
+                try {
+                    row = csv ? parseCsv(line, text) : parseJson(line, text);
+                } catch (ValidationException e) {
+                    report.reject(line, null, e.getMessage(), maxErrors);
+                    continue;
+                }
+                String error = validate(row);
+                if (error == null && (emailIndex.isTaken(row.email, null) || !chunkEmails.add(row.email))) {
+                    error = "User with email " + row.email + " is already registered.";
+                }
+                if (error != null) {
+                    report.reject(line, row.email, error, maxErrors);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    insert(chunk, report);
+                    chunk.clear();
+                    chunkEmails.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insert(chunk, report);
+        }
+        log.info("Imported {} users, rejected {}", report.getImported(), report.getRejected());
+        return report;
+    }
+
+    private void insert(List<Row> chunk, UserImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertRows(chunk));
+            report.addImported(chunk.size());
+        } catch (DataIntegrityViolationException e) {
+            for (Row row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertRows(List.of(row)));
+                    report.addImported(1);
+                } catch (DataIntegrityViolationException rowException) {
+                    report.reject(row.line, row.email, "User with email " + row.email + " is already registered.",
+                            maxErrors);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the users and everything created together with a user, ids are read back by email because a batch
+     * does not return generated keys.
+     */
+    private void insertRows(List<Row> rows) {
+        SqlParameterSource[] batch = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("name", row.name)
+                        .addValue("email", row.email))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_USER, batch);
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(SELECT_IDS,
+                Map.of("emails", rows.stream().map(row -> row.email).collect(Collectors.toList())),
+                rs -> {
+                    ids.put(rs.getString("email"), rs.getLong("id"));
+                });
+        bookingCounters.createFor(ids.values());
+        changeLog.record(EntityType.USER, ids.values());
+        ids.forEach((email, id) -> {
+            userCache.evictAfterCommit(id);
+            emailIndex.putAfterCommit(id, null, email);
+        });
+    }
+
+    /**
+     * Reads the next line into the buffer without its terminator, which is {@code \n}, {@code \r} or {@code \r\n}
+     * as for {@link BufferedReader#readLine()}. Characters past the limit are read and dropped, so the buffer never
+     * holds more than {@code limit} characters.
+     *
+     * @return the length of the whole line, or {@code -1} at the end of the stream
+     */
+    private static long readLine(BufferedReader reader, StringBuilder buffer, int limit) throws IOException {
+        buffer.setLength(0);
+        long length = 0;
+        int c = reader.read();
+        if (c < 0) {
+            return -1;
+        }
+        while (c >= 0 && c != '\n' && c != '\r') {
+            if (length++ < limit) {
+                buffer.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (c == '\r') {
+            reader.mark(1);
+            if (reader.read() != '\n') {
+                reader.reset();
+            }
+        }
+        return length;
+    }
+
+    private Row parseJson(long line, String text) {
+        try {
+            UserDto userDto = objectMapper.readValue(text, UserDto.class);
+            return new Row(line, userDto.getName(), userDto.getEmail());
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON");
+        }
+    }
+
+    private static Row parseCsv(long line, String text) {
+        List<String> fields = splitCsv(text);
+        if (fields.size() != 2) {
+            throw new ValidationException("Expected 2 columns, found " + fields.size());
+        }
+        return new Row(line, fields.get(0).trim(), fields.get(1).trim());
+    }
+
+    /**
+     * Splits a CSV line, fields may be quoted and a quote inside a quoted field is doubled.
+     */
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isHeader(String text) {
+        return text.replace(" ", "").equalsIgnoreCase("name,email");
+    }
+
+    private static String validate(Row row) {
+        if (row.name == null || row.name.isBlank()) {
+            return "name: must not be blank";
+        }
+        if (row.name.length() > MAX_NAME_LENGTH || !NAME.matcher(row.name).matches()) {
+            return "name: must match \"" + NAME.pattern() + "\"";
+        }
+        if (row.email == null || row.email.isBlank()) {
+            return "email: must not be blank";
+        }
+        if (row.email.length() > MAX_EMAIL_LENGTH || !EMAIL.matcher(row.email).matches()) {
+            return "email: must be a well-formed email address";
+        }
+        return null;
+    }
+
+    private static final class Row {
+
+        private final long line;
+        private final String name;
+        private final String email;
+
+        private Row(long line, String name, String email) {
+            this.line = line;
+            this.name = name;
+            this.email = email;
+        }
+
+    }
+
+}
@@ -4,6 +4,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
@@ -25,4 +26,12 @@ public class User {
     @Column(nullable = false)
     String email;
 
+    /**
+     * Set when the user is deleted, the row and everything depending on it are then removed in the background by
+     * {@link ru.practicum.shareit.user.purge.UserPurger}. User lookups skip deleted users, while associations of
+     * other rows still resolve them until the purge.
+     */
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    LocalDateTime deletedAt;
+
 }
\ No newline at end of file
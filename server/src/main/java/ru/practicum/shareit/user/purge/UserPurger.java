@@ -0,0 +1,300 @@
+package ru.practicum.shareit.user.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.ChangedEntity;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.cache.CommentCache;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.ItemTermIndex;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Removes users marked as deleted together with everything that depends on them.
+ * <p>
+ * Dependent rows are removed in foreign key order: the user's comments, comments on the user's items, bookings
+ * made by the user and bookings of the user's items, links from other users' items to the user's requests, matches
+ * of the user's items and requests, the user's items and requests, and finally the user. Every step deletes at
+ * most {@code batch-size} rows per transaction, so no lock is held for long. Counters, caches and versions of
+ * other users' items and requests are updated and removed or changed rows are recorded in the change log with each
+ * batch, and the request caches are reloaded once the user is gone. A user that cannot be removed yet, for example
+ * because a row was added meanwhile, is retried on the next run from the first step.
+ */
+@Slf4j
+@Component
+public class UserPurger {
+
+    private static final List<String> BOOKING_TABLES = List.of("bookings", "bookings_archive");
+    private static final String SELECT_DELETED = "select id from users where deleted_at is not null " +
+            "order by deleted_at limit :limit";
+    private static final String SELECT_OWN_COMMENTS = "select c.id, c.item_id, i.owner_id, r.requestor_id " +
+            "from comments c join items i on i.id = c.item_id left join requests r on r.id = i.request_id " +
+            "where c.author_id = :userId limit :limit";
+    private static final String SELECT_COMMENTS_ON_OWN_ITEMS = "select c.id, c.author_id as other_id from comments c " +
+            "join items i on i.id = c.item_id where i.owner_id = :userId limit :limit";
+    private static final String DELETE_COMMENTS = "delete from comments where id in (:ids)";
+    private static final String DECREMENT_COMMENT_COUNT = "update items set comment_count = comment_count - :count, " +
+            "version = version + 1 where id = :itemId";
+    private static final String RESET_LAST_COMMENT = "update items set last_comment_id = " +
+            "(select max(c.id) from comments c where c.item_id = items.id) " +
+            "where id in (:itemIds) and last_comment_id in (:ids)";
+    private static final String SELECT_BOOKINGS_AS_BOOKER = "select b.id, b.item_id, b.status, " +
+            "i.owner_id as other_id from %s b join items i on i.id = b.item_id where b.booker_id = :userId " +
+            "limit :limit";
+    private static final String SELECT_BOOKINGS_OF_OWN_ITEMS = "select b.id, b.item_id, b.status, " +
+            "b.booker_id as other_id from %s b join items i on i.id = b.item_id where i.owner_id = :userId " +
+            "limit :limit";
+    private static final String DELETE_BOOKINGS = "delete from %s where id in (:ids)";
+    private static final String INCREMENT_ITEM_VERSIONS = "update items set version = version + 1 where id in (:ids)";
+    private static final String INCREMENT_REQUEST_VERSIONS = "update requests set version = version + 1 " +
+            "where id in (select request_id from items where id in (:ids))";
+    private static final String SELECT_LINKED_ITEMS = "select i.id, i.owner_id as other_id from items i " +
+            "join requests r on r.id = i.request_id where r.requestor_id = :userId limit :limit";
+    private static final String UNLINK_ITEMS = "update items set request_id = null, version = version + 1 " +
+            "where id in (:ids)";
+    private static final String SELECT_MATCHES_OF_OWN_ITEMS = "select id from request_matches " +
+            "where owner_id = :userId limit :limit";
+    private static final String SELECT_MATCHES_OF_OWN_REQUESTS = "select m.id from request_matches m " +
+            "join requests r on r.id = m.request_id where r.requestor_id = :userId limit :limit";
+    private static final String DELETE_MATCHES = "delete from request_matches where id in (:ids)";
+    private static final String SELECT_OWN_ITEMS = "select i.id, r.requestor_id as other_id from items i " +
+            "left join requests r on r.id = i.request_id where i.owner_id = :userId limit :limit";
+    private static final String DELETE_ITEMS = "delete from items where id in (:ids)";
+    private static final String SELECT_OWN_REQUESTS = "select id, cast(null as bigint) as other_id from requests " +
+            "where requestor_id = :userId limit :limit";
+    private static final String DELETE_REQUESTS = "delete from requests where id in (:ids)";
+    private static final String SELECT_EMAIL = "select email from users where id = :userId";
+    private static final String DELETE_USER = "delete from users where id = :userId and deleted_at is not null";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingCounters bookingCounters;
+    private final BookingTimeline bookingTimeline;
+    private final CommentCache commentCache;
+    private final UserCache userCache;
+    private final EmailIndex emailIndex;
+    private final RequestFeed requestFeed;
+    private final RequestDetailCache requestDetailCache;
+    private final ItemTermIndex itemTermIndex;
+    private final ChangeLog changeLog;
+    private final int batchSize;
+
+    @Autowired
+    public UserPurger(NamedParameterJdbcTemplate jdbcTemplate,
+                      TransactionTemplate transactionTemplate,
+                      BookingCounters bookingCounters,
+                      BookingTimeline bookingTimeline,
+                      CommentCache commentCache,
+                      UserCache userCache,
+                      EmailIndex emailIndex,
+                      RequestFeed requestFeed,
+                      RequestDetailCache requestDetailCache,
+                      ItemTermIndex itemTermIndex,
+                      ChangeLog changeLog,
+                      @Value("${shareit.user.purge.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingCounters = bookingCounters;
+        this.bookingTimeline = bookingTimeline;
+        this.commentCache = commentCache;
+        this.userCache = userCache;
+        this.emailIndex = emailIndex;
+        this.requestFeed = requestFeed;
+        this.requestDetailCache = requestDetailCache;
+        this.itemTermIndex = itemTermIndex;
+        this.changeLog = changeLog;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.purge.interval-ms:10000}",
+            initialDelayString = "${shareit.user.purge.interval-ms:10000}")
+    public void purgeDeleted() {
+        List<Long> userIds = jdbcTemplate.queryForList(SELECT_DELETED, Map.of("limit", batchSize), Long.class);
+        for (Long userId : userIds) {
+            try {
+                purge(userId);
+                log.info("Purged deleted user {}", userId);
+            } catch (DataAccessException e) {
+                log.warn("Could not purge deleted user {}, retrying on the next run", userId, e);
+            }
+        }
+    }
+
+    private void purge(Long userId) {
+        drain(userId, this::deleteOwnComments);
+        drain(userId, this::deleteCommentsOnOwnItems);
+        for (String table : BOOKING_TABLES) {
+            drain(userId, id -> deleteBookings(id, String.format(SELECT_BOOKINGS_AS_BOOKER, table), table,
+                    BookingRole.OWNER));
+            drain(userId, id -> deleteBookings(id, String.format(SELECT_BOOKINGS_OF_OWN_ITEMS, table), table,
+                    BookingRole.BOOKER));
+        }
+        drain(userId, id -> applyToBatch(id, SELECT_LINKED_ITEMS, UNLINK_ITEMS, EntityType.ITEM));
+        drain(userId, id -> applyToBatch(id, SELECT_MATCHES_OF_OWN_ITEMS, DELETE_MATCHES));
+        drain(userId, id -> applyToBatch(id, SELECT_MATCHES_OF_OWN_REQUESTS, DELETE_MATCHES));
+        drain(userId, this::deleteOwnItems);
+        drain(userId, id -> applyToBatch(id, SELECT_OWN_REQUESTS, DELETE_REQUESTS, EntityType.REQUEST));
+        transactionTemplate.executeWithoutResult(status -> deleteUser(userId));
+    }
+
+    /**
+     * Runs the step in its own transaction until it handles less than a full batch.
+     */
+    private void drain(Long userId, ToIntFunction<Long> step) {
+        int handled;
+        do {
+            Integer batch = transactionTemplate.execute(status -> step.applyAsInt(userId));
+            handled = batch != null ? batch : 0;
+        } while (handled == batchSize);
+    }
+
+    /**
+     * The user's comments can be on any item, so the comment counters and pointers of those items are fixed too.
+     */
+    private int deleteOwnComments(Long userId) {
+        Map<Long, Long> itemIds = new HashMap<>();
+        Map<Long, ChangedEntity> items = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        List<ChangedEntity> comments = new ArrayList<>();
+        jdbcTemplate.query(SELECT_OWN_COMMENTS, batch(userId), rs -> {
+            long itemId = rs.getLong("item_id");
+            long ownerId = rs.getLong("owner_id");
+            ids.add(rs.getLong("id"));
+            comments.add(new ChangedEntity(rs.getLong("id"), userId, ownerId));
+            itemIds.merge(itemId, 1L, Long::sum);
+            items.put(itemId, new ChangedEntity(itemId, ownerId, rs.getObject("requestor_id", Long.class)));
+        });
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(DELETE_COMMENTS, Map.of("ids", ids));
+        jdbcTemplate.batchUpdate(DECREMENT_COMMENT_COUNT, itemIds.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("itemId", entry.getKey())
+                        .addValue("count", entry.getValue()))
+                .toArray(SqlParameterSource[]::new));
+        jdbcTemplate.update(RESET_LAST_COMMENT, Map.of("itemIds", itemIds.keySet(), "ids", ids));
+        jdbcTemplate.update(INCREMENT_REQUEST_VERSIONS, Map.of("ids", itemIds.keySet()));
+        changeLog.record(EntityType.COMMENT, comments);
+        changeLog.record(EntityType.ITEM, new ArrayList<>(items.values()));
+        itemIds.keySet().forEach(commentCache::evictAfterCommit);
+        return ids.size();
+    }
+
+    private int deleteCommentsOnOwnItems(Long userId) {
+        return applyToBatch(userId, SELECT_COMMENTS_ON_OWN_ITEMS, DELETE_COMMENTS, EntityType.COMMENT);
+    }
+
+    /**
+     * Deletes a batch of bookings and takes them off the counters of the other party, whose role is given.
+     */
+    private int deleteBookings(Long userId, String select, String table, BookingRole otherRole) {
+        List<Long> ids = new ArrayList<>();
+        List<ChangedEntity> bookings = new ArrayList<>();
+        Set<Long> itemIds = new HashSet<>();
+        Map<Long, Map<StatusBooking, Long>> counts = new HashMap<>();
+        jdbcTemplate.query(select, batch(userId), rs -> {
+            ids.add(rs.getLong("id"));
+            bookings.add(new ChangedEntity(rs.getLong("id"), userId, rs.getLong("other_id")));
+            itemIds.add(rs.getLong("item_id"));
+            counts.computeIfAbsent(rs.getLong("other_id"), id -> new EnumMap<>(StatusBooking.class))
+                    .merge(StatusBooking.valueOf(rs.getString("status")), 1L, Long::sum);
+        });
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(String.format(DELETE_BOOKINGS, table), Map.of("ids", ids));
+        jdbcTemplate.update(INCREMENT_ITEM_VERSIONS, Map.of("ids", itemIds));
+        changeLog.record(EntityType.BOOKING, bookings);
+        counts.remove(userId);
+        bookingCounters.removed(counts, otherRole);
+        itemIds.forEach(bookingTimeline::evictAfterCommit);
+        return ids.size();
+    }
+
+    private int deleteOwnItems(Long userId) {
+        List<ChangedEntity> items = selectChanged(userId, SELECT_OWN_ITEMS);
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = items.stream().map(ChangedEntity::getId).collect(Collectors.toList());
+        jdbcTemplate.update(INCREMENT_REQUEST_VERSIONS, Map.of("ids", ids));
+        jdbcTemplate.update(DELETE_ITEMS, Map.of("ids", ids));
+        changeLog.record(EntityType.ITEM, items);
+        ids.forEach(itemId -> {
+            bookingTimeline.evictAfterCommit(itemId);
+            commentCache.evictAfterCommit(itemId);
+            itemTermIndex.removeAfterCommit(itemId);
+        });
+        return ids.size();
+    }
+
+    /**
+     * Selects a batch of ids and runs the statement for them.
+     */
+    private int applyToBatch(Long userId, String select, String statement) {
+        List<Long> ids = jdbcTemplate.queryForList(select, batch(userId), Long.class);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(statement, Map.of("ids", ids));
+        }
+        return ids.size();
+    }
+
+    /**
+     * Selects a batch of ids with the other user each concerns, runs the statement for them and records them as
+     * changed entities of the given type.
+     */
+    private int applyToBatch(Long userId, String select, String statement, EntityType changed) {
+        List<ChangedEntity> entities = selectChanged(userId, select);
+        if (!entities.isEmpty()) {
+            List<Long> ids = entities.stream().map(ChangedEntity::getId).collect(Collectors.toList());
+            jdbcTemplate.update(statement, Map.of("ids", ids));
+            changeLog.record(changed, entities);
+        }
+        return entities.size();
+    }
+
+    /**
+     * Selects a batch of the user's entities, the select names the other user each concerns {@code other_id}.
+     */
+    private List<ChangedEntity> selectChanged(Long userId, String select) {
+        return jdbcTemplate.query(select, batch(userId), (rs, rowNum) ->
+                new ChangedEntity(rs.getLong("id"), userId, rs.getObject("other_id", Long.class)));
+    }
+
+    private void deleteUser(Long userId) {
+        Map<String, Object> parameters = Map.of("userId", userId);
+        String email = jdbcTemplate.queryForObject(SELECT_EMAIL, parameters, String.class);
+        if (jdbcTemplate.update(DELETE_USER, parameters) > 0) {
+            changeLog.record(EntityType.USER, userId);
+            userCache.evictAfterCommit(userId);
+            emailIndex.removeAfterCommit(userId, email);
+            requestFeed.clearAfterCommit();
+            requestDetailCache.clearAfterCommit();
+        }
+    }
+
+    private Map<String, Object> batch(Long userId) {
+        return Map.of("userId", userId, "limit", batchSize);
+    }
+
+}
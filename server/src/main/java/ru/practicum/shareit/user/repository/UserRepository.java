@@ -1,12 +1,39 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Optional<User> findByEmail(String email);
+    @Modifying
+    @Query("update User u set u.deletedAt = ?2 where u.id = ?1 and u.deletedAt is null")
+    int markDeleted(Long userId, LocalDateTime deletedAt);
+
+    Optional<User> findByIdAndDeletedAtIsNull(Long id);
+
+    List<User> findByIdInAndDeletedAtIsNull(Collection<Long> ids);
+
+    List<User> findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(Long after, Pageable page);
+
+    /**
+     * Scrolls over all users that are not deleted in id order, the driver fetches them in batches, so the result
+     * must be consumed inside a transaction and the returned entities detached once they are used.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select u from User u where u.deletedAt is null order by u.id")
+    Stream<User> streamAll();
 
-}
\ No newline at end of file
+}
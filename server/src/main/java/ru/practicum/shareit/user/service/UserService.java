@@ -4,10 +4,15 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    List<UserDto> getAllUsers();
+    List<UserDto> getUsers(Long after, Integer size);
+
+    void forEachUser(Consumer<UserDto> action);
+
+    List<UserDto> getUsersByIds(List<Long> userIds);
 
     UserDto getUserById(Long userId);
 
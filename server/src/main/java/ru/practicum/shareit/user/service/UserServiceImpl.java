@@ -2,84 +2,154 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UserAlreadyExistException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 class UserServiceImpl implements UserService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final BookingCounters bookingCounters;
+    private final UserCache userCache;
+    private final EmailIndex emailIndex;
+    private final EntityManager entityManager;
+    private final ChangeLog changeLog;
+
+    @Override
+    public List<UserDto> getUsers(Long after, Integer size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Wrong page: after=%d, size=%d", after, size));
+        }
+        return userRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(after, PageRequest.of(0, size))
+                .stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEachUser(Consumer<UserDto> action) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                action.accept(UserMapper.toUserDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream().map(UserMapper::toUserDto).collect(Collectors.toList());
+    public List<UserDto> getUsersByIds(List<Long> userIds) {
+        Map<Long, User> users = userCache.getAll(new LinkedHashSet<>(userIds));
+        return userIds.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public UserDto getUserById(Long userId) {
-        return UserMapper.toUserDto(userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException(String.format("User not found: id=%d", userId))));
+        return UserMapper.toUserDto(getById(userId));
     }
 
     @Transactional
     @Override
     public UserDto saveUser(UserDto userDto) {
+        if (emailIndex.isTaken(userDto.getEmail(), null)) {
+            throw emailTaken(userDto.getEmail());
+        }
+        User user;
         try {
-            return UserMapper.toUserDto(userRepository.save(UserMapper.toUser(userDto)));
+            user = userRepository.save(UserMapper.toUser(userDto));
         } catch (DataIntegrityViolationException e) {
-            throw new UserAlreadyExistException("User with email " +
-                    userDto.getEmail() + " is already registered.");
+            throw emailTaken(userDto.getEmail());
         }
+        bookingCounters.createFor(user.getId());
+        changeLog.record(EntityType.USER, user.getId());
+        userCache.evictAfterCommit(user.getId());
+        emailIndex.putAfterCommit(user.getId(), null, user.getEmail());
+        return UserMapper.toUserDto(user);
     }
 
     @Transactional
     @Override
     public UserDto updateUser(Long userId, UserDto userDto) {
-        User user = getById(userId);
-        User validuser = userRepository.findByEmail(userDto.getEmail()).orElse(null);
-        if (validuser != null && !Objects.equals(validuser.getId(), userId)) {
-            throw new UserAlreadyExistException("User with email " +
-                    userDto.getEmail() + " is already registered.");
+        User user = userRepository.findByIdAndDeletedAtIsNull(userId)
+                .orElseThrow(() -> new ObjectNotFoundException(String.format("User not found: id=%d", userId)));
+        if (userDto.getEmail() != null && emailIndex.isTaken(userDto.getEmail(), userId)) {
+            throw emailTaken(userDto.getEmail());
         }
+        String oldEmail = user.getEmail();
         if (userDto.getName() != null) {
             user.setName(userDto.getName());
         }
         if (userDto.getEmail() != null) {
             user.setEmail(userDto.getEmail());
         }
-        return UserMapper.toUserDto(userRepository.save(user));
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw emailTaken(userDto.getEmail());
+        }
+        changeLog.record(EntityType.USER, userId);
+        userCache.evictAfterCommit(userId);
+        emailIndex.putAfterCommit(userId, oldEmail, saved.getEmail());
+        return UserMapper.toUserDto(saved);
     }
 
     @Transactional
     @Override
     public void deleteUser(Long userId) {
-        validateUserById(userId);
-        userRepository.deleteById(userId);
+        if (userRepository.markDeleted(userId, LocalDateTime.now()) == 0) {
+            throw new ObjectNotFoundException(String.format("User not found: id=%d", userId));
+        }
+        changeLog.record(EntityType.USER, userId);
+        userCache.evictAfterCommit(userId);
     }
 
     @Override
     public User getById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.get(userId)
                 .orElseThrow(() -> new ObjectNotFoundException(String.format("User not found: id=%d", userId)));
     }
 
     @Override
     public void validateUserById(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             throw new ObjectNotFoundException(String.format("User not found: id=%d", userId));
         }
     }
 
+    private static UserAlreadyExistException emailTaken(String email) {
+        return new UserAlreadyExistException("User with email " + email + " is already registered.");
+    }
+
 }
\ No newline at end of file
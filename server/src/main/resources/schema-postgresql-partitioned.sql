@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGSERIAL NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_bookings PRIMARY KEY (id, end_date),
+    CONSTRAINT fk_bookings_to_item_id FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT fk_bookings_to_broker_id FOREIGN KEY (booker_id) REFERENCES  users(id)
+) PARTITION BY RANGE (end_date);
+
+CREATE TABLE IF NOT EXISTS bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings (booker_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
\ No newline at end of file
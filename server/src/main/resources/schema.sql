@@ -1,22 +1,30 @@
-DROP TABLE IF EXISTS users, items, bookings, requests, comments;
+DROP TABLE IF EXISTS users, items, bookings, bookings_archive, requests, comments, booking_counters, request_matches,
+    changes, pending_changes;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(200) NOT NULL,
     email VARCHAR(400) NOT NULL,
+    deleted_at TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT constraint_user UNIQUE (email)
 );
 
+CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users (deleted_at);
+
 CREATE TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description VARCHAR(200) NOT NULL,
     requestor_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_requests PRIMARY KEY (id),
     CONSTRAINT fk_requests_to_requestor_id FOREIGN KEY (requestor_id) REFERENCES users(id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created, id);
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS items (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(200) NOT NULL,
@@ -24,21 +32,25 @@ CREATE TABLE IF NOT EXISTS items (
     is_available BOOLEAN NOT NULL,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    comment_count BIGINT DEFAULT 0 NOT NULL,
+    last_comment_id BIGINT,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_items PRIMARY KEY (id),
     CONSTRAINT fk_items_to_owner_id FOREIGN KEY (owner_id) REFERENCES users(id),
     CONSTRAINT fk_items_to_request_id FOREIGN KEY (request_id) REFERENCES requests(id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    item_id BIGINT NOT NULL,
-    booker_id BIGINT NOT NULL,
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE TABLE IF NOT EXISTS booking_counters (
+    user_id BIGINT NOT NULL,
+    role VARCHAR(20) NOT NULL,
     status VARCHAR(50) NOT NULL,
-    CONSTRAINT pk_bookings PRIMARY KEY (id),
-    CONSTRAINT fk_bookings_to_item_id FOREIGN KEY (item_id) REFERENCES items(id),
-    CONSTRAINT fk_bookings_to_broker_id FOREIGN KEY (booker_id) REFERENCES  users(id)
+    booking_count BIGINT NOT NULL,
+    CONSTRAINT pk_booking_counters PRIMARY KEY (user_id, role, status),
+    CONSTRAINT fk_booking_counters_to_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS comments (
@@ -50,4 +62,63 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT pk_comments PRIMARY KEY (id),
     CONSTRAINT fk_comments_to_item_id FOREIGN KEY (item_id) REFERENCES items(id),
     CONSTRAINT fk_comments_to_author_id FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments (author_id);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_archive_to_item_id FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT fk_bookings_archive_to_booker_id FOREIGN KEY (booker_id) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_id ON bookings_archive (booker_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_id ON bookings_archive (item_id, start_date);
+
+CREATE TABLE IF NOT EXISTS request_matches (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    request_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    score INTEGER NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_request_matches PRIMARY KEY (id),
+    CONSTRAINT uq_request_matches UNIQUE (request_id, item_id),
+    CONSTRAINT fk_request_matches_to_request_id FOREIGN KEY (request_id) REFERENCES requests(id),
+    CONSTRAINT fk_request_matches_to_item_id FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT fk_request_matches_to_owner_id FOREIGN KEY (owner_id) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_request_matches_owner_created ON request_matches (owner_id, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_request_matches_item_id ON request_matches (item_id);
+
+CREATE TABLE IF NOT EXISTS changes (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    changed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    user_id BIGINT,
+    other_user_id BIGINT,
+    CONSTRAINT pk_changes PRIMARY KEY (seq)
+);
+
+CREATE TABLE IF NOT EXISTS pending_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    changed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    user_id BIGINT,
+    other_user_id BIGINT,
+    CONSTRAINT pk_pending_changes PRIMARY KEY (id)
+);
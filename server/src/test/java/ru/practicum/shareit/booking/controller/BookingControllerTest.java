@@ -10,13 +10,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCountDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -24,10 +30,12 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -124,7 +132,7 @@ class BookingControllerTest {
 
     @Test
     void shouldGetBookingsCurrentUser_ReturnEmptyList() throws Exception {
-        when(bookingService.getBookingsCurrentUser(1L, "REJECTED", 0, 10))
+        when(bookingService.getBookingsCurrentUser(1L, "REJECTED", 0, 10, FieldSet.ALL))
                 .thenReturn(Collections.emptyList());
         mockMvc.perform(get(url)
                         .header("X-Sharer-User-Id", 1)
@@ -137,7 +145,7 @@ class BookingControllerTest {
     @Test
     void shouldGetBookingsCurrentUser_ReturnListBookings() throws Exception {
         BookingDto bookingDto = bookingDtoBuilder.build();
-        when(bookingService.getBookingsCurrentUser(1L, "WAITING", 0, 10))
+        when(bookingService.getBookingsCurrentUser(1L, "WAITING", 0, 10, FieldSet.ALL))
                 .thenReturn(List.of(bookingDto));
         mockMvc.perform(get(url)
                         .header("X-Sharer-User-Id", 1)
@@ -150,9 +158,76 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.size()", is(1)));
     }
 
+    @Test
+    void shouldGetBookingsCurrentUserWithFields_ReturnOnlyFieldsAndId() throws Exception {
+        FieldSet fields = FieldSet.of("status,start", BookingDto.class);
+        when(bookingService.getBookingsCurrentUser(1L, "ALL", 0, 500, fields))
+                .thenReturn(List.of(bookingDtoBuilder.item(null).booker(null).build()));
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("fields", "status,start"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].status", is("WAITING")))
+                .andExpect(jsonPath("$[0].start").exists())
+                .andExpect(jsonPath("$[0].end").doesNotExist())
+                .andExpect(jsonPath("$[0].item").doesNotExist())
+                .andExpect(jsonPath("$[0].booker").doesNotExist());
+    }
+
+    @Test
+    void shouldGetBookingsCurrentUserWithUnknownField_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("fields", "status,owner"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown field: owner")));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void shouldGetBookingsAllItemCompact_ReturnIdsAndSideLoadedItemsAndUsers() throws Exception {
+        BookingDto bookingDto = bookingDtoBuilder.build();
+        CompactBookingsDto compact = CompactBookingsDto.builder()
+                .bookings(List.of(CompactBookingDto.builder()
+                        .id(bookingDto.getId())
+                        .itemId(bookingDto.getItem().getId())
+                        .bookerId(bookingDto.getBooker().getId())
+                        .status(bookingDto.getStatus())
+                        .build()))
+                .items(Map.of(bookingDto.getItem().getId(), bookingDto.getItem()))
+                .users(Map.of(bookingDto.getBooker().getId(), bookingDto.getBooker()))
+                .build();
+        when(bookingService.getCompactBookingsAllItemCurrentUser(1L, "ALL", 0, 500)).thenReturn(compact);
+        mockMvc.perform(get(url + "/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("compact", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings[0].itemId", is(bookingDto.getItem().getId().intValue())))
+                .andExpect(jsonPath("$.bookings[0].item").doesNotExist())
+                .andExpect(jsonPath("$.items['" + bookingDto.getItem().getId() + "'].name",
+                        is(bookingDto.getItem().getName())))
+                .andExpect(jsonPath("$.users['" + bookingDto.getBooker().getId() + "'].email",
+                        is(bookingDto.getBooker().getEmail())));
+    }
+
+    @Test
+    void shouldGetBookingsCompactWithFields_ReturnStatus400() throws Exception {
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("compact", "true")
+                        .param("fields", "status"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     void shouldGetBookingsCurrentUserIfStateFail_ReturnStatus400() throws Exception {
-                when(bookingService.getBookingsCurrentUser(1L, "FAIL", 0, 10))
+                when(bookingService.getBookingsCurrentUser(1L, "FAIL", 0, 10, FieldSet.ALL))
                 .thenThrow(new UnsupportedStateException(String.format("Unknown state: %s", "FAIL")));
         mockMvc.perform(get(url)
                         .header("X-Sharer-User-Id", 1)
@@ -166,7 +241,7 @@ class BookingControllerTest {
 
     @Test
     void shouldGetBookingsAllItemCurrentUser_ReturnEmptyList() throws Exception {
-        when(bookingService.getBookingsAllItemCurrentUser(1L, "REJECTED", 0, 10))
+        when(bookingService.getBookingsAllItemCurrentUser(1L, "REJECTED", 0, 10, FieldSet.ALL))
                 .thenReturn(Collections.emptyList());
         mockMvc.perform(get(url + "/owner")
                         .header("X-Sharer-User-Id", 1)
@@ -179,7 +254,7 @@ class BookingControllerTest {
     @Test
     void shouldGetBookingsAllItemCurrentUser_ReturnListBookings() throws Exception {
         BookingDto bookingDto = bookingDtoBuilder.build();
-        when(bookingService.getBookingsAllItemCurrentUser(1L, "WAITING", 0, 10))
+        when(bookingService.getBookingsAllItemCurrentUser(1L, "WAITING", 0, 10, FieldSet.ALL))
                 .thenReturn(List.of(bookingDto));
         mockMvc.perform(get(url + "/owner")
                         .header("X-Sharer-User-Id", 1)
@@ -194,7 +269,7 @@ class BookingControllerTest {
 
     @Test
     void shouldGetBookingsAllItemCurrentUserIfStateFail_ReturnStatus400() throws Exception {
-        when(bookingService.getBookingsAllItemCurrentUser(1L, "FAIL", 0, 10))
+        when(bookingService.getBookingsAllItemCurrentUser(1L, "FAIL", 0, 10, FieldSet.ALL))
                 .thenThrow(new UnsupportedStateException(String.format("Unknown state: %s", "FAIL")));
         mockMvc.perform(get(url + "/owner")
                         .header("X-Sharer-User-Id", 1)
@@ -320,4 +395,28 @@ class BookingControllerTest {
                 .andExpect(content().json("{\"error\":\"Booking not available: id=1\"}"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldStream_StartAsyncEventStream() throws Exception {
+        when(bookingService.subscribe(1L, "7")).thenReturn(new SseEmitter());
+        mockMvc.perform(get(url + "/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Last-Event-ID", "7"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void shouldGetSummary_ReturnCounts() throws Exception {
+        BookingCountDto counts = BookingCountDto.builder().all(3).waiting(1).past(2).build();
+        when(bookingService.getSummary(1L)).thenReturn(new BookingSummaryDto(counts, counts));
+        mockMvc.perform(get(url + "/summary")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booker.all", is(3)))
+                .andExpect(jsonPath("$.booker.waiting", is(1)))
+                .andExpect(jsonPath("$.owner.past", is(2)));
+    }
+
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.counter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.repository.BookingCounterRepository;
+import ru.practicum.shareit.booking.repository.BookingParticipantsView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingCountersTest {
+
+    @Mock
+    private BookingCounterRepository bookingCounterRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @InjectMocks
+    private BookingCounters bookingCounters;
+
+    @Test
+    void shouldMoveSeveralPairs_UpdateRowsInUserRoleStatusOrder() {
+        when(bookingCounterRepository.increment(anyLong(), any(), any(), anyLong())).thenReturn(1);
+
+        bookingCounters.moved(List.of(participants(5L, 1L, 2L), participants(2L, 5L, 1L)),
+                StatusBooking.WAITING, StatusBooking.EXPIRED);
+
+        InOrder order = inOrder(bookingCounterRepository);
+        order.verify(bookingCounterRepository).increment(1L, BookingRole.OWNER, StatusBooking.WAITING, -2L);
+        order.verify(bookingCounterRepository).increment(1L, BookingRole.OWNER, StatusBooking.EXPIRED, 2L);
+        order.verify(bookingCounterRepository).increment(2L, BookingRole.BOOKER, StatusBooking.WAITING, -1L);
+        order.verify(bookingCounterRepository).increment(2L, BookingRole.BOOKER, StatusBooking.EXPIRED, 1L);
+        order.verify(bookingCounterRepository).increment(5L, BookingRole.BOOKER, StatusBooking.WAITING, -2L);
+        order.verify(bookingCounterRepository).increment(5L, BookingRole.BOOKER, StatusBooking.EXPIRED, 2L);
+        order.verify(bookingCounterRepository).increment(5L, BookingRole.OWNER, StatusBooking.WAITING, -1L);
+        order.verify(bookingCounterRepository).increment(5L, BookingRole.OWNER, StatusBooking.EXPIRED, 1L);
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void shouldAddForOwnerWithLowerId_UpdateOwnerFirst() {
+        when(bookingCounterRepository.increment(anyLong(), any(), any(), anyLong())).thenReturn(1);
+
+        bookingCounters.added(7L, 3L, StatusBooking.WAITING);
+
+        InOrder order = inOrder(bookingCounterRepository);
+        order.verify(bookingCounterRepository).increment(3L, BookingRole.OWNER, StatusBooking.WAITING, 1L);
+        order.verify(bookingCounterRepository).increment(7L, BookingRole.BOOKER, StatusBooking.WAITING, 1L);
+    }
+
+    @Test
+    void shouldAddWithoutCounterRow_ThrowIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> bookingCounters.added(7L, 3L, StatusBooking.WAITING));
+    }
+
+    private static BookingParticipantsView participants(Long bookerId, Long ownerId, Long count) {
+        return new BookingParticipantsView() {
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.lock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Throughput of booking writes guarded by {@link StripedItemLock} compared with a single global lock.
+ * <p>
+ * Each of 64 client threads picks a random item and holds its lock for a simulated overlap check and insert
+ * (a short park, roughly a database round trip). Run with {@code main}, it is not part of the test suite.
+ */
+public class StripedItemLockBenchmark {
+
+    private static final int CLIENTS = 64;
+    private static final int[] DISTINCT_ITEMS = {1, 100, 10_000};
+    private static final long CRITICAL_SECTION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long WARMUP_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 3_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        StripedItemLock striped = new StripedItemLock(1024);
+        Lock global = new ReentrantLock();
+        System.out.printf("%-8s %15s %15s%n", "items", "global ops/s", "striped ops/s");
+        for (int items : DISTINCT_ITEMS) {
+            double globalOps = run(items, id -> global);
+            double stripedOps = run(items, striped::get);
+            System.out.printf("%-8d %15.0f %15.0f%n", items, globalOps, stripedOps);
+        }
+    }
+
+    private static double run(int items, LongFunction<Lock> locks) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(CLIENTS);
+        long warmupEnd = System.currentTimeMillis() + WARMUP_MILLIS;
+        long measureEnd = warmupEnd + MEASURE_MILLIS;
+        for (int i = 0; i < CLIENTS; i++) {
+            Thread client = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long now;
+                while ((now = System.currentTimeMillis()) < measureEnd) {
+                    Lock lock = locks.apply(random.nextInt(items));
+                    lock.lock();
+                    try {
+                        LockSupport.parkNanos(CRITICAL_SECTION_NANOS);
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (now >= warmupEnd) {
+                        operations.increment();
+                    }
+                }
+                finished.countDown();
+            });
+            client.start();
+        }
+        finished.await();
+        return operations.sum() * 1000.0 / MEASURE_MILLIS;
+    }
+
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedItemLockTest {
+
+    private final StripedItemLock itemLock = new StripedItemLock(1000);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRoundStripesToPowerOfTwo() {
+        assertEquals(1024, itemLock.size());
+        assertEquals(1, new StripedItemLock(1).size());
+    }
+
+    @Test
+    void shouldGet_ReturnSameLockForSameItem() {
+        assertSame(itemLock.get(42L), itemLock.get(42L));
+    }
+
+    @Test
+    void shouldLockUntilCompletionWithoutTransaction_ReturnIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> itemLock.lockUntilCompletion(1L));
+    }
+
+    @Test
+    void shouldLockUntilCompletion_UnlockAfterTransactionCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        ReentrantLock lock = (ReentrantLock) itemLock.get(1L);
+
+        itemLock.lockUntilCompletion(1L);
+        assertTrue(lock.isHeldByCurrentThread());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertFalse(lock.isLocked());
+    }
+
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(BookingArchiver.class)
+class BookingArchiveRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private BookingArchiver bookingArchiver;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingArchiveRepository bookingArchiveRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking old;
+    private Booking recent;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@email.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        item = itemRepository.save(Item.builder().name("item").description("description")
+                .isAvailable(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+        old = bookingRepository.save(Booking.builder().start(now.minusYears(3)).end(now.minusYears(2))
+                .item(item).booker(booker).status(StatusBooking.REJECTED).build());
+        recent = bookingRepository.save(Booking.builder().start(now.minusDays(2)).end(now.minusDays(1))
+                .item(item).booker(booker).status(StatusBooking.APPROVED).build());
+    }
+
+    @Test
+    void shouldArchive_MoveOnlyBookingsBeforeHorizon() {
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(old.getId()).isEmpty());
+        assertTrue(bookingRepository.findById(recent.getId()).isPresent());
+        Booking archived = bookingArchiveRepository.findArchivedById(old.getId()).orElseThrow();
+        assertEquals(StatusBooking.REJECTED, archived.getStatus());
+        assertEquals(booker.getId(), archived.getBooker().getId());
+    }
+
+    @Test
+    void shouldFindCounterparts_LookInHotAndArchivedBookings() {
+        User archivedBooker = userRepository.save(User.builder().name("archived").email("archived@email.com")
+                .build());
+        User stranger = userRepository.save(User.builder().name("stranger").email("stranger@email.com").build());
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder().start(now.minusYears(3)).end(now.minusYears(2))
+                .item(item).booker(archivedBooker).status(StatusBooking.APPROVED).build());
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        List<Long> counterparts = bookingRepository.findCounterpartIds(owner.getId(),
+                List.of(booker.getId(), archivedBooker.getId(), stranger.getId()));
+
+        assertEquals(2, counterparts.size());
+        assertTrue(counterparts.containsAll(List.of(booker.getId(), archivedBooker.getId())));
+        assertEquals(List.of(owner.getId()), bookingRepository.findCounterpartIds(archivedBooker.getId(),
+                List.of(owner.getId(), stranger.getId())));
+    }
+
+    @Test
+    void shouldFindArchivedByBookerAndOwner_ReturnPageAndCount() {
+        bookingArchiver.archive();
+        entityManager.clear();
+
+        List<Booking> byBooker = bookingArchiveRepository.findByBookerId(booker.getId(), 10, 0);
+        List<Booking> rejected = bookingArchiveRepository.findByOwnerIdAndStatus(owner.getId(),
+                StatusBooking.REJECTED.name(), 10, 0);
+
+        assertEquals(List.of(old.getId()), List.of(byBooker.get(0).getId()));
+        assertEquals(1, rejected.size());
+        assertTrue(bookingArchiveRepository.findByOwnerId(owner.getId(), 10, 1).isEmpty());
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, bookingRepository.countByBookerIdAt(booker.getId(), now).getArchived());
+        assertEquals(1, bookingRepository.countByOwnerIdAt(owner.getId(), now).getArchived());
+        assertEquals(0, bookingRepository.countByBookerIdAt(owner.getId(), now).getArchived());
+        assertTrue(bookingArchiveRepository.existsByItemIdAndBookerIdAndStatus(item.getId(), booker.getId(),
+                StatusBooking.REJECTED.name()));
+        assertFalse(bookingArchiveRepository.existsByItemIdAndBookerIdAndStatus(item.getId(), booker.getId(),
+                StatusBooking.APPROVED.name()));
+    }
+
+}
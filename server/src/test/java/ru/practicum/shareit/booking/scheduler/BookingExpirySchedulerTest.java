@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.log.ChangeLog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpirySchedulerTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BookingCounters bookingCounters;
+    @Mock
+    private ChangeLog changeLog;
+
+    private BookingExpiryScheduler scheduler;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new BookingExpiryScheduler(bookingRepository, transactionTemplate, bookingCounters, changeLog,
+                1000, 64, Duration.ofHours(1), 1000);
+        booking = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now().minusDays(1))
+                .end(LocalDateTime.now().plusDays(1))
+                .status(StatusBooking.WAITING)
+                .build();
+    }
+
+    @Test
+    void shouldTickAfterFailedBatch_RetryItsBookings() {
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0)
+                        .doInTransaction(null));
+        when(bookingRepository.findForUpdateByIdInAndStatus(List.of(1L), StatusBooking.WAITING))
+                .thenReturn(List.of(booking));
+        scheduler.schedule(booking);
+
+        scheduler.tick();
+        verify(bookingRepository, never()).updateStatusByIdInAndStatus(anyList(), any(), any());
+
+        scheduler.tick();
+        verify(bookingRepository).updateStatusByIdInAndStatus(List.of(1L), StatusBooking.WAITING,
+                StatusBooking.EXPIRED);
+    }
+
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SIZE = 4;
+    private static final long START = 1_000;
+
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel(TICK, SIZE, START);
+    }
+
+    @Test
+    void shouldAdd_ReturnFalseWhenDeadlinePassed() {
+        assertFalse(wheel.add(1L, START - 1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldAdvance_ReturnIdsOfPassedTicksOnly() {
+        assertTrue(wheel.add(1L, START + 5));
+        assertTrue(wheel.add(2L, START + 25));
+
+        assertTrue(wheel.advance(START + 9).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START + 10));
+        assertTrue(wheel.advance(START + 29).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(START + 30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldAdvance_CascadeEntriesFromOverflowWheels() {
+        long[] deadlines = {START + 45, START + 170, START + 655, START + 39};
+        for (int i = 0; i < deadlines.length; i++) {
+            assertTrue(wheel.add(i, deadlines[i]));
+        }
+        assertEquals(deadlines.length, wheel.size());
+
+        assertEquals(List.of(3L), wheel.advance(START + 40));
+        assertTrue(wheel.advance(START + 49).isEmpty());
+        assertEquals(List.of(0L), wheel.advance(START + 50));
+        assertTrue(wheel.advance(START + 179).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START + 180));
+        assertTrue(wheel.advance(START + 659).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(START + 660));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldAdvance_ReturnAllIdsAfterLongPause() {
+        for (long id = 0; id < 100; id++) {
+            wheel.add(id, START + id * 7);
+        }
+
+        List<Long> expired = wheel.advance(START + 10_000);
+
+        assertEquals(100, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+}
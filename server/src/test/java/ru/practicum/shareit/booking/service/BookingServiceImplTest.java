@@ -6,34 +6,62 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.counter.BookingCounters;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.lock.StripedItemLock;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTimeCountsView;
+import ru.practicum.shareit.booking.repository.BookingVersionView;
+import ru.practicum.shareit.booking.scheduler.BookingExpiryScheduler;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.sse.SseBroker;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
 
-    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "start");
+    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
     private static final LocalDateTime NOW = LocalDateTime.now();
 
     @Mock
@@ -42,6 +70,26 @@ class BookingServiceImplTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Mock
+    private BookingExpiryScheduler bookingExpiryScheduler;
+    @Mock
+    private StripedItemLock itemLock;
+    @Mock
+    private BookingTimeline bookingTimeline;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private SseBroker sseBroker;
+    @Mock
+    private BookingCounters bookingCounters;
+    @Mock
+    private BookingArchiveRepository bookingArchiveRepository;
+    @Mock
+    private BookingArchiver bookingArchiver;
+    @Mock
+    private ChangeLog changeLog;
+    @Mock
+    private ItemRepository itemRepository;
     @InjectMocks
     BookingServiceImpl bookingService;
 
@@ -107,18 +155,21 @@ class BookingServiceImplTest {
         PageRequest page = PageRequest.of(0, size, SORT);
 
         // All
+        when(bookingRepository.countByBookerIdAndStartGreaterThanEqual(anyLong(), any())).thenReturn(1L);
         when(bookingRepository.findByBookerId(userId, page)).thenReturn(List.of(booking));
-        List<BookingDto> bookingDtos = bookingService.getBookingsCurrentUser(userId, "ALL", from, size);
+        List<BookingDto> bookingDtos = bookingService.getBookingsCurrentUser(userId, "ALL", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
         assertEquals(booking.getId(), bookingDtos.get(0).getId());
 
         // PAST
+        when(bookingRepository.countByBookerIdAndStartGreaterThanEqualAndStartBeforeAndEndBefore(anyLong(), any(),
+                any(), any())).thenReturn(1L);
         when(bookingRepository.findByBookerIdAndStartBeforeAndEndBefore(anyLong(),
                 any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingDtos = bookingService.getBookingsCurrentUser(userId, "PAST", from, size);
+        bookingDtos = bookingService.getBookingsCurrentUser(userId, "PAST", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
@@ -126,10 +177,10 @@ class BookingServiceImplTest {
         // FUTURE
         booking.setStart(NOW.plusSeconds(60));
 
-        when(bookingRepository.findByBookerIdAndStartAfter(anyLong(),
-                any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStartAfterAndEndAfter(anyLong(),
+                any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingDtos = bookingService.getBookingsCurrentUser(userId, "FUTURE", from, size);
+        bookingDtos = bookingService.getBookingsCurrentUser(userId, "FUTURE", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
@@ -140,7 +191,7 @@ class BookingServiceImplTest {
         when(bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfter(anyLong(),
                 any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingDtos = bookingService.getBookingsCurrentUser(userId, "CURRENT", from, size);
+        bookingDtos = bookingService.getBookingsCurrentUser(userId, "CURRENT", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
@@ -148,18 +199,22 @@ class BookingServiceImplTest {
         // WAITING
         booking.setStatus(StatusBooking.WAITING);
 
-        when(bookingRepository.findByBookerIdAndStatus(anyLong(),
-                any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findByBookerIdAndStatusAndEndAfter(anyLong(),
+                any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingDtos = bookingService.getBookingsCurrentUser(userId, "WAITING", from, size);
+        bookingDtos = bookingService.getBookingsCurrentUser(userId, "WAITING", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
 
         // REJECTED
         booking.setStatus(StatusBooking.REJECTED);
+        when(bookingRepository.countByBookerIdAndStatusAndStartGreaterThanEqual(anyLong(), any(), any()))
+                .thenReturn(1L);
+        when(bookingRepository.findByBookerIdAndStatus(anyLong(),
+                any(), any())).thenReturn(List.of(booking));
 
-        bookingDtos = bookingService.getBookingsCurrentUser(userId, "REJECTED", from, size);
+        bookingDtos = bookingService.getBookingsCurrentUser(userId, "REJECTED", from, size, FieldSet.ALL);
 
         assertNotNull(bookingDtos);
         assertEquals(1, bookingDtos.size());
@@ -167,7 +222,7 @@ class BookingServiceImplTest {
         // Wrong State
         String error = "Unknown state: ERROR";
         UnsupportedStateException exception = assertThrows(UnsupportedStateException.class,
-                () -> bookingService.getBookingsCurrentUser(userId, "ERROR", from, size));
+                () -> bookingService.getBookingsCurrentUser(userId, "ERROR", from, size, FieldSet.ALL));
         assertEquals(error, exception.getMessage());
     }
 
@@ -179,29 +234,33 @@ class BookingServiceImplTest {
         PageRequest page = PageRequest.of(0, size, SORT);
 
         // ALL
+        when(bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqual(anyLong(), any())).thenReturn(1L);
         when(bookingRepository.findAllByItem_Owner_Id(userId, page)).thenReturn(List.of(booking));
 
-        List<BookingDto> bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "ALL", from, size);
+        List<BookingDto> bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "ALL", from, size,
+                FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
         assertEquals(booking.getId(), bookingOutDtos.get(0).getId());
 
         // PAST
+        when(bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqualAndEndIsBefore(anyLong(), any(), any()))
+                .thenReturn(1L);
         when(bookingRepository.findAllByItem_Owner_IdAndEndIsBefore(anyLong(),
                 any(), any())).thenReturn(List.of(booking));
 
-        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "PAST", from, size);
+        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "PAST", from, size, FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
 
         // FUTURE
         booking.setStart(NOW.plusSeconds(60));
-        when(bookingRepository.findAllByItem_Owner_IdAndStartIsAfter(anyLong(),
-                any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItem_Owner_IdAndStartIsAfterAndEndIsAfter(anyLong(),
+                any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "FUTURE", from, size);
+        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "FUTURE", from, size, FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
@@ -211,27 +270,29 @@ class BookingServiceImplTest {
         when(bookingRepository.findAllByItem_Owner_IdAndStartIsBeforeAndEndIsAfter(anyLong(),
                 any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "CURRENT", from, size);
+        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "CURRENT", from, size, FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
 
         // WAITING
         booking.setStatus(StatusBooking.WAITING);
-        when(bookingRepository.findAllByItem_Owner_IdAndStatus(anyLong(),
-                any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItem_Owner_IdAndStatusAndEndIsAfter(anyLong(),
+                any(), any(), any())).thenReturn(List.of(booking));
 
-        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "WAITING", from, size);
+        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "WAITING", from, size, FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
 
         // REJECTED
         booking.setStatus(StatusBooking.REJECTED);
+        when(bookingRepository.countByItem_Owner_IdAndStatusAndStartGreaterThanEqual(anyLong(), any(), any()))
+                .thenReturn(1L);
         when(bookingRepository.findAllByItem_Owner_IdAndStatus(anyLong(),
                 any(), any())).thenReturn(List.of(booking));
 
-        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "REJECTED", from, size);
+        bookingOutDtos = bookingService.getBookingsAllItemCurrentUser(userId, "REJECTED", from, size, FieldSet.ALL);
 
         assertNotNull(bookingOutDtos);
         assertEquals(1, bookingOutDtos.size());
@@ -239,7 +300,7 @@ class BookingServiceImplTest {
         // Wrong State
         String error = "Unknown state: ERROR";
         UnsupportedStateException exception = assertThrows(UnsupportedStateException.class,
-                () -> bookingService.getBookingsCurrentUser(userId, "ERROR", from, size));
+                () -> bookingService.getBookingsCurrentUser(userId, "ERROR", from, size, FieldSet.ALL));
         assertEquals(error, exception.getMessage());
     }
 
@@ -253,6 +314,142 @@ class BookingServiceImplTest {
         assertEquals(booking.getId(), bookingDto.getId());
     }
 
+    @Test
+    void shouldGetBookingTag_ReturnBookingAndItemVersions() {
+        when(bookingRepository.findVersionById(booking.getId()))
+                .thenReturn(Optional.of(versionView(2L, booker.getId(), owner.getId(), 5L)));
+
+        assertEquals(Optional.of("2-5"), bookingService.getBookingTag(booker.getId(), booking.getId()));
+        assertEquals(Optional.of("2-5"), bookingService.getBookingTag(owner.getId(), booking.getId()));
+    }
+
+    @Test
+    void shouldGetBookingTagWhenOtherUser_ReturnEmpty() {
+        when(bookingRepository.findVersionById(booking.getId()))
+                .thenReturn(Optional.of(versionView(2L, booker.getId(), owner.getId(), 5L)));
+
+        assertTrue(bookingService.getBookingTag(99L, booking.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldGetArchivedBookingById_ReturnBookingDto() {
+        long bookingId = booking.getId();
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingArchiveRepository.findArchivedById(bookingId)).thenReturn(Optional.of(booking));
+
+        BookingDto bookingDto = bookingService.getBookingById(booker.getId(), bookingId);
+
+        assertEquals(booking.getId(), bookingDto.getId());
+    }
+
+    @Test
+    void shouldGetBookingsWithinRecentHotBookings_NotReadArchive() {
+        long userId = booker.getId();
+        when(bookingArchiver.cutoff()).thenReturn(NOW.minusYears(1));
+        when(bookingRepository.countByBookerIdAndStartGreaterThanEqual(userId, NOW.minusYears(1))).thenReturn(20L);
+        when(bookingRepository.findByBookerId(userId, PageRequest.of(1, 10, SORT))).thenReturn(List.of(booking));
+
+        List<BookingDto> bookingDtos = bookingService.getBookingsCurrentUser(userId, "ALL", 10, 10, FieldSet.ALL);
+
+        assertEquals(1, bookingDtos.size());
+        verifyNoInteractions(bookingArchiveRepository);
+    }
+
+    @Test
+    void shouldGetBookingsWithArchived_MergeByStart() {
+        long userId = booker.getId();
+        Booking longHot = Booking.builder().id(2L).start(NOW.minusYears(3)).end(NOW.plusDays(1))
+                .item(item).booker(booker).status(StatusBooking.APPROVED).build();
+        Booking archived = Booking.builder().id(3L).start(NOW.minusYears(2)).end(NOW.minusYears(2).plusDays(1))
+                .item(item).booker(booker).status(StatusBooking.APPROVED).build();
+        when(bookingRepository.countByBookerIdAndStartGreaterThanEqual(anyLong(), any())).thenReturn(1L);
+        when(bookingRepository.findByBookerId(userId, new OffsetPageRequest(0, 10, SORT)))
+                .thenReturn(List.of(booking, longHot));
+        when(bookingArchiveRepository.findByBookerId(userId, 9, 0)).thenReturn(List.of(archived));
+
+        List<BookingDto> bookingDtos = bookingService.getBookingsCurrentUser(userId, "ALL", 0, 10, FieldSet.ALL);
+
+        assertEquals(List.of(booking.getId(), archived.getId(), longHot.getId()),
+                bookingDtos.stream().map(BookingDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldGetBookingsWithArchivedPage_SkipOffsetOfMergedRowsOnce() {
+        long userId = owner.getId();
+        Booking older = Booking.builder().id(2L).start(NOW.minusYears(2)).end(NOW.minusYears(2).plusDays(1))
+                .item(item).booker(booker).status(StatusBooking.REJECTED).build();
+        when(bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqualAndEndIsBefore(anyLong(), any(), any()))
+                .thenReturn(1L);
+        when(bookingRepository.findAllByItem_Owner_IdAndEndIsBefore(anyLong(), any(),
+                eq(new OffsetPageRequest(1, 1, SORT)))).thenReturn(List.of(older));
+        when(bookingArchiveRepository.findByOwnerId(userId, 1, 0)).thenReturn(List.of(older));
+
+        List<BookingDto> bookingDtos = bookingService.getBookingsAllItemCurrentUser(userId, "PAST", 1, 1,
+                FieldSet.ALL);
+
+        assertEquals(1, bookingDtos.size());
+        assertEquals(older.getId(), bookingDtos.get(0).getId());
+    }
+
+    @Test
+    void shouldGetDeepArchivedPage_ReadArchiveFromRowsThatCanReachPage() {
+        long userId = owner.getId();
+        Booking longHot = Booking.builder().id(2L).start(NOW.minusYears(9)).end(NOW.plusDays(1))
+                .item(item).booker(booker).status(StatusBooking.REJECTED).build();
+        List<Booking> archived = new ArrayList<>();
+        for (long i = 9; i < 12; i++) {
+            archived.add(Booking.builder().id(10 + i).start(NOW.minusYears(2).minusDays(i))
+                    .end(NOW.minusYears(2).minusDays(i).plusHours(1))
+                    .item(item).booker(booker).status(StatusBooking.REJECTED).build());
+        }
+        when(bookingRepository.countByItem_Owner_IdAndStatusAndStartGreaterThanEqual(anyLong(), any(), any()))
+                .thenReturn(2L);
+        when(bookingRepository.findAllByItem_Owner_IdAndStatus(anyLong(), any(),
+                eq(new OffsetPageRequest(2, 12, SORT)))).thenReturn(List.of(longHot));
+        when(bookingArchiveRepository.findByOwnerIdAndStatus(userId, StatusBooking.REJECTED.name(), 3, 9))
+                .thenReturn(archived);
+
+        List<BookingDto> bookingDtos = bookingService.getBookingsAllItemCurrentUser(userId, "REJECTED", 12, 2,
+                FieldSet.ALL);
+
+        assertEquals(List.of(20L, 21L), bookingDtos.stream().map(BookingDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldGetCompactBookingsAllItem_SideLoadEachItemAndBookerOnce() {
+        long userId = owner.getId();
+        Booking other = Booking.builder().id(2L).start(NOW.plusDays(1)).end(NOW.plusDays(2))
+                .item(item).booker(booker).status(StatusBooking.WAITING).build();
+        when(bookingRepository.countByItem_Owner_IdAndStartGreaterThanEqual(anyLong(), any())).thenReturn(2L);
+        when(bookingRepository.findAllByItem_Owner_Id(anyLong(), any())).thenReturn(List.of(booking, other));
+        when(itemRepository.findWithOwnerByIdIn(Set.of(item.getId()))).thenReturn(List.of(item));
+        when(userService.getUsersByIds(List.of(booker.getId()))).thenReturn(List.of(UserMapper.toUserDto(booker)));
+
+        CompactBookingsDto bookings = bookingService.getCompactBookingsAllItemCurrentUser(userId, "ALL", 0, 2);
+
+        assertEquals(2, bookings.getBookings().size());
+        assertEquals(item.getId(), bookings.getBookings().get(1).getItemId());
+        assertEquals(booker.getId(), bookings.getBookings().get(1).getBookerId());
+        assertEquals(Map.of(item.getId(), ItemMapper.toItemDto(item)), bookings.getItems());
+        assertEquals(Map.of(booker.getId(), UserMapper.toUserDto(booker)), bookings.getUsers());
+        verify(userService).validateUserById(userId);
+    }
+
+    @Test
+    void shouldGetCompactBookingsWhenNone_NotLoadItemsOrUsers() {
+        long userId = booker.getId();
+        when(bookingRepository.findByBookerIdAndStatusAndEndAfter(anyLong(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        CompactBookingsDto bookings = bookingService.getCompactBookingsCurrentUser(userId, "WAITING", 0, 10);
+
+        assertTrue(bookings.getBookings().isEmpty());
+        assertTrue(bookings.getItems().isEmpty());
+        assertTrue(bookings.getUsers().isEmpty());
+        verifyNoInteractions(itemRepository);
+        verify(userService, never()).getUsersByIds(any());
+    }
+
     @Test
     void shouldGetBookingByIdWhenWrongUser_ReturnObjectNotFoundException() {
         long userId = user.getId();
@@ -277,6 +474,7 @@ class BookingServiceImplTest {
 
         assertNotNull(bookingOutDto);
         assertEquals(booking.getId(), bookingOutDto.getId());
+        verify(changeLog).record(EntityType.BOOKING, booking.getId(), bookerId, item.getOwner().getId());
     }
 
     @Test
@@ -307,12 +505,28 @@ class BookingServiceImplTest {
         assertEquals(error, exception.getMessage());
     }
 
+    @Test
+    void shouldCreateBookingWhenItemAlreadyBooked_ReturnValidationException() {
+        long bookerId = booker.getId();
+        long itemId = item.getId();
+        when(userService.getById(bookerId)).thenReturn(booker);
+        when(itemService.getById(itemId)).thenReturn(item);
+        when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(itemId, StatusBooking.APPROVED,
+                bookingCreateDto.getEnd(), bookingCreateDto.getStart())).thenReturn(true);
+        String error = String.format("Item with id %d is already booked for these dates", itemId);
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> bookingService.createBooking(bookerId, bookingCreateDto));
+        assertEquals(error, ex.getMessage());
+    }
+
     @Test
     void shouldApproveBooking_ReturnUpdatedBookingDto() {
         long userId = owner.getId();
         long bookingId = booking.getId();
         booking.setStatus(StatusBooking.WAITING);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findForUpdateById(bookingId)).thenReturn(Optional.of(booking));
         when(userService.getById(userId)).thenReturn(owner);
         when(bookingRepository.save(any())).thenReturn(booking);
 
@@ -320,6 +534,27 @@ class BookingServiceImplTest {
 
         assertNotNull(bookingDto);
         assertEquals(booking.getId(), bookingDto.getId());
+        verify(bookingCounters).moved(booking.getBooker().getId(), userId, StatusBooking.WAITING,
+                StatusBooking.REJECTED, 1);
+        verify(bookingRepository).incrementVersion(bookingId, booking.getEnd());
+        verify(itemRepository, never()).incrementVersion(any());
+    }
+
+    @Test
+    void shouldApproveBooking_IncrementBookingAndItemVersions() {
+        long userId = owner.getId();
+        long bookingId = booking.getId();
+        booking.setStatus(StatusBooking.WAITING);
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findForUpdateById(bookingId)).thenReturn(Optional.of(booking));
+        when(userService.getById(userId)).thenReturn(owner);
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        bookingService.approveBooking(userId, bookingId, true);
+
+        assertEquals(StatusBooking.APPROVED, booking.getStatus());
+        verify(itemRepository).incrementVersion(item.getId());
+        verify(bookingRepository).incrementVersion(bookingId, booking.getEnd());
     }
 
     @Test
@@ -338,7 +573,9 @@ class BookingServiceImplTest {
         long userId = owner.getId();
         long bookingId = booking.getId();
         String error = "You are not the owner of this item!";
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findForUpdateById(bookingId)).thenReturn(Optional.of(booking));
+        when(userService.getById(userId)).thenReturn(booker);
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.approveBooking(userId, bookingId, true));
@@ -351,11 +588,87 @@ class BookingServiceImplTest {
         long bookingId = booking.getId();
         String error = String.format("Booking not available: id=%d", bookingId);
         when(userService.getById(userId)).thenReturn(owner);
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findItemIdById(bookingId)).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findForUpdateById(bookingId)).thenReturn(Optional.of(booking));
 
         ValidationException exception = assertThrows(ValidationException.class,
                 () -> bookingService.approveBooking(userId, bookingId, true));
         assertEquals(error, exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetSummary_ReturnCountsByRole() {
+        long userId = owner.getId();
+        Map<StatusBooking, Long> bookerCounters = new EnumMap<>(StatusBooking.class);
+        bookerCounters.put(StatusBooking.WAITING, 2L);
+        bookerCounters.put(StatusBooking.APPROVED, 3L);
+        bookerCounters.put(StatusBooking.REJECTED, 1L);
+        Map<StatusBooking, Long> ownerCounters = new EnumMap<>(StatusBooking.class);
+        ownerCounters.put(StatusBooking.WAITING, 0L);
+        ownerCounters.put(StatusBooking.REJECTED, 0L);
+        when(bookingCounters.get(userId)).thenReturn(Map.of(BookingRole.BOOKER, bookerCounters,
+                BookingRole.OWNER, ownerCounters));
+        when(bookingRepository.countByBookerIdAt(anyLong(), any())).thenReturn(timeCounts(1L, 2L, 3L, 4L));
+        when(bookingRepository.countByOwnerIdAt(anyLong(), any())).thenReturn(timeCounts(null, null, null, 0L));
+
+        BookingSummaryDto summary = bookingService.getSummary(userId);
+
+        assertEquals(6, summary.getBooker().getAll());
+        assertEquals(2, summary.getBooker().getWaiting());
+        assertEquals(1, summary.getBooker().getRejected());
+        assertEquals(1, summary.getBooker().getCurrent());
+        assertEquals(2, summary.getBooker().getFuture());
+        assertEquals(7, summary.getBooker().getPast());
+        assertEquals(0, summary.getOwner().getAll());
+        assertEquals(0, summary.getOwner().getPast());
+    }
+
+    private static BookingVersionView versionView(Long version, Long bookerId, Long ownerId, Long itemVersion) {
+        return new BookingVersionView() {
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getItemVersion() {
+                return itemVersion;
+            }
+        };
+    }
+
+    private static BookingTimeCountsView timeCounts(Long current, Long future, Long past, Long archived) {
+        return new BookingTimeCountsView() {
+            @Override
+            public Long getCurrent() {
+                return current;
+            }
+
+            @Override
+            public Long getFuture() {
+                return future;
+            }
+
+            @Override
+            public Long getPast() {
+                return past;
+            }
+
+            @Override
+            public Long getArchived() {
+                return archived;
+            }
+        };
+    }
+
+}
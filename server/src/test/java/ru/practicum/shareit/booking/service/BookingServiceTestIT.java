@@ -9,6 +9,7 @@ import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -53,7 +54,7 @@ class BookingServiceTestIT {
         entityManager.flush();
 
         List<BookingDto> targetBookings = bookingService.getBookingsCurrentUser(booker.getId(),
-                "ALL", 0, 10);
+                "ALL", 0, 10, FieldSet.ALL);
 
         assertThat(targetBookings, hasSize(bookings.size()));
         for (BookingCreateDto sourceBooking : bookings) {
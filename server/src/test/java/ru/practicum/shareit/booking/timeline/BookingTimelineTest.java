@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.timeline;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.timeline.BookingTimeline.Interval;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingTimelineTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(10);
+
+    @Test
+    void shouldMergeWithoutBookings_ReturnWholeWindowFree() {
+        ItemAvailabilityDto availability = BookingTimeline.merge(1L, FROM, TO, Collections.emptyList());
+
+        assertTrue(availability.getBusy().isEmpty());
+        assertEquals(List.of(interval(0, 10)), availability.getFree());
+    }
+
+    @Test
+    void shouldMergeOverlappingBookings_ReturnJoinedBusyIntervals() {
+        List<Interval> bookings = List.of(
+                booking(1, 3),
+                booking(2, 5),
+                booking(3, 4),
+                booking(5, 6),
+                booking(8, 9));
+
+        ItemAvailabilityDto availability = BookingTimeline.merge(1L, FROM, TO, bookings);
+
+        assertEquals(List.of(interval(1, 6), interval(8, 9)), availability.getBusy());
+        assertEquals(List.of(interval(0, 1), interval(6, 8), interval(9, 10)), availability.getFree());
+    }
+
+    @Test
+    void shouldMergeBookingsCrossingWindow_ReturnClippedIntervals() {
+        List<Interval> bookings = List.of(
+                booking(-5, -1),
+                booking(-2, 2),
+                booking(9, 12),
+                booking(11, 13));
+
+        ItemAvailabilityDto availability = BookingTimeline.merge(1L, FROM, TO, bookings);
+
+        assertEquals(List.of(interval(0, 2), interval(9, 10)), availability.getBusy());
+        assertEquals(List.of(interval(2, 9)), availability.getFree());
+    }
+
+    private static Interval booking(int startDay, int endDay) {
+        return new Interval(FROM.plusDays(startDay), FROM.plusDays(endDay));
+    }
+
+    private static AvailabilityIntervalDto interval(int startDay, int endDay) {
+        return new AvailabilityIntervalDto(FROM.plusDays(startDay), FROM.plusDays(endDay));
+    }
+
+}
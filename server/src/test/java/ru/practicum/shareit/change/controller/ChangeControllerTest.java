@@ -0,0 +1,57 @@
+package ru.practicum.shareit.change.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.change.dto.ChangesDto;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.change.service.ChangeService;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeController.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private final ChangeService changeService;
+
+    @Test
+    void shouldGetChanges_ReturnChangesAndNextToken() throws Exception {
+        ChangesDto changes = ChangesDto.builder()
+                .next(12L)
+                .users(Collections.emptyList())
+                .items(List.of(ItemDto.builder().id(3L).name("Drill").build()))
+                .bookings(Collections.emptyList())
+                .comments(Collections.emptyMap())
+                .requests(Collections.emptyList())
+                .deleted(Map.of(EntityType.BOOKING, List.of(4L)))
+                .build();
+        when(changeService.getChanges(1L, 7L, 500)).thenReturn(changes);
+
+        mockMvc.perform(get("/changes")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("since", "7"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next", is(12)))
+                .andExpect(jsonPath("$.items[0].id", is(3)))
+                .andExpect(jsonPath("$.deleted.BOOKING[0]", is(4)));
+    }
+
+}
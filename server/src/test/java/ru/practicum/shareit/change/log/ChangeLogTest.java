@@ -0,0 +1,98 @@
+package ru.practicum.shareit.change.log;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.change.model.Change;
+import ru.practicum.shareit.change.model.ChangedEntity;
+import ru.practicum.shareit.change.model.EntityType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "shareit.changes.publish-batch-size=2")
+@Import(ChangeLog.class)
+class ChangeLogTest {
+
+    @Autowired
+    private ChangeLog changeLog;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRecordChanges_ReadThemInOrderOncePublished() {
+        changeLog.record(EntityType.ITEM, 7L, 1L, null);
+        changeLog.record(EntityType.BOOKING, List.of(new ChangedEntity(3L, 2L, 1L), new ChangedEntity(4L, 2L, 5L)));
+
+        assertTrue(changeLog.readAfter(0, 10).isEmpty());
+
+        changeLog.publish();
+        long since = lastSeq() - 3;
+        List<Change> changes = changeLog.readAfter(since, 10);
+
+        assertEquals(List.of(since + 1, since + 2, since + 3), seqs(changes));
+        assertEquals(EntityType.ITEM, changes.get(0).getEntityType());
+        assertEquals(7L, changes.get(0).getEntityId());
+        assertTrue(changes.get(0).concerns(1L));
+        assertNull(changes.get(0).getOtherUserId());
+        assertTrue(changes.get(2).concerns(5L));
+        assertFalse(changes.get(2).concerns(1L));
+        assertEquals(List.of(since + 1, since + 2), seqs(changeLog.readAfter(since, 2)));
+        assertEquals(List.of(since + 3), seqs(changeLog.readAfter(since + 2, 10)));
+        assertEquals(0, count("select count(*) from pending_changes"));
+    }
+
+    @Test
+    void shouldPublishInBatches_KeepRecordOrder() {
+        changeLog.record(EntityType.USER, List.of(1L, 2L, 3L, 4L, 5L));
+
+        changeLog.publish();
+
+        List<Change> changes = changeLog.readAfter(lastSeq() - 5, 10);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                changes.stream().map(Change::getEntityId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldReadOverGap() {
+        long since = lastSeq() + 1_000_000;
+        insert(since + 1);
+        insert(since + 3);
+
+        assertEquals(List.of(since + 1, since + 3), seqs(changeLog.readAfter(since, 10)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRecordWithoutTransaction_Throw() {
+        assertThrows(IllegalTransactionStateException.class, () -> changeLog.record(EntityType.USER, 1L));
+    }
+
+    private void insert(long seq) {
+        jdbcTemplate.update("insert into changes (seq, entity_type, entity_id, changed_at) values (?, ?, ?, ?)",
+                seq, EntityType.ITEM.name(), seq, LocalDateTime.now());
+    }
+
+    private long lastSeq() {
+        Long seq = jdbcTemplate.queryForObject("select max(seq) from changes", Long.class);
+        return seq != null ? seq : 0;
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static List<Long> seqs(List<Change> changes) {
+        return changes.stream().map(Change::getSeq).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.change.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.change.dto.ChangesDto;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.Change;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    @Mock
+    private ChangeLog changeLog;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingArchiveRepository bookingArchiveRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @InjectMocks
+    private ChangeServiceImpl changeService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+        item = Item.builder().id(10L).name("Drill").description("Drill").isAvailable(true).owner(owner)
+                .commentCount(1L).build();
+    }
+
+    @Test
+    void shouldGetChanges_LoadEachEntityOnceAndReportDeleted() {
+        when(changeLog.readAfter(5L, 100)).thenReturn(List.of(
+                change(6, EntityType.ITEM, 10, 1L, null),
+                change(7, EntityType.USER, 2, null, null),
+                change(8, EntityType.ITEM, 11, 1L, null),
+                change(9, EntityType.ITEM, 10, 1L, null),
+                change(10, EntityType.BOOKING, 20, 2L, 1L),
+                change(11, EntityType.BOOKING, 21, 2L, 1L),
+                change(12, EntityType.COMMENT, 30, 2L, 1L),
+                change(13, EntityType.REQUEST, 40, 1L, null),
+                change(14, EntityType.BOOKING, 22, 2L, 1L),
+                change(15, EntityType.BOOKING, 23, 4L, 5L),
+                change(16, EntityType.USER, 3, null, null)));
+        when(bookingRepository.findCounterpartIds(owner.getId(), Set.of(2L, 3L))).thenReturn(List.of(2L));
+        when(userService.getUsersByIds(List.of(2L))).thenReturn(List.of(UserDto.builder().id(2L).build()));
+        when(itemRepository.findWithOwnerByIdIn(Set.of(10L, 11L))).thenReturn(List.of(item));
+        Booking booking = Booking.builder().id(20L).start(NOW).end(NOW.plusDays(1)).item(item).booker(booker)
+                .status(StatusBooking.APPROVED).build();
+        Booking archived = Booking.builder().id(22L).start(NOW.minusYears(2)).end(NOW.minusYears(2).plusDays(1))
+                .item(item).booker(booker).status(StatusBooking.APPROVED).build();
+        when(bookingRepository.findVisibleByIdIn(Set.of(20L, 21L, 22L), owner.getId())).thenReturn(List.of(booking));
+        when(bookingArchiveRepository.findVisibleByIdIn(List.of(21L, 22L), owner.getId()))
+                .thenReturn(List.of(archived));
+        Comment comment = Comment.builder().id(30L).text("text").item(item).author(booker).created(NOW).build();
+        when(commentRepository.findWithAuthorByIdIn(Set.of(30L))).thenReturn(List.of(comment));
+        ItemRequest request = ItemRequest.builder().id(40L).description("need").requestor(owner).created(NOW)
+                .build();
+        when(itemRequestRepository.findWithRequestorByIdIn(Set.of(40L))).thenReturn(List.of(request));
+        when(itemRepository.findByRequestIdIn(List.of(40L))).thenReturn(Collections.emptyList());
+
+        ChangesDto changes = changeService.getChanges(owner.getId(), 5L, 100);
+
+        assertEquals(16L, changes.getNext());
+        assertEquals(1, changes.getUsers().size());
+        assertEquals(2L, changes.getUsers().get(0).getId());
+        assertEquals(1, changes.getItems().size());
+        assertEquals(10L, changes.getItems().get(0).getId());
+        assertEquals(20L, changes.getBookings().get(0).getId());
+        assertEquals(22L, changes.getBookings().get(1).getId());
+        assertEquals(30L, changes.getComments().get(10L).get(0).getId());
+        assertEquals(40L, changes.getRequests().get(0).getId());
+        assertEquals(Map.of(EntityType.ITEM, List.of(11L), EntityType.BOOKING, List.of(21L)),
+                changes.getDeleted());
+        verify(userService).validateUserById(owner.getId());
+        verify(itemRepository, times(1)).findWithOwnerByIdIn(any());
+    }
+
+    @Test
+    void shouldGetChangesOfOtherUsersOnly_SkipThemWithoutLoading() {
+        when(changeLog.readAfter(5L, 100)).thenReturn(List.of(
+                change(6, EntityType.BOOKING, 20, 4L, 5L),
+                change(7, EntityType.ITEM, 10, 5L, 4L),
+                change(8, EntityType.USER, 4, null, null)));
+        when(bookingRepository.findCounterpartIds(owner.getId(), Set.of(4L))).thenReturn(Collections.emptyList());
+
+        ChangesDto changes = changeService.getChanges(owner.getId(), 5L, 100);
+
+        assertEquals(8L, changes.getNext());
+        assertTrue(changes.getUsers().isEmpty());
+        assertTrue(changes.getBookings().isEmpty());
+        assertTrue(changes.getDeleted().isEmpty());
+        verifyNoInteractions(itemRepository, bookingArchiveRepository, commentRepository, itemRequestRepository);
+        verify(bookingRepository, never()).findVisibleByIdIn(any(), any());
+    }
+
+    @Test
+    void shouldGetChangesWhenNothingChanged_ReturnSameToken() {
+        when(changeLog.readAfter(5L, 100)).thenReturn(Collections.emptyList());
+
+        ChangesDto changes = changeService.getChanges(owner.getId(), 5L, 100);
+
+        assertEquals(5L, changes.getNext());
+        assertTrue(changes.getItems().isEmpty());
+        assertTrue(changes.getDeleted().isEmpty());
+        verifyNoInteractions(itemRepository, bookingRepository, bookingArchiveRepository, commentRepository,
+                itemRequestRepository);
+    }
+
+    private static Change change(long seq, EntityType entityType, long entityId, Long userId, Long otherUserId) {
+        return new Change(seq, entityType, entityId, NOW, userId, otherUserId);
+    }
+
+}
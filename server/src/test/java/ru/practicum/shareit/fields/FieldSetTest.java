@@ -0,0 +1,56 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSetTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldParseBlankFields_SelectAll() {
+        assertSame(FieldSet.ALL, FieldSet.of(null, ItemDto.class));
+        assertSame(FieldSet.ALL, FieldSet.of(" ", ItemDto.class));
+        assertTrue(FieldSet.ALL.contains("lastComment"));
+    }
+
+    @Test
+    void shouldParseFields_AlwaysContainId() {
+        FieldSet fields = FieldSet.of("name, available", ItemDto.class);
+
+        assertTrue(fields.contains("id"));
+        assertTrue(fields.contains("available"));
+        assertFalse(fields.contains("lastComment"));
+        assertEquals(FieldSet.of("available,name", ItemDto.class), fields);
+    }
+
+    @Test
+    void shouldParseUnknownField_ThrowValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> FieldSet.of("name,owner", ItemDto.class));
+
+        assertEquals("Unknown field: owner", exception.getMessage());
+    }
+
+    @Test
+    void shouldSelect_KeepOnlySelectedFields() {
+        ItemDto item = ItemDto.builder().id(1L).name("Drill").description("Drill").available(true).build();
+
+        List<?> all = FieldSet.ALL.select(objectMapper, List.of(item));
+        List<?> selected = FieldSet.of("name", ItemDto.class).select(objectMapper, List.of(item));
+
+        assertSame(item, all.get(0));
+        JsonNode node = (JsonNode) selected.get(0);
+        assertEquals(2, node.size());
+        assertEquals(1L, node.get("id").asLong());
+        assertEquals("Drill", node.get("name").asText());
+    }
+
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.graphql.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.test.tester.WebGraphQlTester;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.exception.UnsupportedStateException;
+import ru.practicum.shareit.graphql.service.GraphQlService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@GraphQlTest(GraphQlController.class)
+class GraphQlControllerTest {
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+    @MockBean
+    private GraphQlService service;
+
+    private WebGraphQlTester tester;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        WebGraphQlHandler handler = WebGraphQlHandler.builder(graphQlService)
+                .interceptor(new UserIdInterceptor())
+                .build();
+        tester = WebGraphQlTester.builder(handler)
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        owner = User.builder().id(1L).name("owner").email("owner@email.com").build();
+        item = Item.builder().id(1L).name("drill").description("description").isAvailable(true).owner(owner).build();
+    }
+
+    @Test
+    void shouldGetOwnerBookings_LoadItemsAndBookersOnceForAllBookings() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        List<CompactBookingDto> bookings = List.of(
+                makeBooking(1L, start, 2L),
+                makeBooking(2L, start.plusDays(1), 3L));
+        when(service.getOwnerBookings(1L, "ALL", 0, 20)).thenReturn(bookings);
+        when(service.getItemsByIds(Set.of(1L))).thenReturn(Map.of(1L, item));
+        when(service.getUsersByIds(Set.of(2L, 3L))).thenReturn(Map.of(
+                2L, UserDto.builder().id(2L).name("first").email("first@email.com").build(),
+                3L, UserDto.builder().id(3L).name("second").email("second@email.com").build()));
+
+        tester.document("{ ownerBookings { id start status item { name available owner { name } } booker { name } } }")
+                .execute()
+                .path("ownerBookings[*].start").entityList(String.class)
+                .containsExactly("2030-01-01T10:00:00", "2030-01-02T10:00:00")
+                .path("ownerBookings[0].item.owner.name").entity(String.class).isEqualTo("owner")
+                .path("ownerBookings[1].item.available").entity(Boolean.class).isEqualTo(true)
+                .path("ownerBookings[*].booker.name").entityList(String.class).containsExactly("first", "second");
+
+        verify(service, times(1)).getItemsByIds(any());
+        verify(service, times(1)).getUsersByIds(any());
+    }
+
+    @Test
+    void shouldGetRequestWithoutOffers_ReturnEmptyItems() {
+        ItemRequest request = ItemRequest.builder().id(5L).description("need a drill").requestor(owner).build();
+        when(service.getRequest(1L, 5L)).thenReturn(request);
+        when(service.getItemsByRequestIds(Set.of(5L))).thenReturn(Map.of());
+
+        tester.document("{ request(id: 5) { description requestor { name } items { id } } }")
+                .execute()
+                .path("request.requestor.name").entity(String.class).isEqualTo("owner")
+                .path("request.items").entityList(Object.class).hasSize(0);
+    }
+
+    @Test
+    void shouldGetBookingsIfStateFail_ReturnBadRequestError() {
+        when(service.getBookings(1L, "FAIL", 0, 20))
+                .thenThrow(new UnsupportedStateException("Unknown state: FAIL"));
+
+        tester.document("{ bookings(state: \"FAIL\") { id } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertEquals(1, errors.size());
+                    assertEquals(ErrorType.BAD_REQUEST, errors.get(0).getErrorType());
+                    assertEquals("Unknown state: FAIL", errors.get(0).getMessage());
+                });
+    }
+
+    @Test
+    void shouldQueryWithoutUserHeader_ReturnBadRequestError() {
+        tester.mutate().headers(headers -> headers.remove("X-Sharer-User-Id")).build()
+                .document("{ items { id } }")
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals(ErrorType.BAD_REQUEST, errors.get(0).getErrorType()));
+        verifyNoInteractions(service);
+    }
+
+    private CompactBookingDto makeBooking(Long id, LocalDateTime start, Long bookerId) {
+        return CompactBookingDto.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusHours(1))
+                .itemId(item.getId())
+                .bookerId(bookerId)
+                .status(StatusBooking.WAITING)
+                .build();
+    }
+
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.graphql.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.test.tester.WebGraphQlTester;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class GraphQlControllerTestIT {
+
+    private static final String QUERY = "query Bookings($size: Int) { ownerBookings(state: \"WAITING\", size: $size) {"
+            + " id booker { name } item { name owner { name } lastComment { text author { name } }"
+            + " request { description requestor { name } items { name owner { name } } } } } }";
+    private static final String CYCLIC_QUERY = "{ items { request { items { request { items { request { items {"
+            + " request { description } } } } } } } } }";
+
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRepository itemRepository;
+    private final WebGraphQlHandler webGraphQlHandler;
+
+    @Test
+    void shouldGetOwnerBookings_UseSameStatementsForAnyNumberOfBookings() {
+        User owner = makeUser("owner", "owner@email.com");
+        User requestor = makeUser("requestor", "requestor@email.com");
+        ItemRequest request = ItemRequest.builder()
+                .description("need tools")
+                .requestor(requestor)
+                .created(LocalDateTime.now())
+                .build();
+        entityManager.persist(request);
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bookers.add(makeUser("booker" + i, "booker" + i + "@email.com"));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 4; i++) {
+            Item item = Item.builder()
+                    .name("item" + i)
+                    .description("description")
+                    .isAvailable(true)
+                    .owner(owner)
+                    .request(request)
+                    .build();
+            entityManager.persist(item);
+            Comment comment = Comment.builder().text("text" + i).author(requestor).item(item)
+                    .created(LocalDateTime.now()).build();
+            entityManager.persist(comment);
+            entityManager.flush();
+            itemRepository.addComment(item.getId(), comment.getId());
+            for (User booker : bookers) {
+                entityManager.persist(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .status(StatusBooking.WAITING)
+                        .start(start)
+                        .end(start.plusHours(1))
+                        .build());
+                start = start.plusDays(1);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        WebGraphQlTester tester = WebGraphQlTester.builder(webGraphQlHandler)
+                .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                .build();
+        tester.document(QUERY).variable("size", 20).execute();
+
+        long oneBooking = countStatements(tester, 1);
+        long allBookings = countStatements(tester, 20);
+
+        // the bookings, their items, the requests and last comments of the items, and the items of the requests
+        assertEquals(5, allBookings);
+        assertEquals(oneBooking, allBookings);
+        tester.document(QUERY).variable("size", 20).execute()
+                .path("ownerBookings").entityList(Object.class).hasSize(12)
+                .path("ownerBookings[0].item.request.items").entityList(Object.class).hasSize(4)
+                .path("ownerBookings[0].item.lastComment.author.name").entity(String.class).isEqualTo("requestor");
+    }
+
+    @Test
+    void shouldGetTooDeepQuery_RejectBeforeExecution() {
+        WebGraphQlTester tester = WebGraphQlTester.builder(webGraphQlHandler)
+                .header("X-Sharer-User-Id", String.valueOf(makeUser("user", "user@email.com").getId()))
+                .build();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        tester.document(CYCLIC_QUERY).execute()
+                .errors().satisfy(errors -> {
+                    assertEquals(1, errors.size());
+                    assertTrue(errors.get(0).getMessage().contains("maximum query depth exceeded"));
+                });
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private long countStatements(WebGraphQlTester tester, int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+        tester.document(QUERY).variable("size", size).execute().errors().verify();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User makeUser(String name, String email) {
+        User user = User.builder()
+                .name(name)
+                .email(email)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+}
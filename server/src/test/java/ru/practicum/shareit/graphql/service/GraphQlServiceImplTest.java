@@ -0,0 +1,84 @@
+package ru.practicum.shareit.graphql.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GraphQlServiceImplTest {
+
+    @Mock
+    private UserService userService;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @InjectMocks
+    private GraphQlServiceImpl graphQlService;
+
+    @Test
+    void shouldGetItemsByRequestIds_GroupByRequest() {
+        ItemRequest first = ItemRequest.builder().id(1L).build();
+        ItemRequest second = ItemRequest.builder().id(2L).build();
+        Item drill = Item.builder().id(1L).request(first).build();
+        Item saw = Item.builder().id(2L).request(first).build();
+        Item ladder = Item.builder().id(3L).request(second).build();
+        when(itemRepository.findWithOwnerByRequestIdIn(Set.of(1L, 2L))).thenReturn(List.of(drill, saw, ladder));
+
+        Map<Long, List<Item>> items = graphQlService.getItemsByRequestIds(Set.of(1L, 2L));
+
+        assertEquals(Map.of(1L, List.of(drill, saw), 2L, List.of(ladder)), items);
+    }
+
+    @Test
+    void shouldGetByEmptyIds_NotQuery() {
+        assertTrue(graphQlService.getItemsByIds(Set.of()).isEmpty());
+        assertTrue(graphQlService.getUsersByIds(Set.of()).isEmpty());
+        assertTrue(graphQlService.getCommentsByIds(Set.of()).isEmpty());
+
+        verifyNoInteractions(itemRepository, userService, commentRepository);
+    }
+
+    @Test
+    void shouldGetBookingsIfSizeZero_ReturnValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> graphQlService.getBookings(1L, "ALL", 0, 0));
+
+        assertEquals("Wrong page: from=0, size=0", exception.getMessage());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void shouldGetOwnItemsIfSizeTooLarge_ReturnValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> graphQlService.getOwnItems(1L, 0, 101));
+
+        assertEquals("Wrong page: from=0, size=101", exception.getMessage());
+        verifyNoInteractions(itemRepository);
+    }
+
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.comment.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentCacheTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    private CommentCache commentCache;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        commentCache = new CommentCache(commentRepository, 2, 100, 4);
+        comment = Comment.builder()
+                .id(7L)
+                .text("text")
+                .item(Item.builder().id(1L).build())
+                .author(User.builder().id(2L).name("author").build())
+                .build();
+    }
+
+    @Test
+    void shouldGetPageTwice_ReadRepositoryOnce() {
+        when(commentRepository.findPageByItemId(1L, PageRequest.of(0, 2))).thenReturn(List.of(comment));
+
+        List<CommentDto> first = commentCache.getPage(1L, null, 2);
+        List<CommentDto> second = commentCache.getPage(1L, null, 2);
+
+        assertEquals(7L, first.get(0).getId());
+        assertSame(first, second);
+        verify(commentRepository, times(1)).findPageByItemId(1L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void shouldGetLatestAfterEviction_ReadRepositoryAgain() {
+        when(commentRepository.findPageByItemId(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(comment))
+                .thenReturn(Collections.emptyList());
+
+        List<CommentDto> latest = commentCache.getLatest(1L);
+        commentCache.evictAfterCommit(1L);
+        List<CommentDto> reloaded = commentCache.getLatest(1L);
+
+        assertEquals(1, latest.size());
+        assertTrue(reloaded.isEmpty());
+        verify(commentRepository, times(2)).findPageByItemId(1L, PageRequest.of(0, 2));
+    }
+
+}
@@ -8,10 +8,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -20,11 +24,12 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -71,7 +76,7 @@ class ItemControllerTest {
 
     @Test
     void shouldGetAllItems_ReturnListItems() throws Exception {
-        when(itemService.getAllItemsByUserId(1L, 0, 10))
+        when(itemService.getAllItemsByUserId(1L, 0, 10, FieldSet.ALL))
                 .thenReturn(List.of(itemOwnerDtoBuilder.id(1L).build()));
         mockMvc.perform(get(url)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -84,7 +89,7 @@ class ItemControllerTest {
 
     @Test
     void shouldGetAllItemsIfNoUsers_ReturnEmptyList() throws Exception {
-        when(itemService.getAllItemsByUserId(1L, 0, 10)).thenReturn(Collections.emptyList());
+        when(itemService.getAllItemsByUserId(1L, 0, 10, FieldSet.ALL)).thenReturn(Collections.emptyList());
         mockMvc.perform(get(url)
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", 1))
@@ -108,6 +113,33 @@ class ItemControllerTest {
                 .andExpect(content().json(json));
     }
 
+    @Test
+    void shouldGetItemByIdIfTagMatches_ReturnStatus304() throws Exception {
+        when(itemService.getItemTag(1L, 1L)).thenReturn(Optional.of("3-1"));
+        mockMvc.perform(get(url + "/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-1\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1\""))
+                .andExpect(content().string(""));
+        verify(itemService, never()).getItemById(1L, 1L);
+    }
+
+    @Test
+    void shouldGetItemByIdIfTagChanged_ReturnStatus200WithTag() throws Exception {
+        ItemOwnerDto itemOwnerDto = ItemOwnerDto.builder().id(1L).build();
+        when(itemService.getItemTag(1L, 1L)).thenReturn(Optional.of("4-1"));
+        when(itemService.getItemById(1L, 1L)).thenReturn(itemOwnerDto);
+        mockMvc.perform(get(url + "/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-1\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-1\""))
+                .andExpect(content().json(mapper.writeValueAsString(itemOwnerDto)));
+    }
+
     @Test
     void shouldGetItemByIdWhenNotExistingUserId_ReturnStatus404() throws Exception {
         when(itemService.getItemById(999L, 1L))
@@ -346,4 +378,45 @@ class ItemControllerTest {
                 .andExpect(content().json(jsonAdded));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetAvailability_ReturnBusyAndFreeIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 3, 0, 0);
+        LocalDateTime middle = LocalDateTime.of(2030, 1, 2, 0, 0);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .busy(List.of(new AvailabilityIntervalDto(from, middle)))
+                .free(List.of(new AvailabilityIntervalDto(middle, to)))
+                .build();
+
+        when(itemService.getAvailability(1L, 1L, from, to)).thenReturn(availability);
+        mockMvc.perform(get(url + "/1/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-03T00:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.free[0].start", is("2030-01-02T00:00:00")))
+                .andExpect(jsonPath("$.free[0].end", is("2030-01-03T00:00:00")));
+    }
+
+    @Test
+    void shouldGetComments_ReturnPage() throws Exception {
+        CommentDto outCommentDto = commentDtoBuilder.id(5L).authorName("name").build();
+
+        when(itemService.getComments(1L, 1L, 10L, 2)).thenReturn(List.of(outCommentDto));
+        mockMvc.perform(get(url + "/1/comments")
+                        .param("after", "10")
+                        .param("size", "2")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(5)));
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -78,17 +79,17 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void shouldFindAllByItemId_ReturnEmptyList() {
+    void shouldFindPageByItemId_ReturnEmptyList() {
         //EmptyList
-        List<Comment> comments = commentRepository.findCommentsByItem_Id(99L);
+        List<Comment> comments = commentRepository.findPageByItemId(99L, PageRequest.of(0, 10));
         assertNotNull(comments);
         assertEquals(0, comments.size());
     }
 
     @Test
-    void shouldFindAllByItemId_ReturnListComments() {
+    void shouldFindPageByItemId_ReturnListComments() {
         //Single List
-        List<Comment> comments = commentRepository.findCommentsByItem_Id(comment.getItem().getId());
+        List<Comment> comments = commentRepository.findPageByItemId(comment.getItem().getId(), PageRequest.of(0, 10));
         assertNotNull(comments);
         assertEquals(1, comments.size());
         assertEquals(comments.get(0).getId(), comment.getId());
@@ -101,31 +102,30 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void shouldFindAllByItemIdIn_ReturnEmptyList() {
-        List<Comment> comments = commentRepository.findCommentsByItemIn(List.of(item1));
-        assertNotNull(comments);
-        assertEquals(0, comments.size());
-    }
+    void shouldFindPageByItemIdAndIdBefore_ReturnOlderComments() {
+        Comment newer = commentRepository.save(Comment.builder().text("newer").item(item).author(author).build());
 
-    @Test
-    void shouldFindAllByItemIdIn_ReturnListComments() {
-        List<Comment> comments = commentRepository.findCommentsByItemIn(List.of(item));
-        assertNotNull(comments);
-        assertEquals(1, comments.size());
+        List<Comment> first = commentRepository.findPageByItemId(item.getId(), PageRequest.of(0, 1));
+        List<Comment> second = commentRepository.findPageByItemIdAndIdBefore(item.getId(), first.get(0).getId(),
+                PageRequest.of(0, 1));
+
+        assertEquals(newer.getId(), first.get(0).getId());
+        assertEquals(comment.getId(), second.get(0).getId());
     }
 
     @Test
-    void shouldFindAllByItemIdInWhenSort_ReturnListComments() {
+    void shouldFindWithAuthorByIdIn_ReturnNewestFirst() {
         Comment comment1 = new Comment();
         comment1.setText("comment1");
         comment1.setItem(item1);
         comment1.setAuthor(author);
         commentRepository.save(comment1);
 
-        List<Comment> comments = commentRepository.findCommentsByItemIn(List.of(item, item1));
-        assertNotNull(comments);
+        List<Comment> comments = commentRepository.findWithAuthorByIdIn(List.of(comment.getId(), comment1.getId()));
+
         assertEquals(2, comments.size());
-        assertEquals(comments.get(1).getId(), comment1.getId());
+        assertEquals(comment1.getId(), comments.get(0).getId());
+        assertEquals(author.getName(), comments.get(1).getAuthor().getName());
     }
 
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.persistence.Query;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -151,16 +152,26 @@ class ItemRepositoryTest {
         assertEquals(2, itemsSearch.size());
     }
 
+    @Test
+    void shouldSearchWhenOwnerDeleted_NotFindOwnerItems() {
+        userRepository.markDeleted(owner.getId(), LocalDateTime.now());
+        testEntityManager.clear();
+
+        assertEquals(0, itemRepository.search("Item", PAGE).size());
+        Item found = itemRepository.findById(item.getId()).orElseThrow();
+        assertNotNull(found.getOwner().getDeletedAt());
+    }
+
     @Test
     void shouldFindByRequestId_ReturnEmptyList() {
-        List<Item> items = itemRepository.findAllByRequest_IdOrderByRequestDesc(0L);
+        List<Item> items = itemRepository.findAllByRequest_IdOrderById(0L);
         assertNotNull(items);
         assertEquals(0, items.size());
     }
 
     @Test
     void shouldFindByRequestId_ReturnListItems() {
-        List<Item> items = itemRepository.findAllByRequest_IdOrderByRequestDesc(itemRequest.getId());
+        List<Item> items = itemRepository.findAllByRequest_IdOrderById(itemRequest.getId());
         assertNotNull(items);
         assertEquals(1, items.size());
         assertEquals(item.getId(), items.get(0).getId());
@@ -181,4 +192,44 @@ class ItemRepositoryTest {
         assertEquals(item.getId(), items.get(0).getId());
     }
 
+    @Test
+    void shouldAddComment_IncrementCountAndKeepNewestPointer() {
+        itemRepository.addComment(item.getId(), 5L);
+        itemRepository.addComment(item.getId(), 3L);
+        testEntityManager.clear();
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(2, updated.getCommentCount());
+        assertEquals(5L, updated.getLastCommentId());
+        assertEquals(2L, updated.getVersion());
+    }
+
+    @Test
+    void shouldFindVersionById_ReturnVersionAndOwner() {
+        item.setName("Renamed");
+        itemRepository.saveAndFlush(item);
+        itemRepository.incrementVersion(item.getId());
+        testEntityManager.clear();
+
+        ItemVersionView view = itemRepository.findVersionById(item.getId()).orElseThrow();
+        assertEquals(1L, view.getVersion());
+        assertEquals(owner.getId(), view.getOwnerId());
+    }
+
+    @Test
+    void shouldSaveItemLoadedBeforeVersionChanged_KeepVersion() {
+        itemRepository.flush();
+        testEntityManager.clear();
+        Item stale = itemRepository.findById(item.getId()).orElseThrow();
+        itemRepository.addComment(item.getId(), 5L);
+
+        stale.setName("Renamed");
+        itemRepository.saveAndFlush(stale);
+        testEntityManager.clear();
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Renamed", updated.getName());
+        assertEquals(1L, updated.getVersion());
+    }
+
 }
\ No newline at end of file
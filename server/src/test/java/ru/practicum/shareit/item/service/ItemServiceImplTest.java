@@ -3,22 +3,39 @@ package ru.practicum.shareit.item.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.comment.cache.CommentCache;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersionView;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
+import ru.practicum.shareit.request.event.OfferEvent;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.ItemTermIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -26,6 +43,8 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,9 +58,27 @@ class ItemServiceImplTest {
     @Mock
     BookingRepository bookingRepository;
     @Mock
+    BookingArchiveRepository bookingArchiveRepository;
+    @Mock
     CommentRepository commentRepository;
     @Mock
     UserService userService;
+    @Mock
+    BookingTimeline bookingTimeline;
+    @Mock
+    CommentCache commentCache;
+    @Mock
+    RequestFeed requestFeed;
+    @Mock
+    ItemTermIndex itemTermIndex;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    RequestDetailCache requestDetailCache;
+    @Mock
+    ChangeLog changeLog;
     @InjectMocks
     ItemServiceImpl itemService;
 
@@ -98,7 +135,7 @@ class ItemServiceImplTest {
         long userId = booker.getId();
         when(itemRepository.findAllByOwnerId(any(), any())).thenReturn(Collections.emptyList());
 
-        List<ItemOwnerDto> itemDtos = itemService.getAllItemsByUserId(userId, 0, 1);
+        List<ItemOwnerDto> itemDtos = itemService.getAllItemsByUserId(userId, 0, 1, FieldSet.ALL);
 
         assertNotNull(itemDtos);
         assertEquals(0, itemDtos.size());
@@ -110,12 +147,33 @@ class ItemServiceImplTest {
         PageRequest pageRequest = PageRequest.of(0, 1, Sort.by("id"));
         when(itemRepository.findAllByOwnerId(userId, pageRequest)).thenReturn(List.of(item));
         when(bookingRepository.findBookingsByItemIn(List.of(item))).thenReturn(List.of(booking));
+        item.setCommentCount(3);
+        item.setLastCommentId(comment.getId());
+        when(commentRepository.findWithAuthorByIdIn(List.of(comment.getId()))).thenReturn(List.of(comment));
 
-        List<ItemOwnerDto> itemOwnerDtos = itemService.getAllItemsByUserId(userId, 0, 1);
+        List<ItemOwnerDto> itemOwnerDtos = itemService.getAllItemsByUserId(userId, 0, 1, FieldSet.ALL);
 
         assertNotNull(itemOwnerDtos);
         assertEquals(1, itemOwnerDtos.size());
         assertEquals(booking.getId(), itemOwnerDtos.get(0).getLastBooking().getId());
+        assertEquals(3L, itemOwnerDtos.get(0).getCommentCount());
+        assertEquals(comment.getId(), itemOwnerDtos.get(0).getLastComment().getId());
+        assertNull(itemOwnerDtos.get(0).getComments());
+    }
+
+    @Test
+    void shouldGetAllItemsByUserIdWithoutBookingsAndComments_ReadOnlyItems() {
+        long userId = owner.getId();
+        item.setLastCommentId(comment.getId());
+        when(itemRepository.findAllByOwnerId(eq(userId), any())).thenReturn(List.of(item));
+
+        List<ItemOwnerDto> itemOwnerDtos = itemService.getAllItemsByUserId(userId, 0, 1,
+                FieldSet.of("name,available", ItemOwnerDto.class));
+
+        assertEquals(item.getName(), itemOwnerDtos.get(0).getName());
+        assertNull(itemOwnerDtos.get(0).getLastBooking());
+        assertNull(itemOwnerDtos.get(0).getLastComment());
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
@@ -124,13 +182,62 @@ class ItemServiceImplTest {
         long itemId = item.getId();
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingRepository.findBookingsByItem_Id(itemId)).thenReturn(List.of(booking));
-        when(commentRepository.findCommentsByItem_Id(itemId)).thenReturn(List.of(comment));
+        item.setCommentCount(25);
+        when(commentCache.getLatest(itemId)).thenReturn(List.of(CommentMapper.toCommentDto(comment)));
 
         ItemOwnerDto itemOwnerDto = itemService.getItemById(ownerId, itemId);
 
         assertNotNull(itemOwnerDto);
         assertEquals(itemId, itemOwnerDto.getId());
         assertEquals(comment.getId(), itemOwnerDto.getComments().get(0).getId());
+        assertEquals(25L, itemOwnerDto.getCommentCount());
+        assertEquals(comment.getId(), itemOwnerDto.getLastComment().getId());
+    }
+
+    @Test
+    void shouldGetItemByIdWhenOwnerDeleted_ReturnObjectNotFoundException() {
+        owner.setDeletedAt(LocalDateTime.now());
+        long itemId = item.getId();
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getItemById(booker.getId(), itemId));
+        verifyNoInteractions(bookingRepository, commentCache);
+    }
+
+    @Test
+    void shouldGetItemTagForOwner_AddStartedBookings() {
+        when(itemRepository.findVersionById(item.getId())).thenReturn(Optional.of(versionView(7L, owner.getId())));
+        when(bookingRepository.countByItem_IdAndStatusAndStartBefore(eq(item.getId()), eq(StatusBooking.APPROVED),
+                any())).thenReturn(2L);
+
+        assertEquals(Optional.of("7-2"), itemService.getItemTag(owner.getId(), item.getId()));
+    }
+
+    @Test
+    void shouldGetItemTagForOtherUser_ReturnVersion() {
+        when(itemRepository.findVersionById(item.getId())).thenReturn(Optional.of(versionView(7L, owner.getId())));
+
+        assertEquals(Optional.of("7"), itemService.getItemTag(booker.getId(), item.getId()));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void shouldGetComments_ReturnCachedPage() {
+        long userId = booker.getId();
+        long itemId = item.getId();
+        List<CommentDto> page = List.of(CommentMapper.toCommentDto(comment));
+        when(itemRepository.existsById(itemId)).thenReturn(true);
+        when(commentCache.getPage(itemId, 50L, 10)).thenReturn(page);
+
+        assertEquals(page, itemService.getComments(userId, itemId, 50L, 10));
+    }
+
+    @Test
+    void shouldGetCommentsWhenItemNotFound_ReturnObjectNotFoundException() {
+        when(itemRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getComments(1L, 99L, null, 10));
+        verifyNoInteractions(commentCache);
     }
 
     @Test
@@ -144,6 +251,18 @@ class ItemServiceImplTest {
         assertEquals(item.getId(), itemDtos.get(0).getId());
     }
 
+    @Test
+    void shouldGetItemsByIds_ReturnFoundItemsInRequestOrder() {
+        Item other = Item.builder().id(2L).name("Other").isAvailable(true).owner(owner).build();
+        when(itemRepository.findWithOwnerByIdIn(Set.of(2L, 1L, 9L))).thenReturn(List.of(item, other));
+
+        List<ItemDto> itemDtos = itemService.getItemsByIds(booker.getId(), List.of(2L, 1L, 9L, 2L));
+
+        assertEquals(List.of(2L, 1L), itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        verify(userService).validateUserById(booker.getId());
+        verifyNoInteractions(commentRepository);
+    }
+
     @Test
     void shouldGetSearchItem_ReturnEmptyList() {
         List<ItemDto> itemDtos = itemService.getSearchItem("", 0, 1);
@@ -167,6 +286,39 @@ class ItemServiceImplTest {
         assertNotNull(itemDto);
         assertEquals(itemId, itemDto.getId());
         verify(itemRepository, times(1)).save(any());
+        verify(changeLog).record(EntityType.ITEM, itemId, userId, null);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldSaveItemForRequest_PublishOfferToRequestor() {
+        long userId = owner.getId();
+        ItemRequest request = ItemRequest.builder()
+                .id(3L)
+                .description("Need an item")
+                .requestor(booker)
+                .created(LocalDateTime.now())
+                .build();
+        item.setRequest(request);
+        when(itemRequestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+        when(itemRepository.save(any())).thenReturn(item);
+
+        ItemDto saveItemDto = ItemDto.builder()
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getIsAvailable())
+                .requestId(request.getId())
+                .build();
+        ItemDto itemDto = itemService.saveItem(userId, saveItemDto);
+
+        ArgumentCaptor<OfferEvent> event = ArgumentCaptor.forClass(OfferEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(booker.getId(), event.getValue().getRequestorId());
+        assertEquals(itemDto, event.getValue().getItem());
+        assertEquals(request.getId(), event.getValue().getItem().getRequestId());
+        verify(requestFeed).refreshAfterCommit(request.getId());
+        verify(requestDetailCache).putOfferAfterCommit(request.getId(), itemDto);
+        verify(itemRequestRepository).incrementVersion(request.getId());
     }
 
     @Test
@@ -188,6 +340,7 @@ class ItemServiceImplTest {
         ItemDto itemDto = itemService.updateItem(userId, itemId, itemDtoToUpdate);
         assertNotNull(itemDto);
         assertEquals("nameUpdate", itemDto.getName());
+        verify(itemRepository).incrementVersion(itemId);
     }
 
     @Test
@@ -196,9 +349,8 @@ class ItemServiceImplTest {
         long itemId = item.getId();
         when(userService.getById(userId)).thenReturn(booker);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findBookingsByItem_IdAndStatusOrderByEndAsc(itemId, StatusBooking.APPROVED))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(eq(itemId), eq(userId),
+                eq(StatusBooking.APPROVED), any())).thenReturn(true);
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
         CommentDto commentDto = CommentDto.builder().text("text").build();
 
@@ -207,6 +359,10 @@ class ItemServiceImplTest {
         assertNotNull(commentDtoOut);
         assertEquals(comment.getId(), commentDtoOut.getId());
         verify(commentRepository, times(1)).save(any());
+        verify(itemRepository).addComment(itemId, comment.getId());
+        verify(commentCache).evictAfterCommit(itemId);
+        verify(changeLog).record(EntityType.COMMENT, comment.getId(), userId, owner.getId());
+        verify(changeLog).record(EntityType.ITEM, itemId, owner.getId(), null);
     }
 
     @Test
@@ -214,9 +370,10 @@ class ItemServiceImplTest {
         long itemId = item.getId();
         long ownerId = owner.getId();
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findBookingsByItem_IdAndStatusOrderByEndAsc(anyLong(), any()))
-                .thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
+        when(bookingArchiveRepository.existsByItemIdAndBookerIdAndStatus(itemId, ownerId,
+                StatusBooking.APPROVED.name())).thenReturn(false);
         String error = "You can add a comment only after the booking is completed.";
 
         ValidationException exception = assertThrows(ValidationException.class,
@@ -225,4 +382,35 @@ class ItemServiceImplTest {
         assertEquals(error, exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldCreateCommentWhenBookingArchived_ReturnCommentDto() {
+        long userId = booker.getId();
+        long itemId = item.getId();
+        when(userService.getById(userId)).thenReturn(booker);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
+        when(bookingArchiveRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId,
+                StatusBooking.APPROVED.name())).thenReturn(true);
+        when(commentRepository.save(any(Comment.class))).thenReturn(comment);
+
+        CommentDto commentDtoOut = itemService.createComment(userId, itemId, CommentDto.builder().text("text").build());
+
+        assertEquals(comment.getId(), commentDtoOut.getId());
+    }
+
+    private static ItemVersionView versionView(Long version, Long ownerId) {
+        return new ItemVersionView() {
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+        };
+    }
+
+}
@@ -7,11 +7,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.enums.StatusBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
@@ -29,6 +31,7 @@ class ItemServiceTestIT {
 
     private final EntityManager entityManager;
     private final ItemService itemService;
+    private final ItemRepository itemRepository;
 
     @Test
     void shouldFindAllByUserId_ReturnListItems() {
@@ -56,8 +59,10 @@ class ItemServiceTestIT {
         Comment comment = makeComment("text", booker, savedItems.get(0));
         entityManager.persist(comment);
         entityManager.flush();
+        itemRepository.addComment(savedItems.get(0).getId(), comment.getId());
+        entityManager.clear();
 
-        List<ItemOwnerDto> items = itemService.getAllItemsByUserId(owner.getId(), 0, 10);
+        List<ItemOwnerDto> items = itemService.getAllItemsByUserId(owner.getId(), 0, 10, FieldSet.ALL);
 
         assertThat(items, hasSize(itemDtos.size()));
         for (ItemDto request : itemDtos) {
@@ -66,9 +71,10 @@ class ItemServiceTestIT {
                     hasProperty("description", equalTo(request.getDescription()))
             )));
         }
-        assertThat(items, hasItem(
-                hasProperty("comments", notNullValue())
-        ));
+        assertThat(items, hasItem(allOf(
+                hasProperty("commentCount", equalTo(1L)),
+                hasProperty("lastComment", notNullValue())
+        )));
 
         assertThat(items, hasItem(
                 hasProperty("lastBooking", notNullValue())
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestDetailCacheTest {
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private RequestDetailCache requestDetailCache;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        requestDetailCache = new RequestDetailCache(itemRequestRepository, itemRepository, 10);
+        User requestor = User.builder().id(1L).name("requestor").email("requestor@mail.ru").build();
+        User owner = User.builder().id(2L).name("owner").email("owner@mail.ru").build();
+        request = ItemRequest.builder()
+                .id(3L)
+                .description("Need a drill")
+                .requestor(requestor)
+                .created(LocalDateTime.of(2023, 1, 1, 12, 0))
+                .build();
+        item = Item.builder().id(4L).name("Drill").description("Drill").isAvailable(true).owner(owner)
+                .request(request).build();
+    }
+
+    @Test
+    void shouldGetRequestTwice_ReadRepositoriesOnce() {
+        when(itemRequestRepository.findById(3L)).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequest_IdOrderById(3L)).thenReturn(List.of(item));
+
+        ItemRequestDto first = requestDetailCache.get(3L).orElseThrow();
+        ItemRequestDto second = requestDetailCache.get(3L).orElseThrow();
+
+        assertEquals(first, second);
+        assertEquals(List.of(4L), offerIds(second));
+        verify(itemRequestRepository, times(1)).findById(3L);
+        verify(itemRepository, times(1)).findAllByRequest_IdOrderById(3L);
+    }
+
+    @Test
+    void shouldGetEmpty_WhenRequestNotFound() {
+        when(itemRequestRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertTrue(requestDetailCache.get(3L).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void shouldPutOffers_WithoutReadingRepositoriesAgain() {
+        when(itemRequestRepository.findById(3L)).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequest_IdOrderById(3L)).thenReturn(List.of(item));
+        requestDetailCache.get(3L);
+
+        requestDetailCache.putOfferAfterCommit(3L, offer(5L, "Hammer"));
+        requestDetailCache.putOfferAfterCommit(3L, offer(4L, "Cordless drill"));
+        ItemRequestDto dto = requestDetailCache.get(3L).orElseThrow();
+
+        assertEquals(List.of(4L, 5L), offerIds(dto));
+        assertEquals("Cordless drill", dto.getItems().get(0).getName());
+        verify(itemRequestRepository, times(1)).findById(3L);
+        verify(itemRepository, times(1)).findAllByRequest_IdOrderById(3L);
+    }
+
+    @Test
+    void shouldNotCacheOffer_WhenRequestNotCached() {
+        requestDetailCache.putOfferAfterCommit(3L, offer(5L, "Hammer"));
+        when(itemRequestRepository.findById(3L)).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequest_IdOrderById(3L)).thenReturn(List.of(item));
+
+        assertEquals(List.of(4L), offerIds(requestDetailCache.get(3L).orElseThrow()));
+    }
+
+    @Test
+    void shouldReadRepositoriesAgain_AfterEvictAndClear() {
+        when(itemRequestRepository.findById(3L)).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequest_IdOrderById(3L)).thenReturn(List.of(item));
+
+        requestDetailCache.get(3L);
+        requestDetailCache.evictAfterCommit(3L);
+        requestDetailCache.get(3L);
+        requestDetailCache.clearAfterCommit();
+        requestDetailCache.get(3L);
+
+        verify(itemRequestRepository, times(3)).findById(3L);
+    }
+
+    private static ItemDto offer(long id, String name) {
+        return ItemDto.builder().id(id).name(name).description(name).available(true).requestId(3L).build();
+    }
+
+    private static List<Long> offerIds(ItemRequestDto dto) {
+        return dto.getItems().stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+
+}
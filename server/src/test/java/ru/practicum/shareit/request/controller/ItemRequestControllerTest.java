@@ -10,8 +10,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.feed.RequestFeedPage;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.text.SimpleDateFormat;
@@ -60,10 +64,11 @@ class ItemRequestControllerTest {
 
     @Test
     void getAllRequestsWithOffers_ReturnList() throws Exception {
-        when(itemRequestService.getAllRequestsWithOffers(1L))
+        when(itemRequestService.getAllRequestsWithOffers(1L, 0, 500))
                 .thenReturn(List.of(itemRequestDtoBuilder.id(1L).build()));
         mockMvc.perform(get(url)
-                        .header("X-Sharer-User-Id", 1))
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "0"))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(1)))
@@ -72,17 +77,33 @@ class ItemRequestControllerTest {
 
     @Test
     void getAllRequestsWithOffers_ReturnEmptyList() throws Exception {
-        when(itemRequestService.getAllRequestsWithOffers(1L)).thenReturn(Collections.emptyList());
+        when(itemRequestService.getOwnRequests(2L, null, 500))
+                .thenReturn(new RequestFeedPage(Collections.emptyList(), null));
         mockMvc.perform(get(url)
                         .header("X-Sharer-User-Id", 2))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ItemRequestController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    void getOwnRequestsByCursor_ReturnStatus200AndNextCursor() throws Exception {
+        when(itemRequestService.getOwnRequests(1L, "abc", 1))
+                .thenReturn(new RequestFeedPage(List.of(itemRequestDtoBuilder.id(1L).build()), "def"));
+        mockMvc.perform(get(url)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(ItemRequestController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
     @Test
     void getAllRequestsWithOffersWithNotFoundUser_ReturnStatus404() throws Exception {
-        when(itemRequestService.getAllRequestsWithOffers(999L))
+        when(itemRequestService.getOwnRequests(999L, null, 500))
                 .thenThrow(new ObjectNotFoundException(String.format("User not found: id=%d", 999L)));
         mockMvc.perform(get(url)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -145,6 +166,62 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.size()", is(1)));
     }
 
+    @Test
+    void shouldGetRequestsByCursor_ReturnStatus200AndNextCursor() throws Exception {
+        when(itemRequestService.getFeed(1L, "abc", 1))
+                .thenReturn(new RequestFeedPage(List.of(itemRequestDtoBuilder.id(1L).build()), "def"));
+        mockMvc.perform(get(url + "/all")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(ItemRequestController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void shouldGetLastPageByCursor_ReturnStatus200WithoutNextCursor() throws Exception {
+        when(itemRequestService.getFeed(1L, null, 500))
+                .thenReturn(new RequestFeedPage(Collections.emptyList(), null));
+        mockMvc.perform(get(url + "/all")
+                        .header("X-Sharer-User-Id", 1))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ItemRequestController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    @Test
+    void shouldStream_StartAsyncEventStream() throws Exception {
+        when(itemRequestService.subscribe(1L, null)).thenReturn(new SseEmitter());
+        mockMvc.perform(get(url + "/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void shouldGetMatches_ReturnStatus200AndCorrectJson() throws Exception {
+        RequestMatchDto match = RequestMatchDto.builder()
+                .id(5L)
+                .request(itemRequestDtoBuilder.id(1L).build())
+                .item(ItemDto.builder().id(7L).name("Drill").build())
+                .score(2)
+                .build();
+        when(itemRequestService.getMatches(1L, 0, 10)).thenReturn(List.of(match));
+        mockMvc.perform(get(url + "/matches")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(5)))
+                .andExpect(jsonPath("$[0].request.id", is(1)))
+                .andExpect(jsonPath("$[0].item.id", is(7)))
+                .andExpect(jsonPath("$[0].score", is(2)));
+    }
+
     @Test
     void shouldCreateRequest_ReturnStatus200AndCorrectJson() throws Exception {
         ItemRequestDto itemRequestDto = itemRequestDtoBuilder.build();
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestFeedTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder().id(1L).name("Alice").email("alice@mail.ru").build();
+        bob = User.builder().id(2L).name("Bob").email("bob@mail.ru").build();
+    }
+
+    @Test
+    void shouldSkipOwnRequestsAndReturnNextCursor() {
+        List<ItemRequest> newest = List.of(request(4, bob), request(3, alice), request(2, bob), request(1, bob));
+        when(itemRequestRepository.findNewest(PageRequest.of(0, 10))).thenReturn(newest);
+        RequestFeed feed = new RequestFeed(itemRequestRepository, itemRepository, 10);
+
+        RequestFeedPage first = feed.getPage(alice.getId(), null, 2);
+        RequestFeedPage second = feed.getPage(alice.getId(), FeedKey.fromCursor(first.getNextCursor()), 2);
+
+        assertEquals(List.of(4L, 2L), ids(first));
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(1L), ids(second));
+        assertNull(second.getNextCursor());
+        verify(itemRequestRepository, times(1)).findNewest(any());
+        verify(itemRequestRepository, never()).findFeedAfter(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldContinueFromDatabase_WhenWindowIsNotComplete() {
+        when(itemRequestRepository.findNewest(PageRequest.of(0, 2))).thenReturn(List.of(request(4, bob),
+                request(3, bob)));
+        ItemRequest older = request(2, bob);
+        when(itemRequestRepository.findFeedAfter(alice.getId(), START.plusMinutes(3), 3L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(older));
+        Item item = Item.builder().id(7L).name("Drill").description("Drill").isAvailable(true).owner(alice)
+                .request(older).build();
+        when(itemRepository.findByRequestIdIn(any())).thenReturn(Collections.emptyList())
+                .thenReturn(List.of(item));
+        RequestFeed feed = new RequestFeed(itemRequestRepository, itemRepository, 2);
+
+        RequestFeedPage page = feed.getPage(alice.getId(), null, 3);
+
+        assertEquals(List.of(4L, 3L, 2L), ids(page));
+        assertEquals(7L, page.getRequests().get(2).getItems().get(0).getId());
+    }
+
+    @Test
+    void shouldAddNewRequestAndRefreshOffers() {
+        ItemRequest existing = request(1, bob);
+        when(itemRequestRepository.findNewest(PageRequest.of(0, 10))).thenReturn(List.of(existing));
+        when(itemRepository.findByRequestIdIn(any())).thenReturn(Collections.emptyList());
+        RequestFeed feed = new RequestFeed(itemRequestRepository, itemRepository, 10);
+        feed.getPage(alice.getId(), null, 10);
+
+        feed.addAfterCommit(request(2, bob));
+        Item item = Item.builder().id(7L).name("Drill").description("Drill").isAvailable(true).owner(alice)
+                .request(existing).build();
+        when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(itemRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
+        feed.refreshAfterCommit(1L);
+        RequestFeedPage page = feed.getPage(alice.getId(), null, 10);
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(1, page.getRequests().get(1).getItems().size());
+        assertNull(page.getNextCursor());
+        verify(itemRequestRepository, times(1)).findNewest(any());
+    }
+
+    @Test
+    void shouldDropOldestRequest_WhenWindowIsFull() {
+        when(itemRequestRepository.findNewest(PageRequest.of(0, 2))).thenReturn(List.of(request(2, bob),
+                request(1, bob)));
+        when(itemRepository.findByRequestIdIn(any())).thenReturn(Collections.emptyList());
+        RequestFeed feed = new RequestFeed(itemRequestRepository, itemRepository, 2);
+        feed.getPage(alice.getId(), null, 1);
+
+        feed.addAfterCommit(request(3, bob));
+        when(itemRequestRepository.findFeedAfter(alice.getId(), START.plusMinutes(2), 2L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(request(1, bob)));
+        RequestFeedPage page = feed.getPage(alice.getId(), null, 3);
+
+        assertEquals(List.of(3L, 2L, 1L), ids(page));
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> FeedKey.fromCursor("not a cursor"));
+        assertEquals("Invalid cursor: not a cursor", exception.getMessage());
+    }
+
+    private static ItemRequest request(long id, User requestor) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("request " + id)
+                .requestor(requestor)
+                .created(START.plusMinutes(id))
+                .build();
+    }
+
+    private static List<Long> ids(RequestFeedPage page) {
+        return page.getRequests().stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+
+}
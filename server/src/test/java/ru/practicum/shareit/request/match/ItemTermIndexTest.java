@@ -0,0 +1,68 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ItemTermIndexTest {
+
+    private final ItemTermIndex index = new ItemTermIndex(mock(JdbcTemplate.class));
+
+    @Test
+    void shouldSplitTextIntoTerms_SkipShortAndCommonWords() {
+        assertEquals(Set.of("cordless", "drill", "weekend"),
+                ItemTermIndex.terms("Need a cordless DRILL for the weekend, ok?"));
+        assertTrue(ItemTermIndex.terms(null).isEmpty());
+    }
+
+    @Test
+    void shouldMatchItemsOfOtherOwners_BestFirst() {
+        index.putAfterCommit(item(1L, 10L, "Drill", "Cordless drill", true));
+        index.putAfterCommit(item(2L, 11L, "Hammer drill", "Heavy", true));
+        index.putAfterCommit(item(3L, 12L, "Cordless drill", "With battery", true));
+        index.putAfterCommit(item(4L, 13L, "Bicycle", "Mountain bike", true));
+
+        List<ItemTermIndex.Candidate> candidates = index.match(Set.of("cordless", "drill"), 10L, 10);
+
+        assertEquals(List.of(3L, 2L), candidates.stream().map(ItemTermIndex.Candidate::getItemId)
+                .collect(Collectors.toList()));
+        assertEquals(2, candidates.get(0).getScore());
+        assertEquals(12L, candidates.get(0).getOwnerId());
+        assertEquals(1, index.match(Set.of("drill"), 99L, 1).size());
+    }
+
+    @Test
+    void shouldReindexChangedItem_DropUnavailableAndDeleted() {
+        index.putAfterCommit(item(1L, 10L, "Drill", "Cordless", true));
+        index.putAfterCommit(item(1L, 10L, "Saw", "Circular", true));
+        assertTrue(index.match(Set.of("drill"), 99L, 10).isEmpty());
+        assertEquals(1, index.match(Set.of("saw"), 99L, 10).size());
+
+        index.putAfterCommit(item(1L, 10L, "Saw", "Circular", false));
+        assertTrue(index.match(Set.of("saw"), 99L, 10).isEmpty());
+
+        index.putAfterCommit(item(2L, 10L, "Ladder", "Tall", true));
+        index.removeAfterCommit(2L);
+        assertTrue(index.match(Set.of("ladder"), 99L, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static Item item(long id, long ownerId, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .isAvailable(available)
+                .owner(User.builder().id(ownerId).build())
+                .build();
+    }
+
+}
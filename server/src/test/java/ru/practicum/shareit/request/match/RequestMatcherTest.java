@@ -0,0 +1,91 @@
+package ru.practicum.shareit.request.match;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({RequestMatcher.class, ItemTermIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequestMatcherTest {
+
+    @Autowired
+    private RequestMatcher requestMatcher;
+    @Autowired
+    private ItemTermIndex itemTermIndex;
+    @Autowired
+    private RequestMatchRepository requestMatchRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long requestorId;
+    private long ownerId;
+    private long drillId;
+
+    @BeforeEach
+    void setUp() {
+        requestorId = insert("insert into users (name, email) values ('Requestor', 'requestor@mail.com')");
+        ownerId = insert("insert into users (name, email) values ('Owner', 'owner@mail.com')");
+        drillId = insert("insert into items (name, description, is_available, owner_id) " +
+                "values ('Drill', 'Cordless drill', true, ?)", ownerId);
+        insert("insert into items (name, description, is_available, owner_id) " +
+                "values ('Drill', 'Broken drill', false, ?)", ownerId);
+        insert("insert into items (name, description, is_available, owner_id) " +
+                "values ('Drill', 'My own drill', true, ?)", requestorId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.queryForList("select id from items", Long.class).forEach(itemTermIndex::removeAfterCommit);
+        for (String table : new String[]{"request_matches", "items", "requests", "users"}) {
+            jdbcTemplate.update("delete from " + table);
+        }
+    }
+
+    @Test
+    void shouldRecordMatchesOfAvailableItemsOfOtherOwners() {
+        long requestId = insert("insert into requests (description, requestor_id, created) values (?, ?, ?)",
+                "Need a drill", requestorId, LocalDateTime.now());
+        itemTermIndex.load();
+
+        int matched = requestMatcher.match(requestId, requestorId, "Need a drill");
+
+        assertEquals(1, matched);
+        List<RequestMatch> inbox = requestMatchRepository.findInbox(ownerId, PageRequest.of(0, 10));
+        assertEquals(1, inbox.size());
+        assertEquals(drillId, inbox.get(0).getItem().getId());
+        assertEquals(requestId, inbox.get(0).getRequest().getId());
+        assertTrue(requestMatchRepository.findInbox(requestorId, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void shouldRecordNothing_WhenNoItemMatches() {
+        long requestId = insert("insert into requests (description, requestor_id, created) values (?, ?, ?)",
+                "Need a kayak", requestorId, LocalDateTime.now());
+        itemTermIndex.load();
+
+        assertEquals(0, requestMatcher.match(requestId, requestorId, "Need a kayak"));
+        assertEquals(0, requestMatchRepository.count());
+    }
+
+    private long insert(String sql, Object... args) {
+        jdbcTemplate.update(sql, args);
+        Long id = jdbcTemplate.queryForObject("select max(id) from " + sql.split(" ")[2], Long.class);
+        return id != null ? id : 0;
+    }
+
+}
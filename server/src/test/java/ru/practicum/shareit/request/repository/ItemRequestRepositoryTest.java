@@ -11,7 +11,9 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,7 +69,7 @@ class ItemRequestRepositoryTest {
 
     @Test
     void shouldFindByRequestorId_ReturnEmptyList() {
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(1L, SORT);
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(1L, page);
         assertNotNull(requests);
         assertEquals(0, requests.size());
     }
@@ -76,11 +78,29 @@ class ItemRequestRepositoryTest {
     void shouldFindByRequestorId_ReturnListItemRequestor() {
         entityManager.persist(requester);
         entityManager.persist(itemRequest);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(requester.getId(), SORT);
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_Id(requester.getId(), page);
         assertNotNull(requests);
         assertEquals(1, requests.size());
     }
 
+    @Test
+    void shouldFindOwnAfter_ReturnOlderRequestsOnly() {
+        entityManager.persist(requester);
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 12, 0);
+        ItemRequest older = entityManager.persist(ItemRequest.builder().description("older").requestor(requester)
+                .build());
+        ItemRequest newer = entityManager.persist(ItemRequest.builder().description("newer").requestor(requester)
+                .build());
+        older.setCreated(created);
+        newer.setCreated(created);
+        entityManager.flush();
+
+        List<ItemRequest> requests = itemRequestRepository.findOwnAfter(requester.getId(), created, newer.getId(),
+                PageRequest.of(0, 10));
+
+        assertEquals(List.of(older.getId()), requests.stream().map(ItemRequest::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void shouldFindByRequesterIdNotWithPaging_ReturnEmptyList() {
         List<ItemRequest> requests = itemRequestRepository.findAllByRequestor_IdNot(1L, page);
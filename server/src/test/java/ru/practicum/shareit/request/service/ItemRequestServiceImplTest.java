@@ -9,12 +9,27 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.event.OfferEventListener;
+import ru.practicum.shareit.request.feed.FeedKey;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.feed.RequestFeedPage;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestMatch;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestMatchRepository;
+import ru.practicum.shareit.sse.SseBroker;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -36,10 +51,23 @@ class ItemRequestServiceImplTest {
     private UserService userService;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private RequestMatchRepository requestMatchRepository;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private SseBroker sseBroker;
+    @Mock
+    private RequestDetailCache requestDetailCache;
+    @Mock
+    private ChangeLog changeLog;
     @InjectMocks
     ItemRequestServiceImpl requestService;
 
     private static final Sort SORT = Sort.by(Sort.Direction.DESC, "created");
+    private static final Sort NEWEST_FIRST = SORT.and(Sort.by(Sort.Direction.DESC, "id"));
 
     private User requestor;
     private User owner;
@@ -76,21 +104,48 @@ class ItemRequestServiceImplTest {
     @Test
     void shouldGetAllRequestsWithOffers_ReturnListItemsRequest() {
         long userId = requestor.getId();
-        when(itemRequestRepository.findAllByRequestor_Id(userId, SORT)).thenReturn(List.of(request));
+        PageRequest page = PageRequest.of(0, 10, NEWEST_FIRST);
+        when(itemRequestRepository.findAllByRequestor_Id(userId, page)).thenReturn(List.of(request));
 
-        List<ItemRequestDto> requests = requestService.getAllRequestsWithOffers(userId);
+        List<ItemRequestDto> requests = requestService.getAllRequestsWithOffers(userId, 0, 10);
 
         assertNotNull(requests);
         assertEquals(1, requests.size());
-        verify(itemRequestRepository, times(1)).findAllByRequestor_Id(userId, SORT);
+        verify(itemRequestRepository, times(1)).findAllByRequestor_Id(userId, page);
+    }
+
+    @Test
+    void shouldGetOwnRequestsByCursor_ReturnPageWithNextCursor() {
+        long userId = requestor.getId();
+        String cursor = new FeedKey(request.getCreated().plusDays(1), 99L).toCursor();
+        when(itemRequestRepository.findOwnAfter(userId, request.getCreated().plusDays(1), 99L,
+                PageRequest.of(0, 1))).thenReturn(List.of(request));
+
+        RequestFeedPage page = requestService.getOwnRequests(userId, cursor, 1);
+
+        assertEquals(1, page.getRequests().size());
+        assertEquals(FeedKey.of(page.getRequests().get(0)).toCursor(), page.getNextCursor());
+        verify(userService).validateUserById(userId);
+    }
+
+    @Test
+    void shouldGetOwnRequestsLastPage_ReturnNoNextCursor() {
+        long userId = requestor.getId();
+        when(itemRequestRepository.findAllByRequestor_Id(userId, PageRequest.of(0, 2, NEWEST_FIRST)))
+                .thenReturn(List.of(request));
+
+        RequestFeedPage page = requestService.getOwnRequests(userId, null, 2);
+
+        assertEquals(1, page.getRequests().size());
+        assertNull(page.getNextCursor());
     }
 
     @Test
     void shouldGetRequestWithOffersById_ReturnItemRequest() {
         long userId = requestor.getId();
         long requestId = request.getId();
-        when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(request));
-        when(itemRepository.findAllByRequest_IdOrderByRequestDesc(requestId)).thenReturn(List.of(item));
+        ItemRequestDto cached = ItemRequestMapper.toItemRequestDto(request, List.of(ItemMapper.toItemDto(item)));
+        when(requestDetailCache.get(requestId)).thenReturn(Optional.of(cached));
 
         ItemRequestDto requestDto = requestService.getRequestWithOffersById(userId, requestId);
 
@@ -99,9 +154,30 @@ class ItemRequestServiceImplTest {
         assertEquals(1, requestDto.getItems().size());
         assertEquals(item.getId(), requestDto.getItems().get(0).getId());
 
-        InOrder inOrder = inOrder(itemRequestRepository, itemRepository);
-        inOrder.verify(itemRequestRepository).findById(requestId);
-        inOrder.verify(itemRepository).findAllByRequest_IdOrderByRequestDesc(requestId);
+        InOrder inOrder = inOrder(userService, requestDetailCache);
+        inOrder.verify(userService).validateUserById(userId);
+        inOrder.verify(requestDetailCache).get(requestId);
+        verifyNoInteractions(itemRequestRepository, itemRepository);
+    }
+
+    @Test
+    void shouldGetRequestWithOffersByIdWhenRequestNotFound_ReturnObjectNotFoundException() {
+        long requestIdNotFound = 999L;
+        when(requestDetailCache.get(requestIdNotFound)).thenReturn(Optional.empty());
+
+        ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
+                () -> requestService.getRequestWithOffersById(requestor.getId(), requestIdNotFound));
+
+        assertEquals("Request not found: id=999", exception.getMessage());
+    }
+
+    @Test
+    void shouldGetRequestTag_ReturnVersion() {
+        when(itemRequestRepository.findVersionById(request.getId())).thenReturn(Optional.of(4L));
+
+        assertEquals(Optional.of("4"), requestService.getRequestTag(requestor.getId(), request.getId()));
+        verify(userService).validateUserById(requestor.getId());
+        verifyNoInteractions(requestDetailCache);
     }
 
     @Test
@@ -137,6 +213,40 @@ class ItemRequestServiceImplTest {
         assertNotNull(requestDto);
         assertEquals(request.getId(), requestDto.getId());
         verify(itemRequestRepository, times(1)).save(any());
+        verify(changeLog).record(EntityType.REQUEST, request.getId(), requestor.getId(), null);
+        verify(requestMatcher).matchAfterCommit(request);
+    }
+
+    @Test
+    void shouldSubscribe_ReturnEmitterOfRequestsTopic() {
+        long userId = requestor.getId();
+        SseEmitter emitter = new SseEmitter();
+        when(sseBroker.subscribe(OfferEventListener.TOPIC, userId, "42")).thenReturn(emitter);
+
+        assertSame(emitter, requestService.subscribe(userId, "42"));
+        verify(userService).validateUserById(userId);
+    }
+
+    @Test
+    void shouldGetMatches_ReturnListRequestMatch() {
+        long userId = owner.getId();
+        RequestMatch match = RequestMatch.builder()
+                .id(5L)
+                .request(request)
+                .item(item)
+                .ownerId(userId)
+                .score(2)
+                .created(LocalDateTime.now())
+                .build();
+        when(requestMatchRepository.findInbox(userId, PageRequest.of(0, 10))).thenReturn(List.of(match));
+
+        List<RequestMatchDto> matches = requestService.getMatches(userId, 0, 10);
+
+        assertEquals(1, matches.size());
+        assertEquals(request.getId(), matches.get(0).getRequest().getId());
+        assertEquals(item.getId(), matches.get(0).getItem().getId());
+        assertEquals(2, matches.get(0).getScore());
+        verify(userService).validateUserById(userId);
     }
 
     @Test
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseBrokerTest {
+
+    private final SseBroker broker = new SseBroker(2, 60_000, 5_000, 4);
+
+    @AfterEach
+    void tearDown() {
+        broker.stop();
+    }
+
+    @Test
+    void shouldPublishWhenQueueFull_DropEvent() {
+        assertTrue(broker.publish("topic", List.of(1L), "CREATED", "first"));
+        assertTrue(broker.publish("topic", List.of(1L), "CREATED", "second"));
+
+        assertFalse(broker.publish("topic", List.of(1L), "CREATED", "third"));
+        assertEquals(1, broker.getDropped());
+        assertEquals(2, broker.getPending());
+    }
+
+    @Test
+    void shouldDispatch_DrainQueue() throws InterruptedException {
+        broker.subscribe("topic", 1L, null);
+        broker.start();
+
+        broker.publish("topic", List.of(1L, 2L), "CREATED", "event");
+
+        for (int i = 0; i < 100 && broker.getPending() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broker.getPending());
+        assertEquals(0, broker.getDropped());
+    }
+
+    @Test
+    void shouldCompleteEmitter_RemoveSubscriber() {
+        SseEmitter first = broker.subscribe("topic", 1L, null);
+        broker.subscribe("topic", 1L, null);
+        broker.subscribe("other", 1L, null);
+        assertEquals(3, broker.getSubscriberCount());
+
+        broker.stop();
+
+        assertEquals(0, broker.getSubscriberCount());
+        assertThrows(IllegalStateException.class, () -> first.send("late"));
+    }
+
+    @Test
+    void shouldDispatchWhenSendBlocks_DropSlowSubscriberOnly() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch failed = new CountDownLatch(1);
+        List<String> received = new ArrayList<>();
+        SseBroker slowBroker = new SseBroker(10, 60_000, 100, 4) {
+            private int created;
+
+            @Override
+            SseEmitter createEmitter() {
+                boolean slow = created++ == 0;
+                return new SseEmitter(60_000L) {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        if (slow) {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        } else {
+                            synchronized (received) {
+                                received.add(builder.build().iterator().next().getData().toString());
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void completeWithError(Throwable ex) {
+                        if (slow) {
+                            failed.countDown();
+                        }
+                    }
+                };
+            }
+        };
+        try {
+            slowBroker.subscribe("topic", 1L, null);
+            slowBroker.subscribe("topic", 2L, null);
+            slowBroker.start();
+
+            slowBroker.publish("topic", List.of(1L, 2L), "CREATED", "first");
+            slowBroker.publish("topic", List.of(1L, 2L), "CREATED", "second");
+
+            for (int i = 0; i < 100 && received.size() < 2; i++) {
+                Thread.sleep(10);
+            }
+            synchronized (received) {
+                assertEquals(2, received.size());
+            }
+            assertEquals(1, slowBroker.getSubscriberCount());
+            release.countDown();
+            assertTrue(failed.await(1, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            slowBroker.stop();
+        }
+    }
+
+    @Test
+    void shouldHeartbeat_SendCommentToEverySubscriber() throws InterruptedException {
+        CountDownLatch comments = new CountDownLatch(2);
+        SseBroker heartbeatBroker = new SseBroker(10, 60_000, 1_000, 4) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter(60_000L) {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        if (builder.build().iterator().next().getData().toString().startsWith(":")) {
+                            comments.countDown();
+                        }
+                    }
+                };
+            }
+        };
+        try {
+            heartbeatBroker.subscribe("topic", 1L, null);
+            heartbeatBroker.subscribe("other", 2L, null);
+            heartbeatBroker.start();
+
+            heartbeatBroker.heartbeat();
+
+            assertTrue(comments.await(1, TimeUnit.SECONDS));
+            assertEquals(2, heartbeatBroker.getSubscriberCount());
+        } finally {
+            heartbeatBroker.stop();
+        }
+    }
+
+    @Test
+    void shouldDispatchAfterDroppedEvent_SendResyncBeforeNextEvent() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        SseBroker recordingBroker = recordingBroker(1, received);
+        try {
+            recordingBroker.subscribe("topic", 1L, null);
+            recordingBroker.subscribe("topic", 2L, null);
+            recordingBroker.publish("topic", List.of(2L), "CREATED", "first");
+            assertFalse(recordingBroker.publish("topic", List.of(1L), "CREATED", "dropped"));
+            recordingBroker.start();
+            String first = received.poll(1, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertTrue(first.contains("data:first"));
+            assertTrue(first.startsWith("id:"));
+
+            recordingBroker.publish("topic", List.of(1L), "CREATED", "second");
+
+            String resync = received.poll(1, TimeUnit.SECONDS);
+            assertNotNull(resync);
+            assertTrue(resync.contains("event:" + SseBroker.RESYNC));
+            String second = received.poll(1, TimeUnit.SECONDS);
+            assertNotNull(second);
+            assertTrue(second.contains("data:second"));
+            assertTrue(id(second) > id(first));
+        } finally {
+            recordingBroker.stop();
+        }
+    }
+
+    @Test
+    void shouldSubscribeWithLastEventIdOfLastEvent_NotSendResync() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        SseBroker recordingBroker = recordingBroker(10, received);
+        try {
+            recordingBroker.subscribe("topic", 1L, null);
+            recordingBroker.start();
+            recordingBroker.publish("topic", List.of(1L), "CREATED", "event");
+            String event = received.poll(1, TimeUnit.SECONDS);
+            assertNotNull(event);
+
+            recordingBroker.subscribe("topic", 1L, String.valueOf(id(event)));
+            recordingBroker.subscribe("topic", 1L, String.valueOf(id(event) - 1));
+            recordingBroker.subscribe("topic", 1L, "unknown");
+
+            assertEquals(2, received.size());
+            assertTrue(received.stream().allMatch(e -> e.contains("event:" + SseBroker.RESYNC)));
+        } finally {
+            recordingBroker.stop();
+        }
+    }
+
+    private static SseBroker recordingBroker(int queueCapacity, BlockingQueue<String> received) {
+        return new SseBroker(queueCapacity, 60_000, 1_000, 4) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter(60_000L) {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        received.add(builder.build().stream()
+                                .map(data -> data.getData().toString())
+                                .collect(Collectors.joining()));
+                    }
+                };
+            }
+        };
+    }
+
+    private static long id(String event) {
+        return Long.parseLong(event.substring("id:".length(), event.indexOf('\n')));
+    }
+
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.user.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EmailIndexTest {
+
+    private EmailIndex emailIndex;
+
+    @BeforeEach
+    void setUp() {
+        emailIndex = new EmailIndex(mock(JdbcTemplate.class));
+        emailIndex.putAfterCommit(1L, null, "first@email.com");
+    }
+
+    @Test
+    void shouldCheckEmail_TakenOnlyByOtherUsers() {
+        assertTrue(emailIndex.isTaken("first@email.com", null));
+        assertTrue(emailIndex.isTaken("first@email.com", 2L));
+        assertFalse(emailIndex.isTaken("first@email.com", 1L));
+        assertFalse(emailIndex.isTaken("free@email.com", null));
+    }
+
+    @Test
+    void shouldChangeEmail_FreeOldEmail() {
+        emailIndex.putAfterCommit(1L, "first@email.com", "second@email.com");
+
+        assertFalse(emailIndex.isTaken("first@email.com", 2L));
+        assertTrue(emailIndex.isTaken("second@email.com", 2L));
+    }
+
+    @Test
+    void shouldRemoveEmailOfOtherUser_KeepEmail() {
+        emailIndex.removeAfterCommit(2L, "first@email.com");
+        assertTrue(emailIndex.isTaken("first@email.com", 2L));
+
+        emailIndex.removeAfterCommit(1L, "first@email.com");
+        assertFalse(emailIndex.isTaken("first@email.com", 2L));
+    }
+
+}
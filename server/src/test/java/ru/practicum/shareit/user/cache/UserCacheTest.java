@@ -0,0 +1,99 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+    private MeterRegistry registry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(userRepository, 10, 10);
+        registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+        user = User.builder().id(1L).name("name").email("email@email.com").build();
+    }
+
+    @Test
+    void shouldGetTwice_ReadRepositoryOnceAndReturnCopies() {
+        when(userRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(user));
+
+        User first = userCache.get(1L).orElseThrow();
+        first.setName("changed");
+        User second = userCache.get(1L).orElseThrow();
+
+        assertEquals("name", second.getName());
+        assertNotSame(user, second);
+        verify(userRepository, times(1)).findByIdAndDeletedAtIsNull(1L);
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+        assertEquals(UserCache.USER_ENTRY_BYTES + 4 + 15, registry.get("shareit.user.cache.memory").gauge().value());
+    }
+
+    @Test
+    void shouldCheckUnknownUserTwice_ReadRepositoryOnce() {
+        when(userRepository.findByIdAndDeletedAtIsNull(9L)).thenReturn(Optional.empty());
+
+        assertFalse(userCache.exists(9L));
+        assertFalse(userCache.exists(9L));
+
+        verify(userRepository, times(1)).findByIdAndDeletedAtIsNull(9L);
+        assertEquals(1, gets("missing-hit"));
+        assertEquals(1, registry.get("shareit.user.cache.size").tag("tier", "missing").gauge().value());
+    }
+
+    @Test
+    void shouldGetAfterEviction_ReadRepositoryAgain() {
+        when(userRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.empty()).thenReturn(Optional.of(user));
+
+        assertTrue(userCache.get(1L).isEmpty());
+        userCache.evictAfterCommit(1L);
+
+        assertEquals(user.getEmail(), userCache.get(1L).orElseThrow().getEmail());
+        assertEquals(0, registry.get("shareit.user.cache.size").tag("tier", "missing").gauge().value());
+    }
+
+    @Test
+    void shouldGetAll_ReadOnlyUncachedIdsWithOneQuery() {
+        User other = User.builder().id(2L).name("other").email("other@email.com").build();
+        when(userRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findByIdInAndDeletedAtIsNull(List.of(2L, 9L))).thenReturn(List.of(other));
+
+        userCache.get(1L);
+        Map<Long, User> users = userCache.getAll(List.of(1L, 2L, 9L));
+
+        assertEquals(Set.of(1L, 2L), users.keySet());
+        assertFalse(userCache.exists(9L));
+        assertEquals("other", userCache.get(2L).orElseThrow().getName());
+        verify(userRepository, times(1)).findByIdInAndDeletedAtIsNull(any());
+        verify(userRepository, never()).findByIdAndDeletedAtIsNull(2L);
+        verify(userRepository, never()).findByIdAndDeletedAtIsNull(9L);
+    }
+
+    private double gets(String result) {
+        return registry.get("shareit.user.cache.gets").tag("result", result).functionCounter().count();
+    }
+
+}
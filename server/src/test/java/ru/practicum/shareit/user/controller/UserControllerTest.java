@@ -9,16 +9,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.importer.UserImportReport;
+import ru.practicum.shareit.user.importer.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -33,6 +42,8 @@ class UserControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private final UserService userService;
+    @MockBean
+    private final UserImporter userImporter;
 
     String url = "/users";
 
@@ -54,7 +65,7 @@ class UserControllerTest {
 
     @Test
     void shouldGetAllUsers_ReturnListUsers() throws Exception {
-        when(userService.getAllUsers()).thenReturn(List.of(userDtoBuilder.id(1L).build()));
+        when(userService.getUsers(0L, 1000)).thenReturn(List.of(userDtoBuilder.id(1L).build()));
         mockMvc.perform(get(url))
                 .andDo(print())
                 .andExpect(status().isOk())
@@ -64,13 +75,38 @@ class UserControllerTest {
 
     @Test
     void shouldGetAllUsersIfNoUsers_ReturnEmptyList() throws Exception {
-        when(userService.getAllUsers()).thenReturn(Collections.emptyList());
+        when(userService.getUsers(0L, 1000)).thenReturn(Collections.emptyList());
         mockMvc.perform(get(url))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()", is(0)));
     }
 
+    @Test
+    void shouldGetUsersByIds_ReturnListUsers() throws Exception {
+        when(userService.getUsersByIds(List.of(2L, 1L))).thenReturn(List.of(userDtoBuilder.id(2L).build(),
+                userDtoBuilder.id(1L).build()));
+        mockMvc.perform(get(url).param("ids", "2,1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+        verify(userService, never()).getUsers(any(), any());
+    }
+
+    @Test
+    void shouldImportCsv_ReturnReport() throws Exception {
+        when(userImporter.importUsers(any(), any())).thenReturn(new UserImportReport());
+        mockMvc.perform(post(url + "/import")
+                        .contentType(UserImporter.TEXT_CSV_VALUE)
+                        .content("name,email\nAlice,alice@mail.com\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+        verify(userImporter).importUsers(any(), argThat(type -> type.isCompatibleWith(MediaType.valueOf("text/csv"))));
+    }
+
     @Test
     void shouldGetUserById_ReturnStatus200AndCorrectJson() throws Exception {
         UserDto userDto = UserDto.builder().id(1L).build();
@@ -176,4 +212,32 @@ class UserControllerTest {
                 .andExpect(content().json("{\"error\":\"User not found: id=999\"}"));
     }
 
+    @Test
+    void shouldGetUsersAfterId_ReturnPage() throws Exception {
+        when(userService.getUsers(5L, 2)).thenReturn(List.of(userDtoBuilder.id(6L).build()));
+        mockMvc.perform(get(url).param("after", "5").param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(6)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamUsers_ReturnJsonLines() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(userDtoBuilder.id(1L).build());
+            action.accept(userDtoBuilder.id(2L).build());
+            return null;
+        }).when(userService).forEachUser(any(Consumer.class));
+        MvcResult result = mockMvc.perform(get(url + "/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"name\":\"Test\",\"email\":\"testUser@email.ru\"}\n" +
+                        "{\"id\":2,\"name\":\"Test\",\"email\":\"testUser@email.ru\"}\n"));
+    }
 }
\ No newline at end of file
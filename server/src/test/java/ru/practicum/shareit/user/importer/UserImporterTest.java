@@ -0,0 +1,119 @@
+package ru.practicum.shareit.user.importer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"shareit.user.import.chunk-size=2", "shareit.user.import.max-line-length=64"})
+@Import({UserImporter.class, BookingCounters.class, EmailIndex.class, UserCache.class, ChangeLog.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImporterTest {
+
+    @Autowired
+    private UserImporter userImporter;
+    @Autowired
+    private EmailIndex emailIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from booking_counters");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void shouldImportCsv_InsertValidRowsAndReportRejected() throws IOException {
+        String csv = "name,email\n" +
+                "Alice,alice@mail.com\n" +
+                "\n" +
+                "\"Bob\",bob@mail.com\n" +
+                "Bad,not-an-email\n" +
+                "Carol,alice@mail.com\n" +
+                "Dave\n";
+
+        UserImportReport report = importUsers(csv, MediaType.parseMediaType(UserImporter.TEXT_CSV_VALUE));
+
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals(List.of(5L, 6L, 7L), lines(report));
+        assertEquals(2, count("select count(*) from users"));
+        assertEquals(2L * countersPerUser(), count("select count(*) from booking_counters"));
+        assertTrue(emailIndex.isTaken("bob@mail.com", null));
+    }
+
+    @Test
+    void shouldImportNdjsonWhenEmailRegisteredMeanwhile_RetryChunkRowByRow() throws IOException {
+        jdbcTemplate.update("insert into users (name, email) values ('Taken', 'taken@mail.com')");
+        String ndjson = "{\"name\":\"Anna\",\"email\":\"anna@mail.com\"}\n" +
+                "{\"name\":\"Taken\",\"email\":\"taken@mail.com\"}\n" +
+                "{broken\n" +
+                "{\"name\":\"Ben\",\"email\":\"ben@mail.com\"}\n";
+
+        UserImportReport report = importUsers(ndjson, MediaType.APPLICATION_NDJSON);
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(2L, 3L), lines(report));
+        assertEquals("User with email taken@mail.com is already registered.", report.getErrors().get(0).getError());
+        assertEquals(3, count("select count(*) from users"));
+        assertEquals(2L * countersPerUser(), count("select count(*) from booking_counters"));
+    }
+
+    @Test
+    void shouldImportCsvWithOverlongLine_RejectItAndReadNextLines() throws IOException {
+        String csv = "Fred,fred@mail.com\r\n" +
+                "Eve," + "e".repeat(100) + "@mail.com\r\n" +
+                "Gina,gina@mail.com";
+
+        UserImportReport report = importUsers(csv, MediaType.parseMediaType(UserImporter.TEXT_CSV_VALUE));
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(2L), lines(report));
+        assertEquals("Line is longer than 64 characters", report.getErrors().get(0).getError());
+        assertNull(report.getErrors().get(0).getEmail());
+        assertTrue(emailIndex.isTaken("gina@mail.com", null));
+    }
+
+    private UserImportReport importUsers(String body, MediaType contentType) throws IOException {
+        return userImporter.importUsers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType);
+    }
+
+    private static List<Long> lines(UserImportReport report) {
+        return report.getErrors().stream()
+                .map(UserImportError::getLine)
+                .collect(Collectors.toList());
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static long countersPerUser() {
+        return (long) BookingRole.values().length * StatusBooking.values().length;
+    }
+
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.user.purge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.timeline.BookingTimeline;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
+import ru.practicum.shareit.item.comment.cache.CommentCache;
+import ru.practicum.shareit.request.cache.RequestDetailCache;
+import ru.practicum.shareit.request.feed.RequestFeed;
+import ru.practicum.shareit.request.match.ItemTermIndex;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "shareit.user.purge.batch-size=1")
+@Import({UserPurger.class, BookingCounters.class, BookingTimeline.class, CommentCache.class, UserCache.class,
+        EmailIndex.class, RequestFeed.class, ItemTermIndex.class, RequestDetailCache.class,
+        ChangeLog.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPurgerTest {
+
+    @Autowired
+    private UserPurger userPurger;
+    @Autowired
+    private BookingCounters bookingCounters;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ChangeLog changeLog;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long deletedId;
+    private long otherId;
+    private long otherItemId;
+
+    @BeforeEach
+    void setUp() {
+        deletedId = insert("insert into users (name, email) values ('Deleted', 'deleted@mail.com')");
+        otherId = insert("insert into users (name, email) values ('Other', 'other@mail.com')");
+        bookingCounters.createFor(otherId);
+        long requestId = insert("insert into requests (description, requestor_id, created) values ('need', ?, ?)",
+                deletedId, LocalDateTime.now());
+        long deletedItemId = insert("insert into items (name, description, is_available, owner_id) " +
+                "values ('own', 'own', true, ?)", deletedId);
+        otherItemId = insert("insert into items (name, description, is_available, owner_id, request_id) " +
+                "values ('other', 'other', true, ?, ?)", otherId, requestId);
+        long commentId = insert("insert into comments (text, item_id, author_id) values ('text', ?, ?)",
+                otherItemId, deletedId);
+        jdbcTemplate.update("update items set comment_count = 1, last_comment_id = ? where id = ?",
+                commentId, otherItemId);
+        insert("insert into comments (text, item_id, author_id) values ('text', ?, ?)", deletedItemId, otherId);
+        long otherRequestId = insert("insert into requests (description, requestor_id, created) " +
+                "values ('need', ?, ?)", otherId, LocalDateTime.now());
+        insert("insert into request_matches (request_id, item_id, owner_id, score, created) values (?, ?, ?, 1, ?)",
+                requestId, otherItemId, otherId, LocalDateTime.now());
+        insert("insert into request_matches (request_id, item_id, owner_id, score, created) values (?, ?, ?, 1, ?)",
+                otherRequestId, deletedItemId, deletedId, LocalDateTime.now());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        insert("insert into bookings (start_date, end_date, item_id, booker_id, status) values (?, ?, ?, ?, ?)",
+                start, start.plusDays(1), otherItemId, deletedId, StatusBooking.APPROVED.name());
+        insert("insert into bookings (start_date, end_date, item_id, booker_id, status) values (?, ?, ?, ?, ?)",
+                start, start.plusDays(1), deletedItemId, otherId, StatusBooking.WAITING.name());
+        jdbcTemplate.update("insert into bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+                        "values (1000, ?, ?, ?, ?, ?)", start.minusYears(3), start.minusYears(2), otherItemId,
+                deletedId, StatusBooking.APPROVED.name());
+        jdbcTemplate.update("update booking_counters set booking_count = 2 where user_id = ? and role = ? " +
+                "and status = ?", otherId, BookingRole.OWNER.name(), StatusBooking.APPROVED.name());
+        jdbcTemplate.update("update booking_counters set booking_count = 1 where user_id = ? and role = ? " +
+                "and status = ?", otherId, BookingRole.BOOKER.name(), StatusBooking.WAITING.name());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : new String[]{"request_matches", "comments", "bookings", "bookings_archive", "items",
+                "requests", "booking_counters", "users", "changes", "pending_changes"}) {
+            jdbcTemplate.update("delete from " + table);
+        }
+    }
+
+    @Test
+    void shouldPurgeDeletedUser_RemoveDependentRowsAndKeepOtherUser() {
+        jdbcTemplate.update("update users set deleted_at = ? where id = ?", LocalDateTime.now(), deletedId);
+        assertTrue(userRepository.findByIdAndDeletedAtIsNull(deletedId).isEmpty());
+
+        userPurger.purgeDeleted();
+        changeLog.publish();
+
+        assertEquals(1, count("select count(*) from users"));
+        assertEquals(1, count("select count(*) from items"));
+        assertEquals(0, count("select count(*) from comments"));
+        assertEquals(0, count("select count(*) from bookings") + count("select count(*) from bookings_archive"));
+        assertEquals(1, count("select count(*) from requests"));
+        assertEquals(0, count("select count(*) from requests where requestor_id = " + deletedId));
+        assertEquals(0, count("select count(*) from request_matches"));
+        assertEquals(0, count("select comment_count from items"));
+        assertEquals(0, count("select count(*) from items where request_id is not null " +
+                "or last_comment_id is not null"));
+        assertEquals(0, bookingCounters.get(otherId).get(BookingRole.OWNER).get(StatusBooking.APPROVED));
+        assertEquals(0, bookingCounters.get(otherId).get(BookingRole.BOOKER).get(StatusBooking.WAITING));
+        assertTrue(userRepository.findById(otherId).isPresent());
+        assertEquals(1, changed(EntityType.USER));
+        assertEquals(2, changed(EntityType.ITEM));
+        assertEquals(2, changed(EntityType.COMMENT));
+        assertEquals(3, changed(EntityType.BOOKING));
+        assertEquals(1, changed(EntityType.REQUEST));
+    }
+
+    @Test
+    void shouldPurgeWhenNoUserDeleted_KeepEverything() {
+        userPurger.purgeDeleted();
+        changeLog.publish();
+
+        assertEquals(2, count("select count(*) from users"));
+        assertEquals(2, count("select count(*) from comments"));
+        assertEquals(2, count("select count(*) from request_matches"));
+        assertEquals(otherItemId, count("select id from items where request_id is not null"));
+        assertEquals(0, count("select count(*) from changes"));
+    }
+
+    private long insert(String sql, Object... args) {
+        jdbcTemplate.update(sql, args);
+        return count("select max(id) from " + sql.split(" ")[2]);
+    }
+
+    private long changed(EntityType entityType) {
+        return count("select count(distinct entity_id) from changes where entity_type = '" + entityType + "'");
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.StatusBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ObjectNotFoundException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserDeletionTestIT {
+
+    private final EntityManager entityManager;
+    private final UserRepository userRepository;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+
+    @Test
+    void shouldReadOtherUsersDataWhileDeletedUsersWaitForPurge() {
+        User owner = persist(makeUser("owner", "deletion-owner@email.com"));
+        User booker = persist(makeUser("booker", "deletion-booker@email.com"));
+        User requester = persist(makeUser("requester", "deletion-requester@email.com"));
+        User deletedOwner = persist(makeUser("deletedOwner", "deletion-deleted-owner@email.com"));
+        User deletedBooker = persist(makeUser("deletedBooker", "deletion-deleted-booker@email.com"));
+        ItemRequest request = persist(ItemRequest.builder()
+                .description("drill")
+                .requestor(requester)
+                .created(LocalDateTime.now())
+                .build());
+        Item item = persist(makeItem(owner, request));
+        Item deletedOwnerItem = persist(makeItem(deletedOwner, request));
+        LocalDateTime now = LocalDateTime.now();
+        Booking deletedBookerBooking = persist(makeBooking(item, deletedBooker, now.plusDays(1)));
+        Booking booking = persist(makeBooking(deletedOwnerItem, booker, now.plusDays(2)));
+        userRepository.markDeleted(deletedOwner.getId(), now);
+        userRepository.markDeleted(deletedBooker.getId(), now);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingDto> ownerBookings = bookingService.getBookingsAllItemCurrentUser(owner.getId(), "ALL", 0, 10,
+                FieldSet.ALL);
+        assertThat(ids(ownerBookings), contains(deletedBookerBooking.getId()));
+        BookingDto ownerBooking = bookingService.getBookingById(owner.getId(), deletedBookerBooking.getId());
+        assertThat(ownerBooking.getBooker().getId(), equalTo(deletedBooker.getId()));
+        List<BookingDto> bookerBookings = bookingService.getBookingsCurrentUser(booker.getId(), "ALL", 0, 10,
+                FieldSet.ALL);
+        assertThat(ids(bookerBookings), contains(booking.getId()));
+
+        assertThrows(ObjectNotFoundException.class,
+                () -> itemService.getItemById(booker.getId(), deletedOwnerItem.getId()));
+        List<ItemDto> items = itemService.getItemsByIds(booker.getId(),
+                List.of(item.getId(), deletedOwnerItem.getId()));
+        assertThat(items, contains(hasProperty("id", equalTo(item.getId()))));
+
+        List<ItemRequestDto> requests = itemRequestService.getRequests(owner.getId(), 0, 10);
+        assertThat(requests, hasItem(allOf(
+                hasProperty("id", equalTo(request.getId())),
+                hasProperty("items", contains(hasProperty("id", equalTo(item.getId()))))
+        )));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+    }
+
+    private User makeUser(String name, String email) {
+        return User.builder()
+                .name(name)
+                .email(email)
+                .build();
+    }
+
+    private Item makeItem(User owner, ItemRequest request) {
+        return Item.builder()
+                .name("name")
+                .description("description")
+                .isAvailable(true)
+                .owner(owner)
+                .request(request)
+                .build();
+    }
+
+    private Booking makeBooking(Item item, User booker, LocalDateTime start) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .item(item)
+                .booker(booker)
+                .status(StatusBooking.WAITING)
+                .build();
+    }
+
+}
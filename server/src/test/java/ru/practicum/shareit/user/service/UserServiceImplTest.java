@@ -6,16 +6,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.counter.BookingCounters;
+import ru.practicum.shareit.change.log.ChangeLog;
+import ru.practicum.shareit.change.model.EntityType;
 import ru.practicum.shareit.exception.ObjectNotFoundException;
 import ru.practicum.shareit.exception.UserAlreadyExistException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.cache.EmailIndex;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +38,16 @@ class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingCounters bookingCounters;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private EmailIndex emailIndex;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ChangeLog changeLog;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -40,9 +63,10 @@ class UserServiceImplTest {
 
     @Test
     void shouldGetAllUsers_ReturnListUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(0L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(user));
 
-        List<UserDto> users = userService.getAllUsers();
+        List<UserDto> users = userService.getUsers(0L, 10);
 
         assertNotNull(users);
         assertEquals(1, users.size());
@@ -50,18 +74,38 @@ class UserServiceImplTest {
 
     @Test
     void shouldGetAllUsers_ReturnEmptyList() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(any(), any()))
+                .thenReturn(Collections.emptyList());
 
-        List<UserDto> users = userService.getAllUsers();
+        List<UserDto> users = userService.getUsers(0L, 10);
 
         assertNotNull(users);
         assertEquals(0, users.size());
     }
 
+    @Test
+    void shouldGetAllUsersIfSizeTooLarge_ReturnValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> userService.getUsers(0L, 1001));
+
+        assertEquals("Wrong page: after=0, size=1001", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void shouldGetUsersByIds_ReturnFoundUsersInRequestOrder() {
+        User other = User.builder().id(2L).name("other").email("other@email.com").build();
+        when(userCache.getAll(Set.of(2L, 1L, 9L))).thenReturn(Map.of(1L, user, 2L, other));
+
+        List<UserDto> users = userService.getUsersByIds(List.of(2L, 1L, 9L, 2L));
+
+        assertEquals(List.of(2L, 1L), users.stream().map(UserDto::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void shouldGetUserById_ReturnUser() {
         long userId = user.getId();
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userCache.get(userId)).thenReturn(Optional.of(user));
 
         UserDto user = userService.getUserById(userId);
 
@@ -73,7 +117,7 @@ class UserServiceImplTest {
     void shouldGetUserByIdWhenUserNotFound_ReturnObjectNotFoundException() {
         long userId = 999L;
         String error = String.format("User not found: id=%d", userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.get(userId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                     () -> userService.getUserById(userId));
@@ -94,6 +138,20 @@ class UserServiceImplTest {
         assertNotNull(userSaved);
         assertEquals(user.getId(), userSaved.getId());
         verify(userRepository, times(1)).save(any());
+        verify(bookingCounters).createFor(user.getId());
+        verify(changeLog).record(EntityType.USER, user.getId());
+        verify(userCache).evictAfterCommit(user.getId());
+        verify(emailIndex).putAfterCommit(user.getId(), null, user.getEmail());
+    }
+
+    @Test
+    void shouldSaveUserWhenEmailIndexed_ThrowWithoutInsert() {
+        UserDto userDto = UserMapper.toUserDto(user);
+        when(emailIndex.isTaken(user.getEmail(), null)).thenReturn(true);
+
+        assertThrows(UserAlreadyExistException.class, () -> userService.saveUser(userDto));
+
+        verifyNoInteractions(userRepository, bookingCounters);
     }
 
     @Test
@@ -117,13 +175,14 @@ class UserServiceImplTest {
         userUpdated.setId(userId);
         userUpdated.setName(nameUpdated);
         userUpdated.setEmail(user.getEmail());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(userUpdated);
+        when(userRepository.findByIdAndDeletedAtIsNull(userId)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(userUpdated);
         UserDto userDtoUpdated = userService.updateUser(userId, UserDto.builder().name(nameUpdated).build());
 
         assertNotNull(userDtoUpdated);
         assertEquals(userId, userDtoUpdated.getId());
         assertEquals(nameUpdated, userDtoUpdated.getName());
+        verify(userCache).evictAfterCommit(userId);
     }
 
     @Test
@@ -134,13 +193,27 @@ class UserServiceImplTest {
         userUpdated.setId(userId);
         userUpdated.setName(user.getName());
         userUpdated.setEmail(emailUpdated);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(userUpdated);
+        when(userRepository.findByIdAndDeletedAtIsNull(userId)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(userUpdated);
         UserDto userDtoUpdated = userService.updateUser(userId, UserDto.builder().email(emailUpdated).build());
 
         assertNotNull(userDtoUpdated);
         assertEquals(userId, userDtoUpdated.getId());
         assertEquals(emailUpdated, userDtoUpdated.getEmail());
+        verify(emailIndex).putAfterCommit(userId, "email@email.com", emailUpdated);
+    }
+
+    @Test
+    void shouldUpdateEmailUserWhenEmailIndexed_ThrowWithoutSave() {
+        long userId = user.getId();
+        when(userRepository.findByIdAndDeletedAtIsNull(userId)).thenReturn(Optional.of(user));
+        when(emailIndex.isTaken("taken@email.com", userId)).thenReturn(true);
+
+        assertThrows(UserAlreadyExistException.class,
+                () -> userService.updateUser(userId, UserDto.builder().email("taken@email.com").build()));
+
+        verify(userRepository, never()).saveAndFlush(any());
+        assertEquals("email@email.com", user.getEmail());
     }
 
     @Test
@@ -148,7 +221,7 @@ class UserServiceImplTest {
         long userId = 999L;
         UserDto updateUser = UserMapper.toUserDto(user);
         String error = String.format("User not found: id=%d", userId);
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findByIdAndDeletedAtIsNull(userId)).thenReturn(Optional.empty());
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> userService.updateUser(userId, updateUser));
         assertEquals(error, exception.getMessage());
@@ -157,11 +230,32 @@ class UserServiceImplTest {
     @Test
     void deleteUser() {
         long userId = user.getId();
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.markDeleted(eq(userId), any())).thenReturn(1);
 
         userService.deleteUser(userId);
 
-        verify(userRepository, times(1)).deleteById(userId);
+        verify(userRepository, never()).deleteById(any());
+        verify(userCache).evictAfterCommit(userId);
+        verifyNoInteractions(emailIndex);
     }
 
+    @Test
+    void shouldDeleteUserWhenUserNotFound_ReturnObjectNotFoundException() {
+        when(userRepository.markDeleted(eq(999L), any())).thenReturn(0);
+
+        assertThrows(ObjectNotFoundException.class, () -> userService.deleteUser(999L));
+
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void shouldForEachUser_PassMappedUsersAndDetachThem() {
+        when(userRepository.streamAll()).thenReturn(Stream.of(user));
+        List<UserDto> users = new ArrayList<>();
+
+        userService.forEachUser(users::add);
+
+        assertEquals(List.of(UserMapper.toUserDto(user)), users);
+        verify(entityManager).detach(user);
+    }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -37,7 +38,7 @@ class UserServiceTestIT {
         }
         entityManager.flush();
 
-        List<UserDto> targetUsers = userService.getAllUsers();
+        List<UserDto> targetUsers = userService.getUsers(0L, 10);
 
         assertThat(targetUsers, hasSize(sourceUsers.size()));
         for (UserDto sourceUser : sourceUsers) {
@@ -56,4 +57,19 @@ class UserServiceTestIT {
                 .build();
     }
 
+    @Test
+    void shouldForEachUser_ReturnAllUsersInIdOrder() {
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(UserMapper.toUser(makeUserDto("name" + i, "stream" + i + "@mail.ru")));
+        }
+        entityManager.flush();
+        List<UserDto> targetUsers = new ArrayList<>();
+
+        userService.forEachUser(targetUsers::add);
+
+        assertThat(targetUsers, hasSize(3));
+        assertThat(targetUsers.get(0).getId(), lessThan(targetUsers.get(2).getId()));
+        List<UserDto> page = userService.getUsers(targetUsers.get(0).getId(), 1);
+        assertThat(page.get(0).getId(), equalTo(targetUsers.get(1).getId()));
+    }
 }
\ No newline at end of file